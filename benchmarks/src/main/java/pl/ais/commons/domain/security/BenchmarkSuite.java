@@ -0,0 +1,99 @@
+package pl.ais.commons.domain.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.NoBenchmarksException;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Method;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the benchmarks (all of them, or the ones matching regular expressions given as the arguments) using 1, 2, 4
+ * ... threads, up to the number of available processors, collecting the allocation rates with the GC profiler.
+ *
+ * <p>
+ * Each benchmark reports both the throughput and the average latency. Results of each thread count are stored in
+ * {@code jmh-result-<threads>.json} file, so they can be compared across the runs.
+ * </p>
+ * <p>
+ * {@link DecryptableValueBenchmark} compares the contention using its own thread counts, so it is excluded from the
+ * thread sweep, and run once (if selected) instead, with the results stored in {@code jmh-result-contention.json}.
+ * </p>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar pl.ais.commons.domain.security.BenchmarkSuite [regexp ...]
+ * </pre>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+public final class BenchmarkSuite {
+
+    private static final Class<?> CONTENTION_BENCHMARK = DecryptableValueBenchmark.class;
+
+    private static final String CONTENTION_BENCHMARKS = Pattern.quote(CONTENTION_BENCHMARK.getName() + '.');
+
+    private BenchmarkSuite() {
+        super();
+    }
+
+    private static boolean isSelected(final String[] args, final Class<?> benchmark) {
+        boolean result = (0 == args.length);
+        for (final Method method : benchmark.getMethods()) {
+            if (method.isAnnotationPresent(Benchmark.class)) {
+                final String name = benchmark.getName() + '.' + method.getName();
+                for (final String include : args) {
+                    result |= Pattern.compile(include)
+                                     .matcher(name)
+                                     .find();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args regular expressions selecting the benchmarks to be run
+     * @throws RunnerException if the benchmarks cannot be run
+     */
+    public static void main(final String[] args) throws RunnerException {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; ; threads = Math.min(processors, threads * 2)) {
+            final ChainedOptionsBuilder options = options("jmh-result-" + threads + ".json");
+            options.threads(threads)
+                   .exclude(CONTENTION_BENCHMARKS);
+            for (final String include : args) {
+                options.include(include);
+            }
+            run(options);
+            if (processors == threads) {
+                break;
+            }
+        }
+        if (isSelected(args, CONTENTION_BENCHMARK)) {
+            run(options("jmh-result-contention.json").include(CONTENTION_BENCHMARKS));
+        }
+    }
+
+    private static ChainedOptionsBuilder options(final String result) {
+        return new OptionsBuilder().addProfiler(GCProfiler.class)
+                                   .result(result)
+                                   .resultFormat(ResultFormatType.JSON);
+    }
+
+    private static void run(final ChainedOptionsBuilder options) throws RunnerException {
+        try {
+            new Runner(options.build()).run();
+        } catch (final NoBenchmarksException exception) {
+            // Only the benchmarks run separately are selected, skip the run.
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package pl.ais.commons.domain.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares repeated decryption of already decrypted value shared by 1, 8 and 64 threads, using the lock-free
+ * {@link DefaultDecryptableValue} and the lock-based implementation it replaced.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class DecryptableValueBenchmark {
+
+    private DecryptableValue<String> current;
+
+    private DecryptableValue<String> locking;
+
+    /**
+     * Creates the values, and decrypts them, so the benchmarks measure the access to decrypted value only.
+     */
+    @Setup
+    public void setUp() {
+        final PassThroughCryptographicService service = new PassThroughCryptographicService();
+        final byte[] encrypted = service.encrypt("Adenosine triphosphate").getEncryptedValue();
+        current = DefaultDecryptableValue.factory(service.getDecryptor()).decryptableValue(encrypted);
+        current.decrypt();
+        locking = new LockingDecryptableValue<>(service.getDecryptor(), encrypted);
+        locking.decrypt();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String current01() {
+        return current.decrypt();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String current08() {
+        return current.decrypt();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String current64() {
+        return current.decrypt();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String locking01() {
+        return locking.decrypt();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String locking08() {
+        return locking.decrypt();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String locking64() {
+        return locking.decrypt();
+    }
+
+}
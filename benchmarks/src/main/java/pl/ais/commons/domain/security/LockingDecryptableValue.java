@@ -0,0 +1,57 @@
+package pl.ais.commons.domain.security;
+
+import java.io.Serializable;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Copy of {@link DefaultDecryptableValue} decryption as implemented before 1.2.5 (taking the lock on each call),
+ * used as the baseline by {@link DecryptableValueBenchmark}, and {@link SerializationBenchmark} (serialized in default
+ * form, along with the lock, as it was before 1.2.5).
+ *
+ * @param <T> defines the type of unencrypted value
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+final class LockingDecryptableValue<T> implements DecryptableValue<T>, Serializable {
+
+    private static final long serialVersionUID = -4691786449141212409L;
+
+    private final Decryptor<T> decryptor;
+
+    private final byte[] encryptedValue;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private transient T decryptedValue;
+
+    LockingDecryptableValue(final Decryptor<T> decryptor, final byte[] encryptedValue) {
+        super();
+        this.decryptor = decryptor;
+        this.encryptedValue = encryptedValue.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T decrypt() {
+        lock.lock();
+        try {
+            if (null == decryptedValue) {
+                decryptedValue = decryptor.decrypt(this);
+            }
+            return decryptedValue;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] getEncryptedValue() {
+        return encryptedValue.clone();
+    }
+
+}
@@ -0,0 +1,73 @@
+package pl.ais.commons.domain.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link PassThroughCryptographicService} and {@link DefaultDecryptableValue} across payload sizes.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class PassThroughBenchmark {
+
+    private DecryptableValue<String> encrypted;
+
+    private String plaintext;
+
+    private PassThroughCryptographicService service;
+
+    @Param({"16", "256", "4096", "65536", "1048576"})
+    private int size;
+
+    /**
+     * Creates the service, and the payload of requested size.
+     */
+    @Setup
+    public void setUp() {
+        service = new PassThroughCryptographicService();
+        final char[] characters = new char[size];
+        Arrays.fill(characters, 'A');
+        plaintext = new String(characters);
+        encrypted = service.encrypt(plaintext);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return service.decrypt(encrypted);
+    }
+
+    @Benchmark
+    public DecryptableValue<String> encrypt() {
+        return service.encrypt(plaintext);
+    }
+
+    /**
+     * Measures repeated decryption of the same value, served by memoized plaintext.
+     *
+     * @return decrypted value
+     */
+    @Benchmark
+    public String lazyDecrypt() {
+        return encrypted.decrypt();
+    }
+
+}
@@ -0,0 +1,104 @@
+package pl.ais.commons.domain.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the serialization of {@link DefaultDecryptableValue} batches in compact form, compared to the default
+ * form used before 1.2.5 (see {@link LockingDecryptableValue}).
+ * *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class SerializationBenchmark {
+
+    @Param({"1000"})
+    private int count;
+
+    private ArrayList<DecryptableValue<String>> compact;
+
+    private byte[] compactStream;
+
+    private ArrayList<DecryptableValue<String>> legacy;
+
+    private byte[] legacyStream;
+
+    private static Object deserialize(final byte[] stream) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(stream))) {
+            return input.readObject();
+        }
+    }
+
+    private static byte[] serialize(final Serializable object) throws IOException {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(result)) {
+            output.writeObject(object);
+        }
+        return result.toByteArray();
+    }
+
+    @Benchmark
+    public Object deserializeCompact() throws IOException, ClassNotFoundException {
+        return deserialize(compactStream);
+    }
+
+    @Benchmark
+    public Object deserializeLegacy() throws IOException, ClassNotFoundException {
+        return deserialize(legacyStream);
+    }
+
+    @Benchmark
+    public byte[] serializeCompact() throws IOException {
+        return serialize(compact);
+    }
+
+    @Benchmark
+    public byte[] serializeLegacy() throws IOException {
+        return serialize(legacy);
+    }
+
+    /**
+     * Creates the batches of values, and their serialized forms.
+     *
+     * @throws IOException if the serialization fails
+     */
+    @Setup
+    public void setUp() throws IOException {
+        final PassThroughCryptographicService service = new PassThroughCryptographicService(StandardCharsets.UTF_8);
+        compact = new ArrayList<>(count);
+        legacy = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            final DecryptableValue<String> value = service.encrypt("Account number " + index);
+            compact.add(value);
+            legacy.add(new LockingDecryptableValue<>(service.getDecryptor(), value.getEncryptedValue()));
+        }
+        compactStream = serialize(compact);
+        legacyStream = serialize(legacy);
+    }
+
+}
@@ -0,0 +1,107 @@
+package pl.ais.commons.domain.security.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Cipherer} and {@link Decipherer} across payload sizes and transformations.
+ *
+ * <p>
+ * Values are encrypted either into ciphertext envelopes (so each encryption uses fresh initialization vector), or
+ * using the raw transformation with fixed algorithm parameters ({@code new Cipherer(transformation, key, params)}),
+ * which is the path exercising pooled ciphers initialized by {@link CipherPool}.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class CiphererBenchmark {
+
+    private static final Key KEY = new SecretKeySpec("AdenosineTriphos".getBytes(), "AES");
+
+    @Param({"AES_CBC", "AES_GCM", "CHACHA20_POLY1305"})
+    private EnvelopeAlgorithm algorithm;
+
+    private Cipherer cipherer;
+
+    private Decipherer decipherer;
+
+    private DecipherableValue encrypted;
+
+    @Param({"ENVELOPED", "RAW"})
+    private String mode;
+
+    private byte[] plaintext;
+
+    @Param({"16", "256", "4096", "65536", "1048576"})
+    private int size;
+
+    /**
+     * Creates the cipherer, decipherer (of requested mode), and the payload of requested size.
+     */
+    @Setup
+    public void setUp() {
+        final Key key = (EnvelopeAlgorithm.CHACHA20_POLY1305 == algorithm)
+            ? new SecretKeySpec("AdenosineTriphosphateAdenosineTr".getBytes(), "ChaCha20") : KEY;
+        if ("RAW".equals(mode)) {
+            final byte[] iv = new byte[algorithm.getIvLength()];
+            final AlgorithmParameterSpec params = algorithm.parameters(iv, 0, iv.length);
+            cipherer = new Cipherer(algorithm.getTransformation(), key, params);
+            decipherer = new Decipherer(algorithm.getTransformation(), key, params);
+        } else {
+            cipherer = Cipherer.enveloped(algorithm, key);
+            decipherer = Decipherer.enveloped(algorithm, key);
+        }
+        plaintext = new byte[size];
+        new Random(size).nextBytes(plaintext);
+        encrypted = cipherer.encrypt(plaintext);
+    }
+
+    @Benchmark
+    public byte[] decrypt() {
+        return decipherer.decrypt(encrypted);
+    }
+
+    @Benchmark
+    public DecipherableValue encrypt() {
+        return cipherer.encrypt(plaintext);
+    }
+
+    @Benchmark
+    public byte[] encryptAndDecrypt() {
+        return cipherer.encrypt(plaintext)
+                       .decrypt();
+    }
+
+    /**
+     * Measures repeated decryption of the same value, served by memoized plaintext.
+     *
+     * @return decrypted value
+     */
+    @Benchmark
+    public byte[] lazyDecrypt() {
+        return encrypted.decrypt();
+    }
+
+}
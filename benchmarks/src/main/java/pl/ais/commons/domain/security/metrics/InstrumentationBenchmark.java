@@ -0,0 +1,68 @@
+package pl.ais.commons.domain.security.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.ais.commons.domain.security.DecryptableValue;
+import pl.ais.commons.domain.security.Encryptor;
+import pl.ais.commons.domain.security.PassThroughCryptographicService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of instrumentation, by comparing bare and instrumented encryptor doing (almost) nothing.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class InstrumentationBenchmark {
+
+    private Encryptor<String> bare;
+
+    private Encryptor<String> instrumented;
+
+    private CryptographicMetrics metrics;
+
+    /**
+     * Creates the encryptors.
+     */
+    @Setup
+    public void setUp() {
+        final DecryptableValue<String> encrypted = new PassThroughCryptographicService().encrypt("Adenosine");
+        bare = value -> encrypted;
+        metrics = new CryptographicMetrics();
+        instrumented = new InstrumentedEncryptor<>(bare, metrics, String::length);
+    }
+
+    @Benchmark
+    public DecryptableValue<String> bare() {
+        return bare.encrypt("Adenosine");
+    }
+
+    @Benchmark
+    public DecryptableValue<String> instrumented() {
+        return instrumented.encrypt("Adenosine");
+    }
+
+    /**
+     * Measures the recording alone.
+     */
+    @Benchmark
+    public void record() {
+        metrics.recordEncryption(100, 9);
+    }
+
+}
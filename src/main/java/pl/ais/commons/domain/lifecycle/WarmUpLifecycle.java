@@ -0,0 +1,259 @@
+package pl.ais.commons.domain.lifecycle;
+
+import org.springframework.context.SmartLifecycle;
+import pl.ais.commons.domain.model.Email;
+import pl.ais.commons.domain.security.DecryptableValue;
+import pl.ais.commons.domain.security.Encryptor;
+import pl.ais.commons.domain.security.crypto.Cipherer;
+import pl.ais.commons.domain.specification.mail.ValidEmailSpecification;
+import pl.ais.commons.domain.specification.simple.RegexSpecification;
+
+import javax.annotation.Nonnull;
+import javax.mail.internet.AddressException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * {@link SmartLifecycle} component warming up the cryptographic, regular expression and email validation paths,
+ * before the application context reports it is ready.
+ *
+ * <p>
+ * On the {@link #start() start}, the component pre-fills the pools of ciphers used by registered {@link Cipherer}s,
+ * pre-compiles registered regular expressions, and runs predefined number of iterations over each registered path,
+ * so the first requests served after the deployment do not pay for the provider lookup, the class loading and
+ * the interpretation of cold code. The component is optional, and should be declared as the bean explicitly:
+ * </p>
+ * <pre>
+ * &#64;Bean
+ * public WarmUpLifecycle warmUpLifecycle(final Cipherer cipherer) {
+ *     final WarmUpLifecycle result = new WarmUpLifecycle();
+ *     result.addCipherer(cipherer, new byte[256]);
+ *     result.addPattern("[0-9]{2}-[0-9]{3}", "00-950");
+ *     result.addEmail("john.doe@example.com");
+ *     return result;
+ * }
+ * </pre>
+ * <p>
+ * Paths are registered before the context is refreshed, and warmed up synchronously, in the {@link #getPhase() phase}
+ * configured (0 by default), so the components started in the later phases (web server, message listeners) are
+ * started when the warm-up is completed. Failure of any path fails the start of the context.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class WarmUpLifecycle implements SmartLifecycle {
+
+    private static final int DEFAULT_ITERATIONS = 1000;
+
+    private static final int DEFAULT_PREFILL_COUNT = 2 * Runtime.getRuntime().availableProcessors();
+
+    private volatile int iterations = DEFAULT_ITERATIONS;
+
+    private final List<Runnable> paths = new CopyOnWriteArrayList<>();
+
+    private volatile int phase;
+
+    private final List<Runnable> preparations = new CopyOnWriteArrayList<>();
+
+    private volatile int prefillCount = DEFAULT_PREFILL_COUNT;
+
+    private volatile boolean running;
+
+    private volatile long warmUpTime;
+
+    /**
+     * Registers given cipherer to be warmed up by encrypting and decrypting given sample.
+     *
+     * @param cipherer the cipherer
+     * @param sample   the sample value, representative for the values encrypted by the application
+     * @return this instance
+     */
+    public WarmUpLifecycle addCipherer(@Nonnull final Cipherer cipherer, @Nonnull final byte[] sample) {
+        Objects.requireNonNull(cipherer, "Cipherer is required.");
+        Objects.requireNonNull(sample, "Sample is required.");
+        final byte[] copy = sample.clone();
+        preparations.add(() -> cipherer.prefill(prefillCount));
+        paths.add(() -> cipherer.encrypt(copy)
+                                .decrypt());
+        return this;
+    }
+
+    /**
+     * Registers given email address to be parsed and validated by {@link Email#valueOf(String)} and
+     * {@link ValidEmailSpecification}.
+     *
+     * @param sample the sample email address
+     * @return this instance
+     * @throws IllegalArgumentException if given sample is not valid email address
+     */
+    public WarmUpLifecycle addEmail(@Nonnull final String sample) {
+        Objects.requireNonNull(sample, "Sample is required.");
+        if (!ValidEmailSpecification.validEmail()
+                                    .test(sample)) {
+            throw new IllegalArgumentException("Sample is not valid email address: " + sample);
+        }
+        paths.add(() -> {
+            try {
+                Email.valueOf(sample);
+            } catch (final AddressException exception) {
+                throw new IllegalStateException(exception);
+            }
+            ValidEmailSpecification.validEmail()
+                                   .test(sample);
+        });
+        return this;
+    }
+
+    /**
+     * Registers given encryptor to be warmed up by encrypting given sample, and decrypting the result.
+     *
+     * @param encryptor the encryptor
+     * @param sample    the sample value, representative for the values encrypted by the application
+     * @param <T>       the type of encrypted values
+     * @return this instance
+     */
+    public <T> WarmUpLifecycle addEncryptor(@Nonnull final Encryptor<T> encryptor, @Nonnull final T sample) {
+        Objects.requireNonNull(encryptor, "Encryptor is required.");
+        Objects.requireNonNull(sample, "Sample is required.");
+        paths.add(() -> {
+            final DecryptableValue<T> encrypted = encryptor.encrypt(sample);
+            encrypted.decrypt();
+        });
+        return this;
+    }
+
+    /**
+     * Registers given regular expression to be pre-compiled, and warmed up by matching given sample.
+     *
+     * @param regex  the regular expression
+     * @param sample the sample value, representative for the values matched by the application
+     * @return this instance
+     */
+    public WarmUpLifecycle addPattern(@Nonnull final String regex, @Nonnull final CharSequence sample) {
+        Objects.requireNonNull(regex, "Regular expression is required.");
+        Objects.requireNonNull(sample, "Sample is required.");
+        preparations.add(() -> RegexSpecification.precompile(regex));
+        paths.add(() -> new RegexSpecification(regex).test(sample));
+        return this;
+    }
+
+    /**
+     * Registers given path to be warmed up.
+     *
+     * @param path the path, run repeatedly on the start
+     * @return this instance
+     */
+    public WarmUpLifecycle addPath(@Nonnull final Runnable path) {
+        paths.add(Objects.requireNonNull(path, "Path is required."));
+        return this;
+    }
+
+    /**
+     * @return the number of iterations run over each registered path
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return the number of ciphers pre-filled for each registered cipherer (at most)
+     */
+    public int getPrefillCount() {
+        return prefillCount;
+    }
+
+    /**
+     * @return the time taken by the last warm-up, or {@link Duration#ZERO} if there was no warm-up yet
+     */
+    @Nonnull
+    public Duration getWarmUpTime() {
+        return Duration.ofNanos(warmUpTime);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @param iterations the number of iterations run over each registered path
+     */
+    public void setIterations(final int iterations) {
+        if (0 > iterations) {
+            throw new IllegalArgumentException("Number of iterations cannot be negative.");
+        }
+        this.iterations = iterations;
+    }
+
+    /**
+     * @param phase the phase in which the warm-up is run
+     */
+    public void setPhase(final int phase) {
+        this.phase = phase;
+    }
+
+    /**
+     * @param prefillCount the number of ciphers pre-filled for each registered cipherer (at most)
+     */
+    public void setPrefillCount(final int prefillCount) {
+        if (0 > prefillCount) {
+            throw new IllegalArgumentException("Prefill count cannot be negative.");
+        }
+        this.prefillCount = prefillCount;
+    }
+
+    /**
+     * Warms up registered paths, returns when the warm-up is completed.
+     */
+    @Override
+    public void start() {
+        final long start = System.nanoTime();
+        for (final Runnable preparation : preparations) {
+            preparation.run();
+        }
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            for (final Runnable path : paths) {
+                path.run();
+            }
+        }
+        warmUpTime = System.nanoTime() - start;
+        running = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Warm-up of ")
+                                  .append(paths.size())
+                                  .append(" paths, ")
+                                  .append(iterations)
+                                  .append(" iterations each")
+                                  .toString();
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Provides Spring lifecycle components supporting the domain classes.
+ */
+package pl.ais.commons.domain.lifecycle;
@@ -0,0 +1,60 @@
+package pl.ais.commons.domain.security;
+
+import javax.annotation.Nonnull;
+import javax.persistence.AttributeConverter;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Base class for JPA converters mapping {@link DecryptableValue} attributes into textual columns holding Base64
+ * representation of encrypted value, and back again.
+ *
+ * <p>
+ * Loaded values are created by predefined {@link DecryptableValueFactory}, without decrypting them - see
+ * {@link DecryptableValueConverter} for the details.
+ * </p>
+ *
+ * @param <T> defines the type of unencrypted value
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public abstract class Base64DecryptableValueConverter<T> implements AttributeConverter<DecryptableValue<T>, String> {
+
+    private final DecryptableValueFactory<T, ? extends DecryptableValue<T>> factory;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param factory factory creating decryptable values from the encrypted column values
+     */
+    protected Base64DecryptableValueConverter(
+        @Nonnull final DecryptableValueFactory<T, ? extends DecryptableValue<T>> factory) {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(factory, "Factory is required.");
+
+        // ... and initialize this instance fields.
+        this.factory = factory;
+    }
+
+    @Override
+    @SuppressWarnings("PMD.NullAssignment")
+    public String convertToDatabaseColumn(final DecryptableValue<T> attribute) {
+        return (null == attribute) ? null : Base64.getEncoder()
+                                                  .encodeToString(attribute.getEncryptedValue());
+    }
+
+    @Override
+    @SuppressWarnings("PMD.NullAssignment")
+    public DecryptableValue<T> convertToEntityAttribute(final String data) {
+        try {
+            return (null == data) ? null : factory.decryptableValue(Base64.getDecoder()
+                                                                          .decode(data));
+        } catch (final IllegalArgumentException exception) {
+            throw new IllegalArgumentException("Unable to convert column value into decryptable value.", exception);
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+package pl.ais.commons.domain.security;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Defines the way in which batches of values are processed by the cryptographic services.
+ *
+ * <p>
+ * Batches not exceeding predefined threshold are processed sequentially by the calling thread, larger ones are split
+ * recursively into parts not exceeding the threshold, and processed in parallel using predefined
+ * {@link ForkJoinPool}. Either way, the order of results matches the order of processed values.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class BatchExecution {
+
+    private static final int DEFAULT_THRESHOLD = 256;
+
+    private static final BatchExecution SEQUENTIAL = new BatchExecution(null, Integer.MAX_VALUE);
+
+    private final ForkJoinPool pool;
+
+    private final int threshold;
+
+    private BatchExecution(final ForkJoinPool pool, final int threshold) {
+        super();
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return batch execution splitting batches larger than default threshold across the common fork-join pool
+     */
+    public static BatchExecution commonPool() {
+        return forkJoin(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param pool      fork-join pool used for processing large batches
+     * @param threshold maximum number of values processed sequentially
+     * @return batch execution splitting batches larger than given threshold across given fork-join pool
+     */
+    public static BatchExecution forkJoin(@Nonnull final ForkJoinPool pool, final int threshold) {
+        Objects.requireNonNull(pool, "Pool is required.");
+        if (0 >= threshold) {
+            throw new IllegalArgumentException("Threshold should be positive.");
+        }
+        return new BatchExecution(pool, threshold);
+    }
+
+    /**
+     * @return batch execution processing all the batches sequentially by the calling thread
+     */
+    public static BatchExecution sequential() {
+        return SEQUENTIAL;
+    }
+
+    /**
+     * Applies given function to each of provided values.
+     *
+     * @param values   values to be processed
+     * @param function function to be applied
+     * @return modifiable list of results, in the order matching the order of processed values
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public <S, R> List<R> map(@Nonnull final List<? extends S> values,
+                              @Nonnull final Function<? super S, ? extends R> function) {
+        Objects.requireNonNull(values, "Values are required.");
+        Objects.requireNonNull(function, "Function is required.");
+
+        final List<R> result;
+        if ((null == pool) || (values.size() <= threshold)) {
+            result = new ArrayList<>(values.size());
+            for (final S value : values) {
+                result.add(function.apply(value));
+            }
+        } else {
+            final Object[] source = values.toArray();
+            final Object[] target = new Object[source.length];
+            pool.invoke(new MappingTask(source, target, (Function<Object, Object>) function, 0, source.length));
+            result = new ArrayList<>((List<R>) Arrays.asList(target));
+        }
+        return result;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return (null == pool) ? "Sequential batch execution" : new StringBuilder()
+            .append("Fork-join batch execution with threshold ")
+            .append(threshold)
+            .append(" using ")
+            .append(pool)
+            .toString();
+    }
+
+    @SuppressWarnings("serial")
+    private final class MappingTask extends RecursiveAction {
+
+        private final int from;
+
+        private final Function<Object, Object> function;
+
+        private final Object[] source;
+
+        private final Object[] target;
+
+        private final int to;
+
+        MappingTask(final Object[] source, final Object[] target, final Function<Object, Object> function,
+                    final int from, final int to) {
+            super();
+            this.source = source;
+            this.target = target;
+            this.function = function;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            if ((to - from) <= threshold) {
+                for (int index = from; index < to; index++) {
+                    target[index] = function.apply(source[index]);
+                }
+            } else {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new MappingTask(source, target, function, from, middle),
+                    new MappingTask(source, target, function, middle, to));
+            }
+        }
+
+    }
+
+}
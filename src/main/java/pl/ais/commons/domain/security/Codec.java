@@ -0,0 +1,35 @@
+package pl.ais.commons.domain.security;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Defines the API contract for the codec converting unencrypted values into bytes being encrypted, and back again.
+ *
+ * @param <T> the type of unencrypted value
+ * @author Warlock, AIS.PL
+ * @see Codecs
+ * @see CodecCryptographicService
+ * @since 1.2.5
+ */
+public interface Codec<T> {
+
+    /**
+     * Decodes the value from given bytes.
+     *
+     * @param bytes bytes representing the value
+     * @return decoded value
+     * @throws IllegalArgumentException if given bytes don't represent the value
+     */
+    @Nonnull
+    T decode(@Nonnull byte[] bytes);
+
+    /**
+     * Encodes given value into bytes.
+     *
+     * @param value the value
+     * @return bytes representing the value
+     */
+    @Nonnull
+    byte[] encode(@Nonnull T value);
+
+}
@@ -0,0 +1,132 @@
+package pl.ais.commons.domain.security;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * Cryptographic service encrypting typed values using byte array encryptor and decryptor, and the codec converting
+ * the values into bytes (and back again) without any intermediate representation:
+ *
+ * <pre>
+ * final CodecCryptographicService&lt;UUID&gt; service = new CodecCryptographicService&lt;&gt;(Codecs.uuids(), keyRing);
+ * </pre>
+ *
+ * @param <T> the type of unencrypted value
+ * @author Warlock, AIS.PL
+ * @see Codecs
+ * @since 1.2.5
+ */
+@SuppressWarnings({"PMD.BeanMembersShouldSerialize", "PMD.OverrideBothEqualsAndHashcode"})
+public class CodecCryptographicService<T> extends CryptographicServiceSupport<T> {
+
+    /**
+     * Constructs new instance.
+     *
+     * @param codec     the codec
+     * @param encryptor byte array encryptor
+     * @param decryptor byte array decryptor applicable to the values encrypted by given encryptor
+     */
+    public CodecCryptographicService(@Nonnull final Codec<T> codec, @Nonnull final Encryptor<byte[]> encryptor,
+                                     @Nonnull final Decryptor<byte[]> decryptor) {
+        this(codec, encryptor, new CodecDecryptor<>(decryptor, codec));
+    }
+
+    /**
+     * Constructs new instance.
+     *
+     * @param codec   the codec
+     * @param service byte array service encrypting the values, and decrypting them afterwards
+     */
+    public <S extends Decryptor<byte[]> & Encryptor<byte[]>> CodecCryptographicService(@Nonnull final Codec<T> codec,
+                                                                                         @Nonnull final S service) {
+        this(codec, service, service);
+    }
+
+    private CodecCryptographicService(final Codec<T> codec, final Encryptor<byte[]> encryptor,
+                                      final CodecDecryptor<T> decryptor) {
+        super(decryptor, new CodecEncryptor<>(codec, encryptor, decryptor));
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(final Object object) {
+        boolean result = (this == object);
+        if (!result && (object instanceof CodecCryptographicService)) {
+            result = equivalentOf((CodecCryptographicService<?>) object);
+        }
+        return result;
+    }
+
+    /**
+     * Encryptor encoding the values before the encryption.
+     */
+    private static final class CodecEncryptor<T> implements Encryptor<T> {
+
+        private final Codec<T> codec;
+
+        private final Decryptor<T> decryptor;
+
+        private final Encryptor<byte[]> encryptor;
+
+        CodecEncryptor(final Codec<T> codec, final Encryptor<byte[]> encryptor, final Decryptor<T> decryptor) {
+            super();
+
+            // Validate constructor requirements, ...
+            Objects.requireNonNull(codec, "Codec is required.");
+            Objects.requireNonNull(encryptor, "Encryptor is required.");
+
+            // ... and initialize this instance fields.
+            this.codec = codec;
+            this.encryptor = encryptor;
+            this.decryptor = decryptor;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Nullable
+        @Override
+        @SuppressWarnings("PMD.NullAssignment")
+        public DecryptableValue<T> encrypt(@Nullable final T value) {
+            return (null == value) ? null : new DefaultDecryptableValue<>(decryptor,
+                encryptor.encrypt(codec.encode(value)).getEncryptedValue());
+        }
+
+        /**
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(final Object object) {
+            boolean result = (this == object);
+            if (!result && (object instanceof CodecEncryptor)) {
+                final CodecEncryptor<?> other = (CodecEncryptor<?>) object;
+                result = encryptor.equals(other.encryptor) && codec.equals(other.codec);
+            }
+            return result;
+        }
+
+        /**
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return (31 * encryptor.hashCode()) + codec.hashCode();
+        }
+
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return new StringBuilder().append(encryptor)
+                                      .append(" encoding values using ")
+                                      .append(codec)
+                                      .toString();
+        }
+
+    }
+
+}
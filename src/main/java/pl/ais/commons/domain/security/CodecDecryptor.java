@@ -0,0 +1,100 @@
+package pl.ais.commons.domain.security;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Decryptor decoding the values decrypted by byte array decryptor.
+ *
+ * <p>
+ * Instances of this class are serializable, if, and only if, both the decryptor and the codec are serializable.
+ * </p>
+ *
+ * @param <T> the type of unencrypted value
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+final class CodecDecryptor<T> implements Decryptor<T>, Serializable {
+
+    private static final long serialVersionUID = 2412645311960917465L;
+
+    /**
+     * Codec decoding decrypted values.
+     *
+     * @serial
+     */
+    private final Codec<T> codec;
+
+    /**
+     * Byte array decryptor.
+     *
+     * @serial
+     */
+    private final Decryptor<byte[]> decryptor;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param decryptor byte array decryptor
+     * @param codec     codec decoding decrypted values
+     */
+    CodecDecryptor(@Nonnull final Decryptor<byte[]> decryptor, @Nonnull final Codec<T> codec) {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(decryptor, "Decryptor is required.");
+        Objects.requireNonNull(codec, "Codec is required.");
+
+        // ... and initialize this instance fields.
+        this.decryptor = decryptor;
+        this.codec = codec;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    @SuppressWarnings({"PMD.NullAssignment", "rawtypes", "unchecked"})
+    public T decrypt(@Nullable final DecryptableValue<T> value) {
+
+        // Decryptor reads the encrypted value only, so there is no need to adapt the type of decryptable value.
+        return (null == value) ? null : codec.decode(decryptor.decrypt((DecryptableValue) value));
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(final Object object) {
+        boolean result = (this == object);
+        if (!result && (object instanceof CodecDecryptor)) {
+            final CodecDecryptor<?> other = (CodecDecryptor<?>) object;
+            result = decryptor.equals(other.decryptor) && codec.equals(other.codec);
+        }
+        return result;
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return (31 * decryptor.hashCode()) + codec.hashCode();
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append(decryptor)
+                                  .append(" decoding values using ")
+                                  .append(codec)
+                                  .toString();
+    }
+
+}
@@ -0,0 +1,414 @@
+package pl.ais.commons.domain.security;
+
+import javax.annotation.Nonnull;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Provides set of built-in {@link Codec}s.
+ *
+ * <p>
+ * Numbers, identifiers and dates are encoded directly into their binary representation, without any intermediate
+ * {@link String} - fixed-width codecs use big-endian byte order, variable-length codecs use zig-zag encoding (7 bits
+ * per byte, least significant group first), so small numbers take a single byte. All the codecs are serializable.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+public final class Codecs {
+
+    private Codecs() {
+        super();
+    }
+
+    /**
+     * @return codec encoding big decimals as variable-length scale followed by the unscaled value
+     */
+    @SuppressWarnings("unchecked")
+    public static Codec<BigDecimal> bigDecimals() {
+        return (Codec<BigDecimal>) (Codec<?>) Builtin.BIG_DECIMALS;
+    }
+
+    /**
+     * @return codec passing the bytes through
+     */
+    @SuppressWarnings("unchecked")
+    public static Codec<byte[]> bytes() {
+        return (Codec<byte[]>) (Codec<?>) Builtin.BYTES;
+    }
+
+    private static void checkLength(final byte[] bytes, final int length) {
+        if (length != bytes.length) {
+            throw new IllegalArgumentException("Expected " + length + " bytes, but got " + bytes.length + ".");
+        }
+    }
+
+    /**
+     * @return codec encoding instants as 8-byte epoch second followed by 4-byte nanosecond adjustment
+     */
+    @SuppressWarnings("unchecked")
+    public static Codec<Instant> instants() {
+        return (Codec<Instant>) (Codec<?>) Builtin.INSTANTS;
+    }
+
+    /**
+     * @return codec encoding integers as 4 bytes
+     */
+    @SuppressWarnings("unchecked")
+    public static Codec<Integer> integers() {
+        return (Codec<Integer>) (Codec<?>) Builtin.INTEGERS;
+    }
+
+    /**
+     * @return codec encoding local dates as 8-byte epoch day
+     */
+    @SuppressWarnings("unchecked")
+    public static Codec<LocalDate> localDates() {
+        return (Codec<LocalDate>) (Codec<?>) Builtin.LOCAL_DATES;
+    }
+
+    /**
+     * @return codec encoding longs as 8 bytes
+     */
+    @SuppressWarnings("unchecked")
+    public static Codec<Long> longs() {
+        return (Codec<Long>) (Codec<?>) Builtin.LONGS;
+    }
+
+    private static int readInt(final byte[] bytes, final int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8)
+            | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static long readLong(final byte[] bytes, final int offset) {
+        long result = 0;
+        for (int index = offset; index < (offset + Long.BYTES); index++) {
+            result = (result << 8) | (bytes[index] & 0xFF);
+        }
+        return result;
+    }
+
+    private static int readVarLong(final byte[] bytes, final long[] value) {
+        long result = 0;
+        int position = 0;
+        int shift = 0;
+        byte current;
+        do {
+            if ((bytes.length <= position) || (63 < shift)) {
+                throw new IllegalArgumentException("Malformed variable-length number.");
+            }
+            current = bytes[position++];
+            result |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        } while (0 != (current & 0x80));
+        value[0] = (result >>> 1) ^ -(result & 1);
+        return position;
+    }
+
+    /**
+     * Returns codec encoding strings using given charset.
+     *
+     * @param charset the charset
+     * @return codec encoding strings using given charset
+     */
+    public static Codec<String> strings(@Nonnull final Charset charset) {
+        return new StringCodec(charset);
+    }
+
+    /**
+     * @return codec encoding UUIDs as 16 bytes
+     */
+    @SuppressWarnings("unchecked")
+    public static Codec<UUID> uuids() {
+        return (Codec<UUID>) (Codec<?>) Builtin.UUIDS;
+    }
+
+    /**
+     * @return codec encoding longs as 1 to 10 bytes, depending on their magnitude
+     */
+    @SuppressWarnings("unchecked")
+    public static Codec<Long> varLongs() {
+        return (Codec<Long>) (Codec<?>) Builtin.VAR_LONGS;
+    }
+
+    private static int varLongSize(final long value) {
+        final long encoded = (value << 1) ^ (value >> 63);
+        return Math.max(1, (64 - Long.numberOfLeadingZeros(encoded) + 6) / 7);
+    }
+
+    private static void writeInt(final byte[] bytes, final int offset, final int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static void writeLong(final byte[] bytes, final int offset, final long value) {
+        for (int index = offset + Long.BYTES - 1; index >= offset; index--) {
+            bytes[index] = (byte) (value >>> (8 * (offset + Long.BYTES - 1 - index)));
+        }
+    }
+
+    private static int writeVarLong(final byte[] bytes, final long value) {
+        long encoded = (value << 1) ^ (value >> 63);
+        int position = 0;
+        while (0 != (encoded & ~0x7FL)) {
+            bytes[position++] = (byte) ((encoded & 0x7F) | 0x80);
+            encoded >>>= 7;
+        }
+        bytes[position++] = (byte) encoded;
+        return position;
+    }
+
+    /**
+     * Built-in, stateless codecs.
+     */
+    private enum Builtin implements Codec<Object> {
+
+        BIG_DECIMALS {
+            @Override
+            public Object decode(final byte[] bytes) {
+                final long[] scale = new long[1];
+                final int offset = readVarLong(bytes, scale);
+                if ((bytes.length == offset) || (Integer.MIN_VALUE > scale[0]) || (Integer.MAX_VALUE < scale[0])) {
+                    throw new IllegalArgumentException("Malformed big decimal.");
+                }
+                return new BigDecimal(new BigInteger(Arrays.copyOfRange(bytes, offset, bytes.length)), (int) scale[0]);
+            }
+
+            @Override
+            public byte[] encode(final Object value) {
+                final BigDecimal decimal = (BigDecimal) value;
+                final byte[] unscaled = decimal.unscaledValue()
+                                               .toByteArray();
+                final byte[] result = new byte[varLongSize(decimal.scale()) + unscaled.length];
+                final int offset = writeVarLong(result, decimal.scale());
+                System.arraycopy(unscaled, 0, result, offset, unscaled.length);
+                return result;
+            }
+        },
+
+        BYTES {
+            @Override
+            public Object decode(final byte[] bytes) {
+                return bytes;
+            }
+
+            @Override
+            public byte[] encode(final Object value) {
+                return (byte[]) value;
+            }
+        },
+
+        INSTANTS {
+            @Override
+            public Object decode(final byte[] bytes) {
+                checkLength(bytes, Long.BYTES + Integer.BYTES);
+                return Instant.ofEpochSecond(readLong(bytes, 0), readInt(bytes, Long.BYTES));
+            }
+
+            @Override
+            public byte[] encode(final Object value) {
+                final Instant instant = (Instant) value;
+                final byte[] result = new byte[Long.BYTES + Integer.BYTES];
+                writeLong(result, 0, instant.getEpochSecond());
+                writeInt(result, Long.BYTES, instant.getNano());
+                return result;
+            }
+        },
+
+        INTEGERS {
+            @Override
+            public Object decode(final byte[] bytes) {
+                checkLength(bytes, Integer.BYTES);
+                return readInt(bytes, 0);
+            }
+
+            @Override
+            public byte[] encode(final Object value) {
+                final byte[] result = new byte[Integer.BYTES];
+                writeInt(result, 0, (Integer) value);
+                return result;
+            }
+        },
+
+        LOCAL_DATES {
+            @Override
+            public Object decode(final byte[] bytes) {
+                checkLength(bytes, Long.BYTES);
+                return LocalDate.ofEpochDay(readLong(bytes, 0));
+            }
+
+            @Override
+            public byte[] encode(final Object value) {
+                final byte[] result = new byte[Long.BYTES];
+                writeLong(result, 0, ((LocalDate) value).toEpochDay());
+                return result;
+            }
+        },
+
+        LONGS {
+            @Override
+            public Object decode(final byte[] bytes) {
+                checkLength(bytes, Long.BYTES);
+                return readLong(bytes, 0);
+            }
+
+            @Override
+            public byte[] encode(final Object value) {
+                final byte[] result = new byte[Long.BYTES];
+                writeLong(result, 0, (Long) value);
+                return result;
+            }
+        },
+
+        UUIDS {
+            @Override
+            public Object decode(final byte[] bytes) {
+                checkLength(bytes, 2 * Long.BYTES);
+                return new UUID(readLong(bytes, 0), readLong(bytes, Long.BYTES));
+            }
+
+            @Override
+            public byte[] encode(final Object value) {
+                final UUID uuid = (UUID) value;
+                final byte[] result = new byte[2 * Long.BYTES];
+                writeLong(result, 0, uuid.getMostSignificantBits());
+                writeLong(result, Long.BYTES, uuid.getLeastSignificantBits());
+                return result;
+            }
+        },
+
+        VAR_LONGS {
+            @Override
+            public Object decode(final byte[] bytes) {
+                final long[] value = new long[1];
+                if (bytes.length != readVarLong(bytes, value)) {
+                    throw new IllegalArgumentException("Malformed variable-length number.");
+                }
+                return value[0];
+            }
+
+            @Override
+            public byte[] encode(final Object value) {
+                final long number = (Long) value;
+                final byte[] result = new byte[varLongSize(number)];
+                writeVarLong(result, number);
+                return result;
+            }
+        }
+
+    }
+
+    /**
+     * Codec encoding strings using predefined charset, resolved once.
+     */
+    @SuppressWarnings("PMD.BeanMembersShouldSerialize")
+    private static final class StringCodec implements Codec<String>, Serializable {
+
+        private static final long serialVersionUID = -1936357216094437650L;
+
+        private final transient Charset charset;
+
+        /**
+         * The name of the charset.
+         *
+         * @serial
+         */
+        private final String charsetName;
+
+        StringCodec(@Nonnull final Charset charset) {
+            super();
+            this.charset = Objects.requireNonNull(charset, "Charset is required.");
+            this.charsetName = charset.name();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String decode(final byte[] bytes) {
+            return new String(bytes, charset);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public byte[] encode(final String value) {
+            return value.getBytes(charset);
+        }
+
+        /**
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(final Object object) {
+            return (this == object) || ((object instanceof StringCodec)
+                && charsetName.equals(((StringCodec) object).charsetName));
+        }
+
+        /**
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return charsetName.hashCode();
+        }
+
+        private void readObject(final ObjectInputStream stream) throws InvalidObjectException {
+            throw new InvalidObjectException("Serialization proxy is required.");
+        }
+
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return new StringBuilder().append("String codec using charset ")
+                                      .append(charsetName)
+                                      .toString();
+        }
+
+        private Object writeReplace() {
+            return new SerializationProxy(charsetName);
+        }
+
+    }
+
+    /**
+     * Serialized form of {@link StringCodec}.
+     */
+    private static final class SerializationProxy implements Serializable {
+
+        private static final long serialVersionUID = 6281957013826473413L;
+
+        /**
+         * The name of the charset.
+         *
+         * @serial
+         */
+        private final String charsetName;
+
+        SerializationProxy(final String charsetName) {
+            super();
+            this.charsetName = charsetName;
+        }
+
+        private Object readResolve() {
+            return new StringCodec(Charset.forName(charsetName));
+        }
+
+    }
+
+}
@@ -0,0 +1,89 @@
+package pl.ais.commons.domain.security;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides set of factory methods for the executors applicable to asynchronous cryptographic operations.
+ *
+ * @author Warlock, AIS.PL
+ * @see CryptographicServiceSupport#setExecutor(java.util.concurrent.Executor)
+ * @since 1.2.5
+ */
+public final class CryptographicExecutors {
+
+    private CryptographicExecutors() {
+        super();
+    }
+
+    /**
+     * Creates bounded pool of daemon threads.
+     *
+     * <p>
+     * When both the threads and the queue are saturated, the operations are performed by the submitting thread,
+     * which throttles the submissions instead of failing them.
+     * </p>
+     *
+     * @param threads       the number of threads
+     * @param queueCapacity the capacity of the queue holding pending operations
+     * @return bounded pool of daemon threads
+     */
+    public static ExecutorService bounded(final int threads, final int queueCapacity) {
+        if (0 >= threads) {
+            throw new IllegalArgumentException("Number of threads should be positive.");
+        }
+        if (0 >= queueCapacity) {
+            throw new IllegalArgumentException("Queue capacity should be positive.");
+        }
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new DaemonThreadFactory(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Creates executor starting new virtual thread for each operation, if the JVM supports virtual threads.
+     *
+     * @return executor starting new virtual thread for each operation, or {@link Optional#empty()} if the JVM doesn't
+     * support virtual threads
+     */
+    @Nonnull
+    public static Optional<ExecutorService> virtualThreadPerTask() {
+        Optional<ExecutorService> result;
+        try {
+            final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            result = Optional.of((ExecutorService) factory.invoke(null));
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException exception) {
+            result = Optional.empty();
+        }
+        return result;
+    }
+
+    /**
+     * Creates daemon threads, named after the executor.
+     */
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread result = new Thread(runnable, "cryptographic-executor-" + counter.incrementAndGet());
+            result.setDaemon(true);
+            return result;
+        }
+
+    }
+
+}
@@ -2,7 +2,11 @@ package pl.ais.commons.domain.security;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Base class for cryptographic services.
@@ -11,6 +15,14 @@ import java.util.Objects;
  * This implementation delegates the encryption/decryption work to predefined {@link Encryptor} / {@link Decryptor}.
  * </p>
  * <p>
+ * Batches of values are processed according to the {@link BatchExecution} in use, which by default splits large
+ * batches across the common fork-join pool.
+ * </p>
+ * <p>
+ * Asynchronous operations not given the executor explicitly use the predefined one, which by default is the common
+ * fork-join pool (see {@link CryptographicExecutors} for the alternatives).
+ * </p>
+ * <p>
  * Note that this class overrides {@link #hashCode()} method, but still uses default {@link Object#equals(Object)}
  * method. You should override this method yourself, when extending this class. Consider using {@code equivalentOf}
  * method to achieve this task.
@@ -28,10 +40,14 @@ import java.util.Objects;
 @SuppressWarnings({"PMD.BeanMembersShouldSerialize", "PMD.OverrideBothEqualsAndHashcode"})
 public class CryptographicServiceSupport<T> implements Decryptor<T>, Encryptor<T> {
 
+    private volatile BatchExecution batchExecution = BatchExecution.commonPool();
+
     private final Decryptor<T> decryptor;
 
     private final Encryptor<T> encryptor;
 
+    private volatile Executor executor = ForkJoinPool.commonPool();
+
     /**
      * Constructs new instance.
      *
@@ -61,6 +77,43 @@ public class CryptographicServiceSupport<T> implements Decryptor<T>, Encryptor<T
         return decryptor.decrypt(decryptable);
     }
 
+    /**
+     * Decrypts given values.
+     *
+     * <p>This implementation delegates the decryption of each value to the {@code decoder}, using batch execution.</p>
+     */
+    @Override
+    @Nonnull
+    public List<T> decryptAll(@Nonnull final List<? extends DecryptableValue<T>> values) {
+        return batchExecution.map(values, decryptor::decrypt);
+    }
+
+    /**
+     * Decrypts given values asynchronously, using predefined executor.
+     *
+     * @param values values to be decrypted
+     * @return future completed with decrypted values, in the order matching the order of given values
+     * @see #decryptAllAsync(List, Executor)
+     * @since 1.2.5
+     */
+    @Nonnull
+    public CompletableFuture<List<T>> decryptAllAsync(@Nonnull final List<? extends DecryptableValue<T>> values) {
+        return decryptAllAsync(values, executor);
+    }
+
+    /**
+     * Decrypts given value asynchronously, using predefined executor.
+     *
+     * @param decryptable value to be decrypted
+     * @return future completed with decrypted value
+     * @see #decryptAsync(DecryptableValue, Executor)
+     * @since 1.2.5
+     */
+    @Nonnull
+    public CompletableFuture<T> decryptAsync(@Nullable final DecryptableValue<T> decryptable) {
+        return decryptAsync(decryptable, executor);
+    }
+
     /**
      * Encrypts given value.
      *
@@ -72,6 +125,43 @@ public class CryptographicServiceSupport<T> implements Decryptor<T>, Encryptor<T
         return encryptor.encrypt(encryptable);
     }
 
+    /**
+     * Encrypts given values.
+     *
+     * <p>This implementation delegates the encryption of each value to the {@code encoder}, using batch execution.</p>
+     */
+    @Override
+    @Nonnull
+    public List<DecryptableValue<T>> encryptAll(@Nonnull final List<? extends T> values) {
+        return batchExecution.map(values, encryptor::encrypt);
+    }
+
+    /**
+     * Encrypts given values asynchronously, using predefined executor.
+     *
+     * @param values values to be encrypted
+     * @return future completed with encrypted values, in the order matching the order of given values
+     * @see #encryptAllAsync(List, Executor)
+     * @since 1.2.5
+     */
+    @Nonnull
+    public CompletableFuture<List<DecryptableValue<T>>> encryptAllAsync(@Nonnull final List<? extends T> values) {
+        return encryptAllAsync(values, executor);
+    }
+
+    /**
+     * Encrypts given value asynchronously, using predefined executor.
+     *
+     * @param encryptable value to be encrypted
+     * @return future completed with encrypted value
+     * @see #encryptAsync(Object, Executor)
+     * @since 1.2.5
+     */
+    @Nonnull
+    public CompletableFuture<DecryptableValue<T>> encryptAsync(@Nullable final T encryptable) {
+        return encryptAsync(encryptable, executor);
+    }
+
     /**
      * Verifies if this instance is equivalent of given {@code object}.
      *
@@ -83,6 +173,14 @@ public class CryptographicServiceSupport<T> implements Decryptor<T>, Encryptor<T
         return Objects.equals(decryptor, service.decryptor) && Objects.equals(encryptor, service.encryptor);
     }
 
+    /**
+     * @return the batch execution used for processing batches of values
+     * @since 1.2.5
+     */
+    public BatchExecution getBatchExecution() {
+        return batchExecution;
+    }
+
     /**
      * @return the decryptor
      */
@@ -97,6 +195,14 @@ public class CryptographicServiceSupport<T> implements Decryptor<T>, Encryptor<T
         return encryptor;
     }
 
+    /**
+     * @return the executor used by asynchronous operations
+     * @since 1.2.5
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
     /**
      * Returns a hash code value for the object.
      *
@@ -107,6 +213,24 @@ public class CryptographicServiceSupport<T> implements Decryptor<T>, Encryptor<T
         return Objects.hash(decryptor, encryptor);
     }
 
+    /**
+     * @param batchExecution the batch execution to be used for processing batches of values
+     * @since 1.2.5
+     */
+    public void setBatchExecution(@Nonnull final BatchExecution batchExecution) {
+        Objects.requireNonNull(batchExecution, "Batch execution is required.");
+        this.batchExecution = batchExecution;
+    }
+
+    /**
+     * @param executor the executor to be used by asynchronous operations
+     * @since 1.2.5
+     */
+    public void setExecutor(@Nonnull final Executor executor) {
+        Objects.requireNonNull(executor, "Executor is required.");
+        this.executor = executor;
+    }
+
     /**
      * Returns a string representation of the object.
      *
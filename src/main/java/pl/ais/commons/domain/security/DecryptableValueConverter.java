@@ -0,0 +1,64 @@
+package pl.ais.commons.domain.security;
+
+import javax.annotation.Nonnull;
+import javax.persistence.AttributeConverter;
+import java.util.Objects;
+
+/**
+ * Base class for JPA converters mapping {@link DecryptableValue} attributes into binary columns, and back again.
+ *
+ * <p>
+ * Loaded values are created by predefined {@link DecryptableValueFactory}, without decrypting them, so using
+ * the factory creating lazily decrypted values (like {@link DefaultDecryptableValue#factory(Decryptor)}) makes
+ * the loading of encrypted columns cost only the copy of encrypted value - decryption happens on first
+ * {@link DecryptableValue#decrypt()} call, if any.
+ * </p>
+ *
+ * <pre>
+ * &#64;Converter
+ * public class SecretConverter extends DecryptableValueConverter&lt;String&gt; {
+ *     public SecretConverter() {
+ *         super(DefaultDecryptableValue.factory(Secrets.SERVICE));
+ *     }
+ * }
+ * </pre>
+ *
+ * @param <T> defines the type of unencrypted value
+ * @author Warlock, AIS.PL
+ * @see Base64DecryptableValueConverter
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public abstract class DecryptableValueConverter<T> implements AttributeConverter<DecryptableValue<T>, byte[]> {
+
+    private final DecryptableValueFactory<T, ? extends DecryptableValue<T>> factory;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param factory factory creating decryptable values from the encrypted column values
+     */
+    protected DecryptableValueConverter(
+        @Nonnull final DecryptableValueFactory<T, ? extends DecryptableValue<T>> factory) {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(factory, "Factory is required.");
+
+        // ... and initialize this instance fields.
+        this.factory = factory;
+    }
+
+    @Override
+    @SuppressWarnings("PMD.NullAssignment")
+    public byte[] convertToDatabaseColumn(final DecryptableValue<T> attribute) {
+        return (null == attribute) ? null : attribute.getEncryptedValue();
+    }
+
+    @Override
+    @SuppressWarnings("PMD.NullAssignment")
+    public DecryptableValue<T> convertToEntityAttribute(final byte[] data) {
+        return (null == data) ? null : factory.decryptableValue(data);
+    }
+
+}
@@ -0,0 +1,520 @@
+package pl.ais.commons.domain.security;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link Decryptor} decorator caching the decrypted values, keyed by the encrypted value.
+ *
+ * <p>
+ * The cache is bounded by the total weight of cached values (by default each value weighs {@code 1}, so the bound is
+ * the maximum number of cached values), and optionally by the time to live of each value. Least recently used values
+ * are evicted first (approximately, as the recency is tracked per segment). Evicted, expired and invalidated values
+ * are passed to the predefined wiper, which may erase the plaintext, and the callers get the copies of cached values
+ * made by predefined copier, so they never get the cached instance itself. By default, byte and char arrays are copied
+ * on each retrieval and filled with zeros when removed from the cache, other values are neither copied nor wiped.
+ * </p>
+ * <p>
+ * As the cache is a {@link Decryptor} itself, it can be placed in front of any decryptor (including
+ * {@link CryptographicServiceSupport}), without any change to the code using it:
+ * </p>
+ * <pre>
+ * DecryptionCache.of(service, 10_000)
+ *                .withTimeToLive(Duration.ofMinutes(5));
+ * </pre>
+ * <p>
+ * The cache is split into independently locked segments, decryption itself is performed outside of the lock.
+ * Expired values are swept from all the segments (and wiped) by the decryptions performed at least one time to live
+ * after the previous sweep, so they are wiped even if they are never requested again; {@link #evictExpired()} sweeps
+ * them immediately, and may be scheduled if the cache is used too rarely for that.
+ * </p>
+ *
+ * @param <T> defines the type of unencrypted value
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class DecryptionCache<T> implements Decryptor<T> {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final UnaryOperator<T> copier;
+
+    private final Decryptor<T> decryptor;
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final long maximumWeight;
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+
+    private final Segment[] segments;
+
+    private final long timeToLive;
+
+    private final AtomicLong weight = new AtomicLong();
+
+    private final ToLongFunction<? super T> weigher;
+
+    private final Consumer<? super T> wiper;
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private DecryptionCache(final Decryptor<T> decryptor, final long maximumWeight, final long timeToLive,
+                            final ToLongFunction<? super T> weigher, final Consumer<? super T> wiper,
+                            final UnaryOperator<T> copier) {
+        super();
+        this.decryptor = decryptor;
+        this.maximumWeight = maximumWeight;
+        this.timeToLive = timeToLive;
+        this.weigher = weigher;
+        this.wiper = wiper;
+        this.copier = copier;
+        this.segments = new DecryptionCache.Segment[SEGMENT_COUNT];
+        for (int index = 0; index < SEGMENT_COUNT; index++) {
+            segments[index] = new Segment();
+        }
+    }
+
+    /**
+     * @return copy of given value, if it is byte or char array, or the value itself otherwise
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T copyArray(final T value) {
+        final Object result;
+        if (value instanceof byte[]) {
+            result = ((byte[]) value).clone();
+        } else if (value instanceof char[]) {
+            result = ((char[]) value).clone();
+        } else {
+            result = value;
+        }
+        return (T) result;
+    }
+
+    private static void wipeArray(final Object value) {
+        if (value instanceof byte[]) {
+            Arrays.fill((byte[]) value, (byte) 0);
+        } else if (value instanceof char[]) {
+            Arrays.fill((char[]) value, '\0');
+        }
+    }
+
+    /**
+     * Creates cache in front of given decryptor, holding values of given total weight at most.
+     *
+     * <p>
+     * Cached byte and char arrays are copied on each retrieval, and filled with zeros when removed from the cache.
+     * </p>
+     *
+     * @param decryptor     the decryptor
+     * @param maximumWeight maximum total weight of cached values (maximum number of them, unless the weigher is
+     *                      defined)
+     * @return cache in front of given decryptor
+     */
+    public static <T> DecryptionCache<T> of(@Nonnull final Decryptor<T> decryptor, final long maximumWeight) {
+        Objects.requireNonNull(decryptor, "Decryptor is required.");
+        if (0 >= maximumWeight) {
+            throw new IllegalArgumentException("Maximum weight should be positive.");
+        }
+        return new DecryptionCache<>(decryptor, maximumWeight, 0, value -> 1, DecryptionCache::wipeArray,
+            DecryptionCache::copyArray);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public T decrypt(@Nullable final DecryptableValue<T> value) {
+        final T result;
+        if (null == value) {
+            result = null;
+        } else {
+            final Ciphertext key = new Ciphertext(value.getEncryptedValue());
+            final int index = key.hash & (SEGMENT_COUNT - 1);
+            final T cached = segments[index].get(key);
+            if (null == cached) {
+                missCount.increment();
+                final T decrypted = decryptor.decrypt(value);
+                result = (null == decrypted) ? null : segments[index].put(key, decrypted);
+                evictExceeding(index);
+            } else {
+                hitCount.increment();
+                result = cached;
+            }
+            evictExpiredPeriodically();
+        }
+        return result;
+    }
+
+    /**
+     * Evicts least recently used values of the segments following given one (and given one itself at last), until
+     * the total weight of cached values doesn't exceed the maximum one. Segments are locked one at a time.
+     *
+     * @param index the index of the segment into which the value has been put
+     */
+    private void evictExceeding(final int index) {
+        for (int offset = 1; (offset <= SEGMENT_COUNT) && (weight.get() > maximumWeight); offset++) {
+            segments[(index + offset) & (SEGMENT_COUNT - 1)].evict();
+        }
+    }
+
+    /**
+     * Evicts (and wipes) expired values from all the segments. Segments are locked one at a time.
+     */
+    public void evictExpired() {
+        if (0 != timeToLive) {
+            for (final Segment segment : segments) {
+                segment.evictExpired();
+            }
+        }
+    }
+
+    /**
+     * Evicts expired values from all the segments, if at least one time to live elapsed since previous sweep. Only
+     * one of the threads racing for the sweep performs it.
+     */
+    private void evictExpiredPeriodically() {
+        if (0 != timeToLive) {
+            final long scheduled = nextSweep.get();
+            final long now = System.nanoTime();
+            if ((0 <= (now - scheduled)) && nextSweep.compareAndSet(scheduled, now + timeToLive)) {
+                evictExpired();
+            }
+        }
+    }
+
+    /**
+     * @return the number of values evicted from the cache (because of its bound or their expiration)
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * @return the number of decryptions served by the cache
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the ratio of decryptions served by the cache to all decryptions, or {@code 1} if there were no
+     * decryptions yet
+     */
+    public double getHitRate() {
+        final long hits = getHitCount();
+        final long total = hits + getMissCount();
+        return (0 == total) ? 1.0 : ((double) hits / total);
+    }
+
+    /**
+     * @return the number of decryptions not served by the cache
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return the total weight of cached values
+     */
+    public long getWeight() {
+        return weight.get();
+    }
+
+    /**
+     * Removes (and wipes) all cached values.
+     */
+    public void invalidateAll() {
+        for (final Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * @return the number of cached values
+     */
+    public int size() {
+        int result = 0;
+        for (final Segment segment : segments) {
+            result += segment.size();
+        }
+        return result;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Decryption cache (maximum weight ")
+                                  .append(maximumWeight)
+                                  .append(") in front of ")
+                                  .append(decryptor)
+                                  .toString();
+    }
+
+    /**
+     * Creates an empty cache configured like this one, but expiring the values after given time.
+     *
+     * @param timeToLive time after which cached values expire
+     * @return newly created, empty cache using given time to live
+     */
+    @SuppressWarnings("hiding")
+    public DecryptionCache<T> withTimeToLive(@Nonnull final Duration timeToLive) {
+        Objects.requireNonNull(timeToLive, "Time to live is required.");
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Time to live should be positive.");
+        }
+        return new DecryptionCache<>(decryptor, maximumWeight, timeToLive.toNanos(), weigher, wiper, copier);
+    }
+
+    /**
+     * Creates an empty cache configured like this one, but weighing the values using given function.
+     *
+     * @param weigher function determining the weight of decrypted value (for example, its length)
+     * @return newly created, empty cache using given weigher
+     */
+    @SuppressWarnings("hiding")
+    public DecryptionCache<T> withWeigher(@Nonnull final ToLongFunction<? super T> weigher) {
+        Objects.requireNonNull(weigher, "Weigher is required.");
+        return new DecryptionCache<>(decryptor, maximumWeight, timeToLive, weigher, wiper, copier);
+    }
+
+    /**
+     * Creates an empty cache configured like this one, but wiping the values removed from the cache, and handing out
+     * their copies.
+     *
+     * <p>
+     * Copier is required along with the wiper, so the values wiped by the cache are never used by the callers, and
+     * the values wiped by the callers are never used by the cache.
+     * </p>
+     *
+     * @param wiper  procedure erasing decrypted value (for example, filling the array with zeros)
+     * @param copier function creating the copy of decrypted value, handed out to the callers
+     * @return newly created, empty cache using given wiper and copier
+     */
+    @SuppressWarnings("hiding")
+    public DecryptionCache<T> withWiper(@Nonnull final Consumer<? super T> wiper,
+                                        @Nonnull final UnaryOperator<T> copier) {
+        Objects.requireNonNull(wiper, "Wiper is required.");
+        Objects.requireNonNull(copier, "Copier is required.");
+        return new DecryptionCache<>(decryptor, maximumWeight, timeToLive, weigher, wiper, copier);
+    }
+
+    /**
+     * Encrypted value used as the key, compared by content.
+     */
+    private static final class Ciphertext {
+
+        private final int hash;
+
+        private final byte[] value;
+
+        Ciphertext(final byte[] value) {
+            super();
+            this.value = value;
+            final int code = Arrays.hashCode(value);
+            this.hash = code ^ (code >>> 16);
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            return (this == object) || ((object instanceof Ciphertext) && (hash == ((Ciphertext) object).hash)
+                && Arrays.equals(value, ((Ciphertext) object).value));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+    /**
+     * Cached value along with its weight and expiration time.
+     */
+    private final class Entry {
+
+        private final long expiresAt;
+
+        private final T value;
+
+        private final long weight;
+
+        Entry(final T value, final long weight) {
+            super();
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = (0 == timeToLive) ? 0 : (System.nanoTime() + timeToLive);
+        }
+
+        boolean isExpired(final long now) {
+            return (0 != expiresAt) && (0 < (now - expiresAt));
+        }
+
+    }
+
+    /**
+     * Independently locked part of the cache, holding the entries in least recently used order.
+     */
+    private final class Segment {
+
+        private final LinkedHashMap<Ciphertext, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        void clear() {
+            lock.lock();
+            try {
+                for (final Entry entry : entries.values()) {
+                    weight.addAndGet(-entry.weight);
+                    wiper.accept(entry.value);
+                }
+                entries.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Evicts expired values, and least recently used ones while the total weight exceeds the maximum one.
+         */
+        void evict() {
+            lock.lock();
+            try {
+                removeExpired();
+                final Iterator<Entry> iterator = entries.values().iterator();
+                while ((weight.get() > maximumWeight) && iterator.hasNext()) {
+                    final Entry entry = iterator.next();
+                    iterator.remove();
+                    discard(entry);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Evicts expired values.
+         */
+        void evictExpired() {
+            lock.lock();
+            try {
+                removeExpired();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return the copy of value cached under given key, or {@code null} if there is no such value
+         */
+        T get(final Ciphertext key) {
+            lock.lock();
+            try {
+                final Entry entry = entries.get(key);
+                T result = null;
+                if (null != entry) {
+                    if (entry.isExpired(System.nanoTime())) {
+                        remove(key, entry);
+                    } else {
+                        result = copier.apply(entry.value);
+                    }
+                }
+                return result;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Caches given value, unless other thread did it in the meantime.
+         *
+         * @return the copy of value cached under given key
+         */
+        T put(final Ciphertext key, final T value) {
+            final long entryWeight = weigher.applyAsLong(value);
+            lock.lock();
+            try {
+                final Entry existing = entries.get(key);
+                final T result;
+                if ((null != existing) && !existing.isExpired(System.nanoTime())) {
+                    result = copier.apply(existing.value);
+                    if (existing.value != value) {
+                        wiper.accept(value);
+                    }
+                } else {
+                    if (null != existing) {
+                        remove(key, existing);
+                    }
+                    if (entryWeight <= maximumWeight) {
+                        result = copier.apply(value);
+                        entries.put(key, new Entry(value, entryWeight));
+                        weight.addAndGet(entryWeight);
+                    } else {
+                        result = value;
+                    }
+                }
+                return result;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void discard(final Entry entry) {
+            weight.addAndGet(-entry.weight);
+            evictionCount.increment();
+            wiper.accept(entry.value);
+        }
+
+        private void remove(final Ciphertext key, final Entry entry) {
+            entries.remove(key);
+            discard(entry);
+        }
+
+        /**
+         * Removes all expired values, which may follow the live ones, as the access order doesn't reflect the order of
+         * expiration.
+         */
+        private void removeExpired() {
+            if (0 != timeToLive) {
+                final long now = System.nanoTime();
+                final Iterator<Entry> iterator = entries.values().iterator();
+                while (iterator.hasNext()) {
+                    final Entry entry = iterator.next();
+                    if (entry.isExpired(now)) {
+                        iterator.remove();
+                        discard(entry);
+                    }
+                }
+            }
+        }
+
+    }
+
+}
@@ -1,6 +1,13 @@
 package pl.ais.commons.domain.security;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Defines the API contract for decryptor.
@@ -20,4 +27,80 @@ public interface Decryptor<T> {
     @Nullable
     T decrypt(@Nullable DecryptableValue<T> value);
 
+    /**
+     * Decrypts given values.
+     *
+     * <p>
+     * This implementation decrypts the values one by one, using {@link #decrypt(DecryptableValue)} method, so
+     * {@code null} values are decrypted into {@code null}s.
+     * </p>
+     *
+     * @param values values to be decrypted
+     * @return decrypted values, in the order matching the order of given values
+     * @since 1.2.5
+     */
+    @Nonnull
+    default List<T> decryptAll(@Nonnull final List<? extends DecryptableValue<T>> values) {
+        Objects.requireNonNull(values, "Values are required.");
+        final List<T> result = new ArrayList<>(values.size());
+        for (final DecryptableValue<T> value : values) {
+            result.add(decrypt(value));
+        }
+        return result;
+    }
+
+    /**
+     * Decrypts given values.
+     *
+     * @param values values to be decrypted
+     * @return decrypted values, in the order matching the order of given values
+     * @see #decryptAll(List)
+     * @since 1.2.5
+     */
+    @Nonnull
+    default List<T> decryptAll(@Nonnull final DecryptableValue<T>[] values) {
+        Objects.requireNonNull(values, "Values are required.");
+        return decryptAll(Arrays.asList(values));
+    }
+
+    /**
+     * Decrypts given values asynchronously, using given executor.
+     *
+     * @param values   values to be decrypted
+     * @param executor executor used for the decryption
+     * @return future completed with decrypted values, in the order matching the order of given values
+     * @see #decryptAsync(DecryptableValue, Executor)
+     * @since 1.2.5
+     */
+    @Nonnull
+    default CompletableFuture<List<T>> decryptAllAsync(@Nonnull final List<? extends DecryptableValue<T>> values,
+                                                       @Nonnull final Executor executor) {
+        Objects.requireNonNull(values, "Values are required.");
+        Objects.requireNonNull(executor, "Executor is required.");
+        return CompletableFuture.supplyAsync(() -> decryptAll(values), executor);
+    }
+
+    /**
+     * Decrypts given value asynchronously, using given executor.
+     *
+     * <p>
+     * Returned future is completed exceptionally, if the decryption fails - {@link CompletableFuture#join()} throws
+     * {@link java.util.concurrent.CompletionException} and {@link CompletableFuture#get()} throws
+     * {@link java.util.concurrent.ExecutionException} having the original exception as the cause. Cancelling the
+     * future prevents the decryption, unless it has already started, in which case it runs to completion, but its
+     * result is discarded.
+     * </p>
+     *
+     * @param value    value to be decrypted
+     * @param executor executor used for the decryption
+     * @return future completed with decrypted value
+     * @since 1.2.5
+     */
+    @Nonnull
+    default CompletableFuture<T> decryptAsync(@Nullable final DecryptableValue<T> value,
+                                              @Nonnull final Executor executor) {
+        Objects.requireNonNull(executor, "Executor is required.");
+        return CompletableFuture.supplyAsync(() -> decrypt(value), executor);
+    }
+
 }
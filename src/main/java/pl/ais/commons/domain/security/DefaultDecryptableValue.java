@@ -3,9 +3,12 @@ package pl.ais.commons.domain.security;
 import pl.ais.commons.domain.stereotype.ValueObject;
 
 import javax.annotation.Nonnull;
+import java.io.Externalizable;
 import java.io.IOException;
 import java.io.InvalidObjectException;
+import java.io.ObjectInput;
 import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Objects;
@@ -15,7 +18,15 @@ import java.util.concurrent.locks.ReentrantLock;
  * Default {@link DecryptableValue} implementation.
  *
  * <p>
- * Instances of this class are serializable, if, and only if, applicable decryptor is serializable.
+ * Instances of this class are serializable, if, and only if, applicable decryptor is serializable. Since 1.2.5
+ * the instances are serialized in compact form, holding the reference to the decryptor and the encrypted bytes only
+ * (decryptor shared by many values is written once per stream), streams written by the former versions remain
+ * readable.
+ * </p>
+ *
+ * <p>
+ * The value is decrypted at most once, subsequent {@link #decrypt()} calls return the retained decrypted value
+ * without any locking.
  * </p>
  *
  * @param <T> defines the type of unencrypted value
@@ -41,21 +52,22 @@ public final class DefaultDecryptableValue<T> implements DecryptableValue<T>, Se
      */
     private final Decryptor<T> decryptor;
 
+    private transient volatile T decryptedValue;
+
     /**
-     * Lock used for decryption synchronization.
+     * Encrypted value (copied defensively, so it can be safely excluded from value object mutability check).
      *
      * @serial
      */
-    private final ReentrantLock lock = new ReentrantLock();
+    @SuppressWarnings("value-object-mutability")
+    private final byte[] encryptedValue;
 
-    private transient T decryptedValue;
+    private transient int hash;
 
     /**
-     * Encrypted value.
-     *
-     * @serial
+     * Lock used for decryption synchronization (not serialized, since 1.2.5).
      */
-    private byte[] encryptedValue;
+    private final transient ReentrantLock lock;
 
     /**
      * Constructs new instance.
@@ -74,6 +86,7 @@ public final class DefaultDecryptableValue<T> implements DecryptableValue<T>, Se
         // ... and initialize this instance fields.
         this.decryptor = decryptor;
         this.encryptedValue = encryptedValue.clone();
+        this.lock = new ReentrantLock();
     }
 
     /**
@@ -87,6 +100,20 @@ public final class DefaultDecryptableValue<T> implements DecryptableValue<T>, Se
         return new Factory<>(decryptor);
     }
 
+    /**
+     * Returns factory creating {@link DefaultDecryptableValue} instances decrypting the values using provided byte
+     * array decryptor, and decoding them using provided codec.
+     *
+     * @param decryptor byte array decryptor which will be used by decryptable values created by returned factory
+     * @param codec     codec decoding decrypted values
+     * @return factory creating {@link DefaultDecryptableValue} instances using provided decryptor and codec
+     * @since 1.2.5
+     */
+    public static <T> DecryptableValueFactory<T, DefaultDecryptableValue<T>> factory(
+        @Nonnull final Decryptor<byte[]> decryptor, @Nonnull final Codec<T> codec) {
+        return new Factory<>(new CodecDecryptor<>(decryptor, codec));
+    }
+
     /**
      * Decrypts the value.
      *
@@ -95,15 +122,20 @@ public final class DefaultDecryptableValue<T> implements DecryptableValue<T>, Se
     @Nonnull
     @Override
     public T decrypt() {
-        lock.lock();
-        try {
-            if (null == decryptedValue) {
-                decryptedValue = decryptor.decrypt(this);
+        T result = decryptedValue;
+        if (null == result) {
+            lock.lock();
+            try {
+                result = decryptedValue;
+                if (null == result) {
+                    result = decryptor.decrypt(this);
+                    decryptedValue = result;
+                }
+            } finally {
+                lock.unlock();
             }
-            return decryptedValue;
-        } finally {
-            lock.unlock();
         }
+        return result;
     }
 
     /**
@@ -134,7 +166,14 @@ public final class DefaultDecryptableValue<T> implements DecryptableValue<T>, Se
      */
     @Override
     public int hashCode() {
-        return (31 * (527 + decryptor.hashCode())) + Arrays.hashCode(encryptedValue);
+
+        // Hash code is computed lazily, and cached (racy initialization is safe, as all the fields used are final).
+        int result = hash;
+        if (0 == result) {
+            result = (31 * (527 + decryptor.hashCode())) + Arrays.hashCode(encryptedValue);
+            hash = result;
+        }
+        return result;
     }
 
     private void readObject(final ObjectInputStream stream)
@@ -143,16 +182,22 @@ public final class DefaultDecryptableValue<T> implements DecryptableValue<T>, Se
         // Perform default de-serialization, ...
         stream.defaultReadObject();
 
-        // ... validate the object state, ...
+        // ... and validate the object state (defensive copy is created by readResolve).
         if (null == decryptor) {
             throw new InvalidObjectException("Decryptor is required.");
         }
         if (null == encryptedValue) {
             throw new InvalidObjectException("Encrypted value is required.");
         }
+    }
 
-        // ... and defensive copy encrypted value
-        this.encryptedValue = encryptedValue.clone();
+    /**
+     * Replaces the instance read from the stream written before 1.2.5 with its defensive copy, holding the lock.
+     *
+     * @return the defensive copy of this instance
+     */
+    private Object readResolve() {
+        return new DefaultDecryptableValue<>(decryptor, encryptedValue);
     }
 
     /**
@@ -167,6 +212,13 @@ public final class DefaultDecryptableValue<T> implements DecryptableValue<T>, Se
                                   .toString();
     }
 
+    /**
+     * @return serialization proxy representing this instance
+     */
+    private Object writeReplace() {
+        return new SerializationProxy(decryptor, encryptedValue);
+    }
+
     private static class Factory<T> implements DecryptableValueFactory<T, DefaultDecryptableValue<T>> {
 
         private final Decryptor<T> decryptor;
@@ -196,4 +248,63 @@ public final class DefaultDecryptableValue<T> implements DecryptableValue<T>, Se
 
     }
 
+    /**
+     * Compact serialized form of {@link DefaultDecryptableValue}.
+     */
+    private static final class SerializationProxy implements Externalizable {
+
+        private static final long serialVersionUID = 3497386279264186529L;
+
+        private Decryptor<?> decryptor;
+
+        private byte[] encryptedValue;
+
+        /**
+         * Constructs new instance (required by {@link Externalizable} contract).
+         */
+        public SerializationProxy() {
+            super();
+        }
+
+        SerializationProxy(final Decryptor<?> decryptor, final byte[] encryptedValue) {
+            super();
+            this.decryptor = decryptor;
+            this.encryptedValue = encryptedValue;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void readExternal(final ObjectInput input) throws IOException, ClassNotFoundException {
+            final Object reader = input.readObject();
+            if (!(reader instanceof Decryptor)) {
+                throw new InvalidObjectException("Decryptor is required.");
+            }
+            decryptor = (Decryptor<?>) reader;
+
+            // Encrypted value is read as an object, so its length is verified by the serialization filter, if any.
+            final Object value = input.readObject();
+            if (!(value instanceof byte[])) {
+                throw new InvalidObjectException("Encrypted value is required.");
+            }
+            encryptedValue = (byte[]) value;
+        }
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private Object readResolve() {
+            return new DefaultDecryptableValue(decryptor, encryptedValue);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void writeExternal(final ObjectOutput output) throws IOException {
+            output.writeObject(decryptor);
+            output.writeObject(encryptedValue);
+        }
+
+    }
+
 }
@@ -1,6 +1,13 @@
 package pl.ais.commons.domain.security;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Defines the API contract for encryptor.
@@ -20,4 +27,80 @@ public interface Encryptor<T> {
     @Nullable
     DecryptableValue<T> encrypt(@Nullable T value);
 
+    /**
+     * Encrypts given values.
+     *
+     * <p>
+     * This implementation encrypts the values one by one, using {@link #encrypt(Object)} method, so {@code null}
+     * values are encrypted into {@code null}s.
+     * </p>
+     *
+     * @param values values to be encrypted
+     * @return encrypted values, in the order matching the order of given values
+     * @since 1.2.5
+     */
+    @Nonnull
+    default List<DecryptableValue<T>> encryptAll(@Nonnull final List<? extends T> values) {
+        Objects.requireNonNull(values, "Values are required.");
+        final List<DecryptableValue<T>> result = new ArrayList<>(values.size());
+        for (final T value : values) {
+            result.add(encrypt(value));
+        }
+        return result;
+    }
+
+    /**
+     * Encrypts given values.
+     *
+     * @param values values to be encrypted
+     * @return encrypted values, in the order matching the order of given values
+     * @see #encryptAll(List)
+     * @since 1.2.5
+     */
+    @Nonnull
+    default List<DecryptableValue<T>> encryptAll(@Nonnull final T[] values) {
+        Objects.requireNonNull(values, "Values are required.");
+        return encryptAll(Arrays.asList(values));
+    }
+
+    /**
+     * Encrypts given values asynchronously, using given executor.
+     *
+     * @param values   values to be encrypted
+     * @param executor executor used for the encryption
+     * @return future completed with encrypted values, in the order matching the order of given values
+     * @see #encryptAsync(Object, Executor)
+     * @since 1.2.5
+     */
+    @Nonnull
+    default CompletableFuture<List<DecryptableValue<T>>> encryptAllAsync(@Nonnull final List<? extends T> values,
+                                                                         @Nonnull final Executor executor) {
+        Objects.requireNonNull(values, "Values are required.");
+        Objects.requireNonNull(executor, "Executor is required.");
+        return CompletableFuture.supplyAsync(() -> encryptAll(values), executor);
+    }
+
+    /**
+     * Encrypts given value asynchronously, using given executor.
+     *
+     * <p>
+     * Returned future is completed exceptionally, if the encryption fails - {@link CompletableFuture#join()} throws
+     * {@link java.util.concurrent.CompletionException} and {@link CompletableFuture#get()} throws
+     * {@link java.util.concurrent.ExecutionException} having the original exception as the cause. Cancelling the
+     * future prevents the encryption, unless it has already started, in which case it runs to completion, but its
+     * result is discarded.
+     * </p>
+     *
+     * @param value    value to be encrypted
+     * @param executor executor used for the encryption
+     * @return future completed with encrypted value
+     * @since 1.2.5
+     */
+    @Nonnull
+    default CompletableFuture<DecryptableValue<T>> encryptAsync(@Nullable final T value,
+                                                                @Nonnull final Executor executor) {
+        Objects.requireNonNull(executor, "Executor is required.");
+        return CompletableFuture.supplyAsync(() -> encrypt(value), executor);
+    }
+
 }
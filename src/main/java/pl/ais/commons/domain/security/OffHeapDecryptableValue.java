@@ -0,0 +1,210 @@
+package pl.ais.commons.domain.security;
+
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * {@link DecryptableValue} implementation keeping the decrypted value off-heap.
+ *
+ * <p>
+ * The value is decrypted at most once, into the chunk of off-heap memory allocated by predefined
+ * {@link SlabAllocator}, and the heap copy of decrypted value is wiped immediately. Decrypted bytes are available
+ * as read-only view ({@link #plaintext()}), or decoded into the string ({@link #decryptToString(Charset)}) without
+ * any intermediate heap copy. Thanks to this, even large caches of decrypted values do not add to the heap size and
+ * the garbage collection pressure.
+ * </p>
+ * <p>
+ * Closing the value wipes the decrypted bytes and releases the off-heap memory deterministically. Values which are
+ * not closed are wiped and released after they become phantom reachable.
+ * </p>
+ * <p>
+ * <strong>Views returned by {@link #plaintext()} are valid only until the value is closed.</strong> The released
+ * memory is reused for other values allocated by the same allocator, and Java doesn't allow invalidating buffer
+ * views, so the view used after closing the value may read decrypted bytes of other value. Views should never
+ * escape the scope owning the value (try-with-resources block, for example); use {@link #decrypt()} or
+ * {@link #decryptToString(Charset)} for the data outliving the value.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class OffHeapDecryptableValue implements DecryptableValue<byte[]>, AutoCloseable {
+
+    private final SlabAllocator allocator;
+
+    private volatile SlabAllocator.Chunk chunk;
+
+    private volatile boolean closed;
+
+    private final Decryptor<byte[]> decryptor;
+
+    private final byte[] encryptedValue;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param decryptor      decryptor which will be used to decrypt value
+     * @param encryptedValue encrypted value, which will be enclosed by the created instance
+     * @param allocator      allocator of the off-heap memory holding decrypted value
+     */
+    public OffHeapDecryptableValue(@Nonnull final Decryptor<byte[]> decryptor, @Nonnull final byte[] encryptedValue,
+                                   @Nonnull final SlabAllocator allocator) {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(decryptor, "Decryptor is required.");
+        Objects.requireNonNull(encryptedValue, "Encrypted value is required.");
+        Objects.requireNonNull(allocator, "Allocator is required.");
+
+        // ... and initialize this instance fields.
+        this.decryptor = decryptor;
+        this.encryptedValue = encryptedValue.clone();
+        this.allocator = allocator;
+    }
+
+    /**
+     * Returns factory creating {@link OffHeapDecryptableValue} instances using provided decryptor and allocator.
+     *
+     * @param decryptor decryptor which will be used by decryptable values created by returned factory
+     * @param allocator allocator of the off-heap memory holding decrypted values
+     * @return factory creating {@link OffHeapDecryptableValue} instances
+     */
+    public static DecryptableValueFactory<byte[], OffHeapDecryptableValue> factory(
+        @Nonnull final Decryptor<byte[]> decryptor, @Nonnull final SlabAllocator allocator) {
+        Objects.requireNonNull(decryptor, "Decryptor is required.");
+        Objects.requireNonNull(allocator, "Allocator is required.");
+        return representation -> new OffHeapDecryptableValue(decryptor, representation, allocator);
+    }
+
+    /**
+     * Wipes decrypted value, and releases the off-heap memory holding it.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        final SlabAllocator.Chunk current = chunk;
+        if (null != current) {
+            current.close();
+        }
+    }
+
+    /**
+     * Decrypts the value.
+     *
+     * @return heap copy of decrypted value, which may be wiped by the caller
+     * @throws IllegalStateException if this value has been closed already
+     */
+    @Nonnull
+    @Override
+    public byte[] decrypt() {
+        final ByteBuffer plaintext = plaintext();
+        final byte[] result = new byte[plaintext.remaining()];
+        plaintext.get(result);
+        return result;
+    }
+
+    /**
+     * Decrypts the value, and decodes it using given charset.
+     *
+     * @param charset the charset
+     * @return decoded value
+     * @throws IllegalStateException if this value has been closed already
+     */
+    @Nonnull
+    public String decryptToString(@Nonnull final Charset charset) {
+        Objects.requireNonNull(charset, "Charset is required.");
+        return charset.decode(plaintext())
+                      .toString();
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(final Object object) {
+        boolean result = (this == object);
+        if (!result && (object instanceof OffHeapDecryptableValue)) {
+            final OffHeapDecryptableValue other = (OffHeapDecryptableValue) object;
+            result = Objects.equals(decryptor, other.decryptor) && Arrays.equals(encryptedValue, other.encryptedValue);
+        }
+        return result;
+    }
+
+    /**
+     * @return the encrypted value
+     */
+    @Nonnull
+    @Override
+    public byte[] getEncryptedValue() {
+        return encryptedValue.clone();
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return (31 * (527 + decryptor.hashCode())) + Arrays.hashCode(encryptedValue);
+    }
+
+    /**
+     * @return {@code true} if this value has been closed already
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns read-only view of decrypted value, decrypting it first, if needed.
+     *
+     * <p>
+     * <strong>The view must not be used after this value is closed</strong>, because the memory backing it may be
+     * reused for decrypted bytes of other value by then.
+     * </p>
+     *
+     * @return read-only view of decrypted value, valid until this value is closed
+     * @throws IllegalStateException if this value has been closed already
+     */
+    @Nonnull
+    public ByteBuffer plaintext() {
+        SlabAllocator.Chunk current = chunk;
+        if (null == current) {
+            synchronized (this) {
+                current = chunk;
+                if (null == current) {
+                    if (closed) {
+                        throw new IllegalStateException("Decryptable value has been closed already.");
+                    }
+                    final byte[] decrypted = decryptor.decrypt(this);
+                    current = allocator.allocate(this, decrypted.length);
+                    current.buffer()
+                           .put(decrypted)
+                           .flip();
+                    Arrays.fill(decrypted, (byte) 0);
+                    chunk = current;
+                }
+            }
+        }
+        return current.buffer()
+                      .asReadOnlyBuffer();
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Off-heap decryptable value with hashCode: ")
+                                  .append(encryptedValue.hashCode())
+                                  .append(", serviced by ")
+                                  .append(decryptor)
+                                  .toString();
+    }
+
+}
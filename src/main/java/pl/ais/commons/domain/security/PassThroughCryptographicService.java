@@ -1,11 +1,19 @@
 package pl.ais.commons.domain.security;
 
+import org.springframework.context.annotation.ScopedProxyMode;
 import pl.ais.commons.domain.stereotype.DomainService;
 
 import javax.annotation.Nonnull;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
 import java.nio.charset.Charset;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Pass-through implementation of cryptographic service.
@@ -19,7 +27,7 @@ import java.util.Objects;
  * @since 1.0.2
  */
 @SuppressWarnings({"PMD.BeanMembersShouldSerialize", "PMD.OverrideBothEqualsAndHashcode"})
-@DomainService
+@DomainService(proxyMode = ScopedProxyMode.NO)
 public final class PassThroughCryptographicService extends CryptographicServiceSupport<String> {
 
     /**
@@ -54,7 +62,7 @@ public final class PassThroughCryptographicService extends CryptographicServiceS
      * @param charsetName the name of the charset which should be used for the string conversions
      */
     public PassThroughCryptographicService(final String charsetName) {
-        this(charsetName, new SerializableDecryptor(charsetName));
+        this(charsetName, SerializableDecryptor.resolve(charsetName));
     }
 
     /**
@@ -79,14 +87,44 @@ public final class PassThroughCryptographicService extends CryptographicServiceS
         return result;
     }
 
+    /**
+     * Verifies the name of the charset read from the stream.
+     *
+     * @param charsetName the name of the charset
+     * @return verified name of the charset
+     * @throws InvalidObjectException if the name of the charset is missing, illegal or unsupported
+     */
+    private static String verifiedCharsetName(final String charsetName) throws InvalidObjectException {
+        if (null == charsetName) {
+            throw new InvalidObjectException("Charset name is required.");
+        }
+        try {
+            Charset.forName(charsetName);
+        } catch (final IllegalArgumentException exception) {
+            final InvalidObjectException result = new InvalidObjectException("Invalid charset: " + charsetName);
+            result.initCause(exception);
+            throw result;
+        }
+        return charsetName;
+    }
+
+    /**
+     * Decryptor serialized as the reference to the charset name only, and resolved into the instance shared by all
+     * values deserialized within this JVM.
+     */
     private static final class SerializableDecryptor implements Decryptor<String>, Serializable {
 
+        private static final ConcurrentMap<String, SerializableDecryptor> RESOLVED = new ConcurrentHashMap<>();
+
         private static final long serialVersionUID = 1590923514790474301L;
 
+        private final transient Charset charset;
+
         private final String charsetName;
 
         SerializableDecryptor(final String charsetName) {
             super();
+            this.charset = Charset.forName(charsetName);
             this.charsetName = charsetName;
         }
 
@@ -96,7 +134,7 @@ public final class PassThroughCryptographicService extends CryptographicServiceS
         @Override
         @SuppressWarnings("PMD.NullAssignment")
         public String decrypt(final DecryptableValue<String> value) {
-            return (null == value) ? null : new String(value.getEncryptedValue(), Charset.forName(charsetName));
+            return (null == value) ? null : new String(value.getEncryptedValue(), charset);
         }
 
         /**
@@ -120,6 +158,18 @@ public final class PassThroughCryptographicService extends CryptographicServiceS
             return charsetName.hashCode();
         }
 
+        /**
+         * @return the decryptor using the same charset, shared by all deserialized values (streams written before
+         * 1.2.5 hold the decryptor in default form)
+         */
+        private Object readResolve() throws InvalidObjectException {
+            return resolve(verifiedCharsetName(charsetName));
+        }
+
+        static SerializableDecryptor resolve(final String charsetName) {
+            return RESOLVED.computeIfAbsent(charsetName, SerializableDecryptor::new);
+        }
+
         /**
          * @see java.lang.Object#toString()
          */
@@ -130,20 +180,76 @@ public final class PassThroughCryptographicService extends CryptographicServiceS
                                       .toString();
         }
 
+        /**
+         * @return compact reference to this decryptor
+         */
+        private Object writeReplace() {
+            return new DecryptorReference(charsetName);
+        }
+
+    }
+
+    /**
+     * Compact serialized form of {@link SerializableDecryptor}, holding the charset name only.
+     */
+    private static final class DecryptorReference implements Externalizable {
+
+        private static final long serialVersionUID = -2146512046937213411L;
+
+        private String charsetName;
+
+        /**
+         * Constructs new instance (required by {@link Externalizable} contract).
+         */
+        public DecryptorReference() {
+            super();
+        }
+
+        DecryptorReference(final String charsetName) {
+            super();
+            this.charsetName = charsetName;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void readExternal(final ObjectInput input) throws IOException {
+            charsetName = input.readUTF();
+        }
+
+        private Object readResolve() throws InvalidObjectException {
+            return SerializableDecryptor.resolve(verifiedCharsetName(charsetName));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void writeExternal(final ObjectOutput output) throws IOException {
+            output.writeUTF(charsetName);
+        }
+
     }
 
     private static final class SerializableEncryptor implements Encryptor<String>, Serializable {
 
         private static final long serialVersionUID = -8598810770587310048L;
 
+        private final transient Charset charset;
+
         private final String charsetName;
 
         private final Decryptor<String> decryptor;
 
+        private final transient DecryptableValueFactory<String, DefaultDecryptableValue<String>> factory;
+
         SerializableEncryptor(final String charsetName, final Decryptor<String> decryptor) {
             super();
+            this.charset = Charset.forName(charsetName);
             this.charsetName = charsetName;
             this.decryptor = decryptor;
+            this.factory = DefaultDecryptableValue.factory(decryptor);
         }
 
         /**
@@ -152,8 +258,7 @@ public final class PassThroughCryptographicService extends CryptographicServiceS
         @Override
         @SuppressWarnings("PMD.NullAssignment")
         public DecryptableValue<String> encrypt(final String value) {
-            return (null == value) ? null : DefaultDecryptableValue.factory(decryptor).decryptableValue(
-                value.getBytes(Charset.forName(charsetName)));
+            return (null == value) ? null : factory.decryptableValue(value.getBytes(charset));
         }
 
         /**
@@ -177,6 +282,16 @@ public final class PassThroughCryptographicService extends CryptographicServiceS
             return charsetName.hashCode();
         }
 
+        /**
+         * @return encryptor having the charset resolved
+         */
+        private Object readResolve() throws InvalidObjectException {
+            if (null == decryptor) {
+                throw new InvalidObjectException("Decryptor is required.");
+            }
+            return new SerializableEncryptor(verifiedCharsetName(charsetName), decryptor);
+        }
+
         /**
          * @see java.lang.Object#toString()
          */
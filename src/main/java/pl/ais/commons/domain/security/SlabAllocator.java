@@ -0,0 +1,249 @@
+package pl.ais.commons.domain.security;
+
+import javax.annotation.Nonnull;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Allocator of off-heap memory chunks, carved out of large direct buffers (slabs).
+ *
+ * <p>
+ * Chunks are rounded up to the power of two (16 bytes at least), and returned to the free list of their size class
+ * when released, so the slabs are allocated once and reused afterwards, without adding to the garbage collection
+ * pressure. Chunks exceeding the size of the slab are allocated as dedicated direct buffers. Released chunks are
+ * wiped (filled with zeros) before being reused.
+ * </p>
+ * <p>
+ * Each chunk is allocated on behalf of its owner: chunk not released explicitly is released when its owner becomes
+ * phantom reachable, on subsequent allocation (so no cleaning thread is needed).
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @see OffHeapDecryptableValue
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class SlabAllocator {
+
+    private static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+    private static final int MIN_CHUNK_SHIFT = 4;
+
+    private static final SlabAllocator SHARED = new SlabAllocator(DEFAULT_SLAB_SIZE);
+
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    private final LongAdder cleanedCount = new LongAdder();
+
+    private ByteBuffer current;
+
+    private final Queue<ByteBuffer>[] freeLists;
+
+    private final Set<Chunk> live = ConcurrentHashMap.newKeySet();
+
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    private final LongAdder slabCount = new LongAdder();
+
+    private final int slabSize;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param slabSize the size of single slab (in bytes), power of two not less than 16
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public SlabAllocator(final int slabSize) {
+        super();
+
+        // Validate constructor requirements, ...
+        if ((Integer.bitCount(slabSize) != 1) || ((1 << MIN_CHUNK_SHIFT) > slabSize)) {
+            throw new IllegalArgumentException("Slab size should be the power of two, not less than 16.");
+        }
+
+        // ... and initialize this instance fields.
+        this.slabSize = slabSize;
+        this.freeLists = new Queue[Integer.numberOfTrailingZeros(slabSize) + 1];
+        for (int index = MIN_CHUNK_SHIFT; index < freeLists.length; index++) {
+            freeLists[index] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * @return allocator shared by default, using 1 MB slabs
+     */
+    public static SlabAllocator shared() {
+        return SHARED;
+    }
+
+    private static int sizeClass(final int size) {
+        return Math.max(MIN_CHUNK_SHIFT, 32 - Integer.numberOfLeadingZeros(size - 1));
+    }
+
+    private static void wipe(final ByteBuffer buffer) {
+        buffer.clear();
+        int index = 0;
+        for (; index <= (buffer.capacity() - Long.BYTES); index += Long.BYTES) {
+            buffer.putLong(index, 0L);
+        }
+        for (; index < buffer.capacity(); index++) {
+            buffer.put(index, (byte) 0);
+        }
+    }
+
+    /**
+     * Allocates the chunk of given size on behalf of given owner.
+     *
+     * @param owner the owner of the chunk, which will be released when the owner becomes phantom reachable
+     * @param size  the size of the chunk (in bytes)
+     * @return allocated chunk
+     */
+    @Nonnull
+    public Chunk allocate(@Nonnull final Object owner, final int size) {
+        Objects.requireNonNull(owner, "Owner is required.");
+        if (0 > size) {
+            throw new IllegalArgumentException("Size cannot be negative.");
+        }
+        expungeStaleChunks();
+        final ByteBuffer buffer;
+        if (slabSize < size) {
+            buffer = ByteBuffer.allocateDirect(size);
+        } else {
+            final int sizeClass = sizeClass(Math.max(1, size));
+            final ByteBuffer free = freeLists[sizeClass].poll();
+            buffer = (null == free) ? carve(1 << sizeClass) : free;
+        }
+        allocatedBytes.add(buffer.capacity());
+        buffer.clear();
+        buffer.limit(size);
+        final Chunk result = new Chunk(owner, buffer);
+        live.add(result);
+        return result;
+    }
+
+    private synchronized ByteBuffer carve(final int size) {
+        if ((null == current) || (current.remaining() < size)) {
+            current = ByteBuffer.allocateDirect(slabSize);
+            slabCount.increment();
+        }
+        final ByteBuffer result = current.slice();
+        result.limit(size);
+        current.position(current.position() + size);
+        return result.slice();
+    }
+
+    private void expungeStaleChunks() {
+        Reference<?> reference;
+        while (null != (reference = queue.poll())) {
+            if (((Chunk) reference).free()) {
+                cleanedCount.increment();
+            }
+        }
+    }
+
+    /**
+     * @return the number of bytes held by currently allocated chunks
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    /**
+     * @return the number of chunks released because their owners became phantom reachable
+     */
+    public long getCleanedCount() {
+        return cleanedCount.sum();
+    }
+
+    /**
+     * @return the number of slabs allocated so far
+     */
+    public long getSlabCount() {
+        return slabCount.sum();
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Slab allocator using ")
+                                  .append(slabSize)
+                                  .append("-byte slabs")
+                                  .toString();
+    }
+
+    /**
+     * Off-heap memory chunk, released either explicitly, or when its owner becomes phantom reachable.
+     */
+    public final class Chunk extends PhantomReference<Object> implements AutoCloseable {
+
+        private final AtomicReference<ByteBuffer> buffer;
+
+        Chunk(final Object owner, final ByteBuffer buffer) {
+            super(owner, queue);
+            this.buffer = new AtomicReference<>(buffer);
+        }
+
+        /**
+         * Returns the buffer backing this chunk.
+         *
+         * <p>
+         * The buffer, and any view of it, must not be used after the chunk is released: its memory is wiped and
+         * handed out to the next allocation of the same size class, so it may expose the data of other chunk.
+         * </p>
+         *
+         * @return the buffer backing this chunk
+         * @throws IllegalStateException if this chunk has been released already
+         */
+        @Nonnull
+        public ByteBuffer buffer() {
+            final ByteBuffer result = buffer.get();
+            if (null == result) {
+                throw new IllegalStateException("Chunk has been released already.");
+            }
+            return result;
+        }
+
+        /**
+         * Wipes and releases this chunk, does nothing if it has been released already.
+         */
+        @Override
+        public void close() {
+            free();
+        }
+
+        boolean free() {
+            final ByteBuffer released = buffer.getAndSet(null);
+            final boolean result = (null != released);
+            if (result) {
+                live.remove(this);
+                clear();
+                wipe(released);
+                allocatedBytes.add(-released.capacity());
+                if (slabSize >= released.capacity()) {
+                    freeLists[Integer.numberOfTrailingZeros(released.capacity())].offer(released);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * @return {@code true} if this chunk has been released already
+         */
+        public boolean isReleased() {
+            return null == buffer.get();
+        }
+
+    }
+
+}
@@ -0,0 +1,238 @@
+package pl.ais.commons.domain.security.crypto;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.crypto.Mac;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates blind indexes - stable, keyed tokens of unencrypted values, which can be stored in the indexed column
+ * next to the encrypted value, and used for the equality lookups without decrypting anything.
+ *
+ * <p>
+ * Token is the (optionally truncated) HMAC of unencrypted value, so the same value always produces the same token,
+ * while the token itself reveals nothing about the value to anyone not holding the key. The key should be distinct
+ * from the encryption key. Truncating the tokens trades some false positives (which have to be filtered out after
+ * decryption) for less information revealed about the equal values:
+ * </p>
+ * <pre>
+ * final BlindIndex index = new BlindIndex(indexKey).withLength(16);
+ * row.setEmail(cipherer.encrypt(email));
+ * row.setEmailIndex(index.encodedToken(email));
+ * ...
+ * repository.findByEmailIndex(index.encodedToken(email));
+ * </pre>
+ * <p>
+ * Instances of this class are thread-safe, initialized {@link Mac} instances are reused across the calls.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class BlindIndex {
+
+    private static final String DEFAULT_ALGORITHM = "HmacSHA256";
+
+    private static final int MAX_IDLE = 2 * Runtime.getRuntime().availableProcessors();
+
+    private final String algorithm;
+
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    private final Queue<Mac> idle = new ConcurrentLinkedQueue<>();
+
+    private final Key key;
+
+    private final int length;
+
+    /**
+     * Constructs new instance generating full-length HmacSHA256 tokens.
+     *
+     * @param key the key
+     */
+    public BlindIndex(@Nonnull final Key key) {
+        this(DEFAULT_ALGORITHM, key);
+    }
+
+    /**
+     * Constructs new instance generating full-length tokens.
+     *
+     * @param algorithm the name of MAC algorithm (for example, {@code HmacSHA512})
+     * @param key       the key
+     */
+    public BlindIndex(@Nonnull final String algorithm, @Nonnull final Key key) {
+        this(algorithm, key, 0);
+    }
+
+    @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+    private BlindIndex(@Nonnull final String algorithm, @Nonnull final Key key, final int length) {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(algorithm, "Algorithm is required.");
+        Objects.requireNonNull(key, "Key is required.");
+
+        // ... and initialize this instance fields.
+        this.algorithm = algorithm;
+        this.key = key;
+        try {
+            final Mac mac = newMac();
+            this.length = (0 == length) ? mac.getMacLength() : length;
+            if (this.length > mac.getMacLength()) {
+                throw new IllegalArgumentException("Token length cannot exceed " + mac.getMacLength() + " bytes.");
+            }
+            release(mac);
+        } catch (final GeneralSecurityException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    /**
+     * Returns Base64 representation of the token of given value, suitable for textual columns.
+     *
+     * @param value unencrypted value
+     * @return Base64 representation of the token, or {@code null} if given value is {@code null}
+     */
+    @Nullable
+    @SuppressWarnings("PMD.NullAssignment")
+    public String encodedToken(@Nullable final byte[] value) {
+        return (null == value) ? null : Base64.getEncoder()
+                                              .encodeToString(token(value));
+    }
+
+    /**
+     * Returns Base64 representation of the token of given value, encoded using UTF-8.
+     *
+     * @param value unencrypted value
+     * @return Base64 representation of the token, or {@code null} if given value is {@code null}
+     * @see #encodedToken(byte[])
+     */
+    @Nullable
+    @SuppressWarnings("PMD.NullAssignment")
+    public String encodedToken(@Nullable final String value) {
+        return (null == value) ? null : encodedToken(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(final Object object) {
+        boolean result = (this == object);
+        if (!result && (object instanceof BlindIndex)) {
+            final BlindIndex other = (BlindIndex) object;
+            result = Objects.equals(algorithm, other.algorithm) && Objects.equals(key, other.key)
+                && (length == other.length);
+        }
+        return result;
+    }
+
+    /**
+     * @return the length of generated tokens (in bytes)
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(algorithm, key, length);
+    }
+
+    private Mac newMac() throws GeneralSecurityException {
+        final Mac result = Mac.getInstance(algorithm);
+        result.init(key);
+        return result;
+    }
+
+    private void release(final Mac mac) {
+        if (MAX_IDLE > idleCount.getAndIncrement()) {
+            idle.offer(mac);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the token of given value.
+     *
+     * @param value unencrypted value
+     * @return the token, or {@code null} if given value is {@code null}
+     */
+    @Nullable
+    @SuppressWarnings({"PMD.AvoidThrowingRawExceptionTypes", "PMD.NullAssignment"})
+    public byte[] token(@Nullable final byte[] value) {
+        byte[] result = null;
+        if (null != value) {
+            try {
+                Mac mac = idle.poll();
+                if (null == mac) {
+                    mac = newMac();
+                } else {
+                    idleCount.decrementAndGet();
+                }
+                final byte[] digest = mac.doFinal(value);
+                release(mac);
+                result = (length == digest.length) ? digest : Arrays.copyOf(digest, length);
+            } catch (final GeneralSecurityException exception) {
+                throw new RuntimeException(exception);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the token of given value, encoded using given charset.
+     *
+     * @param value   unencrypted value
+     * @param charset the charset used to encode the value
+     * @return the token, or {@code null} if given value is {@code null}
+     */
+    @Nullable
+    @SuppressWarnings("PMD.NullAssignment")
+    public byte[] token(@Nullable final String value, @Nonnull final Charset charset) {
+        Objects.requireNonNull(charset, "Charset is required.");
+        return (null == value) ? null : token(value.getBytes(charset));
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Blind index using ")
+                                  .append(algorithm)
+                                  .append(", generating ")
+                                  .append(length)
+                                  .append("-byte tokens")
+                                  .toString();
+    }
+
+    /**
+     * Creates blind index configured like this one, but generating tokens truncated to given length.
+     *
+     * @param length the length of generated tokens (in bytes), at least 8
+     * @return newly created blind index generating tokens of given length
+     */
+    @SuppressWarnings("hiding")
+    public BlindIndex withLength(final int length) {
+        if (8 > length) {
+            throw new IllegalArgumentException("Token length should be at least 8 bytes.");
+        }
+        return new BlindIndex(algorithm, key, length);
+    }
+
+}
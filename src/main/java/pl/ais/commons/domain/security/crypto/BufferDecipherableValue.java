@@ -0,0 +1,144 @@
+package pl.ais.commons.domain.security.crypto;
+
+import pl.ais.commons.domain.security.DecryptableValue;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Objects;
+
+/**
+ * Decipherable value backed by the {@link ByteBuffer} slice.
+ *
+ * <p>
+ * Unlike {@link DecipherableValue}, this implementation doesn't copy the encrypted bytes, it holds read-only view of
+ * the buffer region instead. Both heap and direct buffers are supported, and can be decrypted directly into
+ * the caller-supplied buffer using {@link #decrypt(ByteBuffer)} method.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class BufferDecipherableValue implements DecryptableValue<byte[]> {
+
+    private final ByteBuffer buffer;
+
+    private final Decipherer decipherer;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param decipherer decipherer (with algorithm parameters applied) which can be used to decrypt the value
+     * @param buffer     buffer, which remaining bytes hold the encrypted value
+     */
+    BufferDecipherableValue(@Nonnull final Decipherer decipherer, @Nonnull final ByteBuffer buffer) {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(decipherer, "Decipherer is required.");
+        Objects.requireNonNull(buffer, "Buffer is required.");
+
+        // ... and initialize this instance fields.
+        this.decipherer = decipherer;
+        this.buffer = buffer.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Creates decipherable value backed by the remaining bytes of given buffer.
+     *
+     * <p>
+     * Returned value remains valid only as long, as the buffer region is not overwritten.
+     * </p>
+     *
+     * @param decipherer decipherer which can be used to decrypt the value
+     * @param params     the algorithm parameters
+     * @param buffer     buffer, which remaining bytes hold the encrypted value
+     * @return decipherable value backed by the remaining bytes of given buffer
+     */
+    public static BufferDecipherableValue wrap(@Nonnull final Decipherer decipherer,
+                                               @Nullable final AlgorithmParameterSpec params,
+                                               @Nonnull final ByteBuffer buffer) {
+        return new BufferDecipherableValue(decipherer.withParams(params), buffer);
+    }
+
+    /**
+     * @return read-only view of the buffer region holding encrypted value
+     */
+    @Nonnull
+    public ByteBuffer buffer() {
+        return buffer.duplicate();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] decrypt() {
+        return decipherer.decrypt(this);
+    }
+
+    /**
+     * Decrypts the value into given buffer.
+     *
+     * @param output buffer into which decrypted bytes will be stored
+     * @return the number of bytes stored in the output buffer
+     */
+    public int decrypt(@Nonnull final ByteBuffer output) {
+        return decipherer.decrypt(buffer.duplicate(), output);
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(final Object object) {
+        boolean result = (this == object);
+        if (!result && (object instanceof BufferDecipherableValue)) {
+            final BufferDecipherableValue other = (BufferDecipherableValue) object;
+            result = Objects.equals(decipherer, other.decipherer) && buffer.equals(other.buffer);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] getEncryptedValue() {
+        final byte[] result = new byte[buffer.remaining()];
+        buffer.duplicate().get(result);
+        return result;
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return (31 * decipherer.hashCode()) + buffer.hashCode();
+    }
+
+    /**
+     * @return number of encrypted bytes
+     */
+    public int size() {
+        return buffer.remaining();
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Decipherable value backed by ")
+                                  .append(buffer.isDirect() ? "direct" : "heap")
+                                  .append(" buffer of size ")
+                                  .append(buffer.remaining())
+                                  .append(", serviced by ")
+                                  .append(decipherer)
+                                  .toString();
+    }
+
+}
@@ -0,0 +1,393 @@
+package pl.ais.commons.domain.security.crypto;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.crypto.Cipher;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.Provider;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of initialized {@link Cipher} instances.
+ *
+ * <p>
+ * Ciphers are pooled per {@link Spec} (transformation, operation mode, key and algorithm parameters), so acquiring
+ * the cipher from the pool saves both the provider lookup and the initialization. The pool never blocks: when there
+ * is no idle cipher available, new one is created, and when the partition is already full, released cipher is simply
+ * dropped. Thanks to this, the pool may be safely used from the platform and virtual threads alike.
+ * </p>
+ * <p>
+ * Ciphers of nonce-based transformations (GCM, ChaCha20) initialized by the pool cannot be reused by design
+ * (encryption would repeat the nonce, and the providers refuse to process another message without re-initialization),
+ * so they are never returned to the pool. Moreover, ChaCha20 ciphers refuse the re-initialization using the same key
+ * and nonce as the previous one even for decryption (which happens legitimately when the same value is decrypted
+ * again), so they are never returned to the pool at all.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class CipherPool {
+
+    private static final int DEFAULT_MAX_IDLE_PER_KEY = 2 * Runtime.getRuntime().availableProcessors();
+
+    private static final int DEFAULT_MAX_KEYS = 256;
+
+    private static final CipherPool SHARED = new CipherPool(DEFAULT_MAX_IDLE_PER_KEY, DEFAULT_MAX_KEYS);
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final int maxIdlePerKey;
+
+    private final int maxKeys;
+
+    private final LongAdder misses = new LongAdder();
+
+    private final ConcurrentMap<Spec, Partition> partitions = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs new instance.
+     *
+     * @param maxIdlePerKey maximum number of idle ciphers kept for single {@link Spec}, {@code 0} disables pooling
+     * @param maxKeys       maximum number of {@link Spec}s for which idle ciphers are kept, least recently used ones
+     *                      are evicted when exceeded
+     */
+    public CipherPool(final int maxIdlePerKey, final int maxKeys) {
+        super();
+
+        // Validate constructor requirements, ...
+        if (0 > maxIdlePerKey) {
+            throw new IllegalArgumentException("Maximum number of idle ciphers per key cannot be negative.");
+        }
+        if (0 >= maxKeys) {
+            throw new IllegalArgumentException("Maximum number of keys should be positive.");
+        }
+
+        // ... and initialize this instance fields.
+        this.maxIdlePerKey = maxIdlePerKey;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * @return pool shared by default by {@link Cipherer} and {@link Decipherer} instances
+     */
+    public static CipherPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Acquires cipher initialized according to given specification.
+     *
+     * <p>
+     * Acquired cipher is used exclusively by the caller, until it is {@link #release(Spec, Cipher) released}.
+     * </p>
+     *
+     * @param spec cipher specification
+     * @return cipher initialized according to given specification
+     * @throws GeneralSecurityException if the cipher cannot be created or initialized
+     */
+    @Nonnull
+    public Cipher acquire(@Nonnull final Spec spec) throws GeneralSecurityException {
+        final Partition partition = partitions.get(spec);
+        final Cipher pooled = (null == partition) ? null : partition.poll();
+        final Cipher result;
+        if (null == pooled) {
+            misses.increment();
+            result = spec.newCipher();
+        } else {
+            hits.increment();
+            result = pooled;
+        }
+        return result;
+    }
+
+    /**
+     * Removes all idle ciphers from this pool.
+     */
+    public void clear() {
+        final Iterator<Partition> iterator = partitions.values().iterator();
+        while (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Removes all idle ciphers initialized using given key from this pool.
+     *
+     * @param key the key
+     */
+    public void evict(@Nonnull final Key key) {
+        Objects.requireNonNull(key, "Key is required.");
+        for (final Map.Entry<Spec, Partition> entry : partitions.entrySet()) {
+            if (key.equals(entry.getKey().key) && partitions.remove(entry.getKey(), entry.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        Map.Entry<Spec, Partition> candidate = null;
+        for (final Map.Entry<Spec, Partition> entry : partitions.entrySet()) {
+            if ((null == candidate) || (0 > (entry.getValue().lastUsed - candidate.getValue().lastUsed))) {
+                candidate = entry;
+            }
+        }
+        if ((null != candidate) && partitions.remove(candidate.getKey(), candidate.getValue())) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * @return number of partitions evicted from this pool so far
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return number of acquisitions satisfied by idle cipher so far
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of acquisitions which required new cipher to be created so far
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Pre-fills this pool with up to given number of idle ciphers initialized according to given specification.
+     *
+     * <p>
+     * The number of idle ciphers kept is limited by the maximum number of idle ciphers per key, and the ciphers which
+     * cannot be reused are not kept at all, although the provider lookup is performed anyway.
+     * </p>
+     *
+     * @param spec  cipher specification
+     * @param count the number of ciphers to be created (at most)
+     * @throws GeneralSecurityException if the cipher cannot be created or initialized
+     */
+    public void prefill(@Nonnull final Spec spec, final int count) throws GeneralSecurityException {
+        Objects.requireNonNull(spec, "Spec is required.");
+        if (0 > count) {
+            throw new IllegalArgumentException("Count cannot be negative.");
+        }
+        final int limit = Math.min(count, Math.max(1, maxIdlePerKey));
+        final Cipher[] ciphers = new Cipher[limit];
+        for (int index = 0; index < limit; index++) {
+            ciphers[index] = acquire(spec);
+        }
+        for (final Cipher cipher : ciphers) {
+            release(spec, cipher);
+        }
+    }
+
+    /**
+     * Releases given cipher, previously acquired from this pool for given specification.
+     *
+     * <p>
+     * The caller should not release the cipher, if its last operation has failed.
+     * </p>
+     *
+     * @param spec   cipher specification
+     * @param cipher cipher to be released
+     */
+    public void release(@Nonnull final Spec spec, @Nonnull final Cipher cipher) {
+        if ((0 < maxIdlePerKey) && spec.reusable) {
+            Partition partition = partitions.get(spec);
+            if (null == partition) {
+                if (partitions.size() >= maxKeys) {
+                    evictLeastRecentlyUsed();
+                }
+                final Partition created = new Partition();
+                partition = partitions.putIfAbsent(spec, created);
+                if (null == partition) {
+                    partition = created;
+                }
+            }
+            partition.offer(cipher);
+        }
+    }
+
+    /**
+     * @return number of specifications for which idle ciphers are kept
+     */
+    public int size() {
+        return partitions.size();
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Cipher pool keeping up to ")
+                                  .append(maxIdlePerKey)
+                                  .append(" idle ciphers for up to ")
+                                  .append(maxKeys)
+                                  .append(" keys")
+                                  .toString();
+    }
+
+    /**
+     * Specification of the cipher (transformation, operation mode, key and algorithm parameters).
+     *
+     * <p>
+     * Instances of this class are used as pool keys, so they should be created once and reused, when possible.
+     * </p>
+     */
+    public static final class Spec {
+
+        private static final int UNINITIALIZED = 0;
+
+        private final int hash;
+
+        private final Key key;
+
+        private final int opmode;
+
+        private final AlgorithmParameterSpec params;
+
+        private final boolean reusable;
+
+        private final String transformation;
+
+        /**
+         * Constructs new instance, specifying ciphers which will be initialized by the caller on each use.
+         *
+         * <p>
+         * Such ciphers are still pooled per key, because the providers are able to avoid repeating the key schedule
+         * setup, when re-initialized using the same key.
+         * </p>
+         *
+         * @param transformation the name of the transformation
+         * @param key            the key
+         */
+        public Spec(@Nonnull final String transformation, @Nonnull final Key key) {
+            this(transformation, UNINITIALIZED, key, null);
+        }
+
+        /**
+         * Constructs new instance.
+         *
+         * @param transformation the name of the transformation
+         * @param opmode         the operation mode of the cipher
+         * @param key            the key
+         * @param params         the algorithm parameters
+         */
+        public Spec(@Nonnull final String transformation, final int opmode, @Nonnull final Key key,
+                    @Nullable final AlgorithmParameterSpec params) {
+            super();
+
+            // Validate constructor requirements, ...
+            Objects.requireNonNull(transformation, "Transformation is required.");
+            Objects.requireNonNull(key, "Key is required.");
+
+            // ... and initialize this instance fields.
+            this.transformation = transformation;
+            this.opmode = opmode;
+            this.key = key;
+            this.params = params;
+            final String normalized = transformation.toUpperCase();
+            this.reusable = !(normalized.startsWith("CHACHA20")
+                || ((UNINITIALIZED != opmode) && normalized.contains("/GCM/")));
+            this.hash = (31 * ((31 * ((31 * transformation.hashCode()) + opmode)) + key.hashCode()))
+                + Objects.hashCode(params);
+        }
+
+        /**
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(final Object object) {
+            boolean result = (this == object);
+            if (!result && (object instanceof Spec)) {
+                final Spec other = (Spec) object;
+                result = (hash == other.hash) && (opmode == other.opmode)
+                    && transformation.equals(other.transformation) && key.equals(other.key)
+                    && Objects.equals(params, other.params);
+            }
+            return result;
+        }
+
+        /**
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        Cipher newCipher() throws GeneralSecurityException {
+            final Provider provider = ProviderSelector.pinnedProvider(transformation);
+            final Cipher cipher = (null == provider) ? Cipher.getInstance(transformation)
+                : Cipher.getInstance(transformation, provider);
+            if (null != params) {
+                cipher.init(opmode, key, params);
+            } else if (UNINITIALIZED != opmode) {
+                cipher.init(opmode, key);
+            }
+            return cipher;
+        }
+
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return new StringBuilder().append("Cipher specification for transformation ")
+                                      .append(transformation)
+                                      .append(" in mode ")
+                                      .append(opmode)
+                                      .toString();
+        }
+
+    }
+
+    private final class Partition {
+
+        private final Queue<Cipher> idle = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        private volatile long lastUsed = System.nanoTime();
+
+        void offer(final Cipher cipher) {
+            if (size.incrementAndGet() <= maxIdlePerKey) {
+                idle.offer(cipher);
+            } else {
+                size.decrementAndGet();
+            }
+            lastUsed = System.nanoTime();
+        }
+
+        Cipher poll() {
+            final Cipher result = idle.poll();
+            if (null != result) {
+                size.decrementAndGet();
+                lastUsed = System.nanoTime();
+            }
+            return result;
+        }
+
+    }
+
+}
@@ -5,6 +5,7 @@ import pl.ais.commons.domain.security.Encryptor;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.crypto.Cipher;
+import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.spec.AlgorithmParameterSpec;
@@ -14,6 +15,13 @@ import java.util.Optional;
 /**
  * {@link Encryptor} implementation based on Java Cryptography Architecture (JCA).
  *
+ * <p>
+ * Instances created using {@link #enveloped(EnvelopeAlgorithm, Key)} method generate fresh initialization vector
+ * for each value, and produce compact, self-describing envelopes (holding the algorithm identifier, optional key
+ * identifier, initialization vector and the ciphertext), which can be stored as single {@code byte[]}, and decrypted
+ * by the {@link Decipherer} created using {@link Decipherer#enveloped(EnvelopeAlgorithm, Key)} method.
+ * </p>
+ *
  * @author Warlock, AIS.PL
  * @see <a href="http://docs.oracle.com/javase/7/docs/technotes/guides/security/crypto/CryptoSpec.html">Java
  * Cryptography Architecture (JCA)</a>
@@ -22,10 +30,24 @@ import java.util.Optional;
 @SuppressWarnings("PMD.BeanMembersShouldSerialize")
 public final class Cipherer implements Encryptor<byte[]> {
 
+    private final Decipherer decipherer;
+
+    private final EnvelopeAlgorithm envelope;
+
+    private final DecipherableValue.Factory factory;
+
+    private final int hash;
+
     private final Key key;
 
+    private final int keyId;
+
     private final Optional<AlgorithmParameterSpec> params;
 
+    private final CipherPool pool;
+
+    private final CipherPool.Spec spec;
+
     private final String transformation;
 
     /**
@@ -38,7 +60,22 @@ public final class Cipherer implements Encryptor<byte[]> {
      * @param key            the encryption key
      */
     public Cipherer(@Nonnull final String transformation, @Nonnull final Key key) {
-        this(transformation, key, Optional.empty());
+        this(transformation, key, Optional.empty(), CipherPool.shared(), null, Envelopes.NO_KEY_ID);
+    }
+
+    /**
+     * Constructs new instance.
+     *
+     * @param transformation the name of the transformation.
+     *                       See the Cipher section in the <a href="http://docs.oracle.com/javase/7/docs/technotes/guides/security/StandardNames.html#Cipher">Java
+     *                       Cryptography Architecture Standard Algorithm Name Documentation</a>
+     *                       for information about standard transformation names.
+     * @param key            the encryption key
+     * @param pool           the pool of ciphers to be used
+     * @since 1.2.5
+     */
+    public Cipherer(@Nonnull final String transformation, @Nonnull final Key key, @Nonnull final CipherPool pool) {
+        this(transformation, key, Optional.empty(), pool, null, Envelopes.NO_KEY_ID);
     }
 
     /**
@@ -53,21 +90,100 @@ public final class Cipherer implements Encryptor<byte[]> {
      */
     public Cipherer(@Nonnull final String transformation, @Nonnull final Key key,
                     @Nonnull final AlgorithmParameterSpec params) {
-        this(transformation, key, Optional.of(params));
+        this(transformation, key, Optional.of(params), CipherPool.shared(), null, Envelopes.NO_KEY_ID);
+    }
+
+    /**
+     * Constructs new instance.
+     *
+     * @param transformation the name of the transformation.
+     *                       See the Cipher section in the <a href="http://docs.oracle.com/javase/7/docs/technotes/guides/security/StandardNames.html#Cipher">Java
+     *                       Cryptography Architecture Standard Algorithm Name Documentation</a>
+     *                       for information about standard transformation names.
+     * @param key            the encryption key
+     * @param params         the algorithm parameters
+     * @param pool           the pool of ciphers to be used
+     * @since 1.2.5
+     */
+    public Cipherer(@Nonnull final String transformation, @Nonnull final Key key,
+                    @Nonnull final AlgorithmParameterSpec params, @Nonnull final CipherPool pool) {
+        this(transformation, key, Optional.of(params), pool, null, Envelopes.NO_KEY_ID);
     }
 
     private Cipherer(@Nonnull final String transformation, @Nonnull final Key key,
-                     @Nonnull final Optional<AlgorithmParameterSpec> params) {
+                     @Nonnull final Optional<AlgorithmParameterSpec> params, @Nonnull final CipherPool pool,
+                     @Nullable final EnvelopeAlgorithm envelope, final int keyId) {
 
         // Verify constructor requirements, ...
         Objects.requireNonNull(transformation, "Transformation is required.");
         Objects.requireNonNull(key, "Key is required.");
         Objects.requireNonNull(params, "Params are required");
+        Objects.requireNonNull(pool, "Pool is required.");
 
         // ... and initialize this instance fields.
         this.key = key;
         this.params = params;
+        this.pool = pool;
         this.transformation = transformation;
+        this.envelope = envelope;
+        this.keyId = keyId;
+        if (null == envelope) {
+            this.spec = new CipherPool.Spec(transformation, Cipher.ENCRYPT_MODE, key, params.orElse(null));
+            this.decipherer = new Decipherer(transformation, key, pool).withParams(params.orElse(null));
+        } else {
+            this.spec = new CipherPool.Spec(transformation, key);
+            this.decipherer = Decipherer.enveloped(envelope, key, pool);
+        }
+        this.factory = new DecipherableValue.Factory(decipherer, params.orElse(null));
+        final int hashCode = (31 * ((31 * (31 + transformation.hashCode())) + key.hashCode())) + params.hashCode();
+        this.hash = (31 * ((31 * hashCode) + Objects.hashCode(envelope))) + keyId;
+    }
+
+    /**
+     * Creates cipherer producing ciphertext envelopes, using shared pool of ciphers.
+     *
+     * @param algorithm the algorithm
+     * @param key       the encryption key
+     * @return cipherer producing ciphertext envelopes
+     * @since 1.2.5
+     */
+    public static Cipherer enveloped(@Nonnull final EnvelopeAlgorithm algorithm, @Nonnull final Key key) {
+        Objects.requireNonNull(algorithm, "Algorithm is required.");
+        return new Cipherer(algorithm.getTransformation(), key, Optional.empty(), CipherPool.shared(), algorithm,
+            Envelopes.NO_KEY_ID);
+    }
+
+    /**
+     * Creates cipherer producing ciphertext envelopes tagged with given key identifier, using shared pool of ciphers.
+     *
+     * @param algorithm the algorithm
+     * @param key       the encryption key
+     * @param keyId     the key identifier (non-negative)
+     * @return cipherer producing ciphertext envelopes
+     * @since 1.2.5
+     */
+    public static Cipherer enveloped(@Nonnull final EnvelopeAlgorithm algorithm, @Nonnull final Key key,
+                                     final int keyId) {
+        return enveloped(algorithm, key, keyId, CipherPool.shared());
+    }
+
+    /**
+     * Creates cipherer producing ciphertext envelopes tagged with given key identifier.
+     *
+     * @param algorithm the algorithm
+     * @param key       the encryption key
+     * @param keyId     the key identifier (non-negative)
+     * @param pool      the pool of ciphers to be used
+     * @return cipherer producing ciphertext envelopes
+     * @since 1.2.5
+     */
+    public static Cipherer enveloped(@Nonnull final EnvelopeAlgorithm algorithm, @Nonnull final Key key,
+                                     final int keyId, @Nonnull final CipherPool pool) {
+        Objects.requireNonNull(algorithm, "Algorithm is required.");
+        if (0 > keyId) {
+            throw new IllegalArgumentException("Key identifier cannot be negative.");
+        }
+        return new Cipherer(algorithm.getTransformation(), key, Optional.empty(), pool, algorithm, keyId);
     }
 
     /**
@@ -81,16 +197,11 @@ public final class Cipherer implements Encryptor<byte[]> {
         if (null == input) {
             result = null;
         } else {
-            final Cipher cipher;
             try {
-                cipher = Cipher.getInstance(transformation);
-                if (params.isPresent()) {
-                    cipher.init(Cipher.ENCRYPT_MODE, key, params.get());
-                } else {
-                    cipher.init(Cipher.ENCRYPT_MODE, key);
-                }
-                result = DecipherableValue.factory(new Decipherer(transformation, key), params.orElse(null))
-                                          .decryptableValue(cipher.doFinal(input));
+                final Cipher cipher = pool.acquire(spec);
+                result = factory.adopt((null == envelope) ? cipher.doFinal(input)
+                    : Envelopes.seal(cipher, key, envelope, keyId, input));
+                pool.release(spec, cipher);
             } catch (final GeneralSecurityException exception) {
                 throw new RuntimeException(exception);
             }
@@ -98,6 +209,44 @@ public final class Cipherer implements Encryptor<byte[]> {
         return result;
     }
 
+    /**
+     * Encrypts remaining bytes of given input buffer into given output buffer.
+     *
+     * <p>
+     * Input buffer's position will be equal to its limit, and output buffer's position will be advanced by the number
+     * of bytes stored, when this method completes. Both heap and direct buffers are supported, no intermediate arrays
+     * are allocated by this method itself.
+     * </p>
+     * <p>
+     * Returned value is backed by the region of output buffer holding the encrypted bytes, so it remains valid only
+     * as long, as this region is not overwritten.
+     * </p>
+     *
+     * @param input  buffer holding bytes to be encrypted
+     * @param output buffer into which encrypted bytes will be stored
+     * @return decipherable value backed by the region of output buffer holding the encrypted bytes
+     * @throws UnsupportedOperationException if this cipherer produces ciphertext envelopes
+     * @see #getOutputSize(int)
+     * @since 1.2.5
+     */
+    @Nonnull
+    @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+    public BufferDecipherableValue encrypt(@Nonnull final ByteBuffer input, @Nonnull final ByteBuffer output) {
+        Objects.requireNonNull(input, "Input buffer is required.");
+        Objects.requireNonNull(output, "Output buffer is required.");
+        requireRaw();
+        try {
+            final Cipher cipher = pool.acquire(spec);
+            final ByteBuffer encrypted = output.duplicate();
+            final int length = cipher.doFinal(input, output);
+            pool.release(spec, cipher);
+            encrypted.limit(encrypted.position() + length);
+            return new BufferDecipherableValue(decipherer, encrypted);
+        } catch (final GeneralSecurityException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
     /**
      * @see java.lang.Object#equals(java.lang.Object)
      */
@@ -106,18 +255,77 @@ public final class Cipherer implements Encryptor<byte[]> {
         boolean result = (this == object);
         if (!result && (object instanceof Cipherer)) {
             final Cipherer other = (Cipherer) object;
-            result = Objects.equals(transformation, other.transformation) && Objects.equals(key, other.key)
-                && Objects.equals(params, other.params);
+            result = (hash == other.hash) && (envelope == other.envelope) && (keyId == other.keyId)
+                && transformation.equals(other.transformation) && key.equals(other.key) && params.equals(other.params);
         }
         return result;
     }
 
+    /**
+     * Returns the length in bytes that an output buffer would need to be in order to hold the result of encrypting
+     * given number of bytes.
+     *
+     * @param inputLength the input length (in bytes)
+     * @return the required output buffer size (in bytes)
+     * @throws UnsupportedOperationException if this cipherer produces ciphertext envelopes
+     * @since 1.2.5
+     */
+    @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+    public int getOutputSize(final int inputLength) {
+        requireRaw();
+        try {
+            final Cipher cipher = pool.acquire(spec);
+            final int result = cipher.getOutputSize(inputLength);
+            pool.release(spec, cipher);
+            return result;
+        } catch (final GeneralSecurityException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
     /**
      * @see java.lang.Object#hashCode()
      */
     @Override
     public int hashCode() {
-        return Objects.hash(transformation, key, params);
+        return hash;
+    }
+
+    /**
+     * @return the key
+     */
+    Key key() {
+        return key;
+    }
+
+    /**
+     * @return the pool of ciphers
+     */
+    CipherPool pool() {
+        return pool;
+    }
+
+    /**
+     * Pre-fills the pool used by this cipherer and its decipherer with up to given number of initialized ciphers, so
+     * the first operations do not pay for the provider lookup and the initialization.
+     *
+     * @param count the number of ciphers to be created (at most)
+     * @since 1.2.5
+     */
+    @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+    public void prefill(final int count) {
+        try {
+            pool.prefill(spec, count);
+        } catch (final GeneralSecurityException exception) {
+            throw new RuntimeException(exception);
+        }
+        decipherer.prefill(count);
+    }
+
+    private void requireRaw() {
+        if (null != envelope) {
+            throw new UnsupportedOperationException("Buffer operations are not supported for ciphertext envelopes.");
+        }
     }
 
     /**
@@ -130,4 +338,11 @@ public final class Cipherer implements Encryptor<byte[]> {
                                   .toString();
     }
 
+    /**
+     * @return the name of the transformation
+     */
+    String transformation() {
+        return transformation;
+    }
+
 }
@@ -0,0 +1,380 @@
+package pl.ais.commons.domain.security.crypto;
+
+import pl.ais.commons.domain.security.DecryptableValue;
+import pl.ais.commons.domain.security.Decryptor;
+import pl.ais.commons.domain.security.Encryptor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compress-then-encrypt stage placed in front of byte array encryptor and decryptor.
+ *
+ * <p>
+ * Values not shorter than predefined threshold are deflated before the encryption, so both the storage and the cipher
+ * work are reduced for compressible data. Encrypted payload starts with the flag telling if the value has been
+ * compressed, values shorter than the threshold (or not compressible at all) are stored as they are, prefixed with
+ * the flag only:
+ * </p>
+ * <pre>
+ * final CompressionStage stage = new CompressionStage(keyRing).withThreshold(1024);
+ * final DecryptableValue&lt;byte[]&gt; encrypted = stage.encrypt(json);
+ * </pre>
+ * <p>
+ * {@link Deflater} and {@link Inflater} instances are pooled, and shared by all the stages. Declared length of the
+ * compressed value is verified before the decompression, so tampered payload cannot force huge allocation: it cannot
+ * exceed predefined maximum length, nor the length which deflated payload of given size may expand to.
+ * </p>
+ * <p>
+ * Note that the length of compressed value depends on its content, so the length of the ciphertext reveals
+ * information about the plaintext. Do not compress the values mixing data controlled by the attacker with the secrets
+ * (for example, request parameters with the tokens), as the attacker observing ciphertext lengths may guess the secrets
+ * byte by byte (see CRIME and BREACH attacks); use threshold exceeding the length of such values instead.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class CompressionStage implements Decryptor<byte[]>, Encryptor<byte[]> {
+
+    private static final int DEFAULT_MAXIMUM_LENGTH = 16 * 1024 * 1024;
+
+    private static final int DEFAULT_THRESHOLD = 512;
+
+    private static final byte DEFLATED = 1;
+
+    private static final Pool<Deflater> DEFLATERS = new Pool<>();
+
+    private static final Pool<Inflater> INFLATERS = new Pool<>();
+
+    /**
+     * Maximum ratio of inflated and deflated lengths (achieved by deflating long runs of the same byte).
+     */
+    private static final int MAX_INFLATION_RATIO = 1032;
+
+    private static final byte STORED = 0;
+
+    private final Decryptor<byte[]> decryptor;
+
+    private final Encryptor<byte[]> encryptor;
+
+    private final int level;
+
+    private final int maximumLength;
+
+    private final int threshold;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param encryptor encryptor applied to the compressed values
+     * @param decryptor decryptor applicable to the values encrypted by given encryptor
+     */
+    public CompressionStage(@Nonnull final Encryptor<byte[]> encryptor, @Nonnull final Decryptor<byte[]> decryptor) {
+        this(encryptor, decryptor, DEFAULT_THRESHOLD, Deflater.DEFAULT_COMPRESSION, DEFAULT_MAXIMUM_LENGTH);
+    }
+
+    /**
+     * Constructs new instance.
+     *
+     * @param service service encrypting the compressed values, and decrypting them afterwards (for example,
+     *                {@link KeyRing})
+     */
+    public <S extends Decryptor<byte[]> & Encryptor<byte[]>> CompressionStage(@Nonnull final S service) {
+        this(service, service);
+    }
+
+    private CompressionStage(@Nonnull final Encryptor<byte[]> encryptor, @Nonnull final Decryptor<byte[]> decryptor,
+                             final int threshold, final int level, final int maximumLength) {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(encryptor, "Encryptor is required.");
+        Objects.requireNonNull(decryptor, "Decryptor is required.");
+
+        // ... and initialize this instance fields.
+        this.encryptor = encryptor;
+        this.decryptor = decryptor;
+        this.threshold = threshold;
+        this.level = level;
+        this.maximumLength = maximumLength;
+    }
+
+    /**
+     * @return deflated value prefixed with the flag and the length of the value, or {@code null} if deflated value
+     * wouldn't be shorter than the value itself
+     */
+    private static byte[] deflate(final byte[] input, final int level) {
+        final int headerSize = 1 + Varints.size(input.length);
+        byte[] result = null;
+        if (input.length > headerSize) {
+            final byte[] output = new byte[input.length];
+            Deflater deflater = DEFLATERS.acquire();
+            if (null == deflater) {
+                deflater = new Deflater(level, true);
+            }
+            try {
+                deflater.setLevel(level);
+                deflater.setInput(input);
+                deflater.finish();
+                final int length = deflater.deflate(output, headerSize, output.length - headerSize);
+                if (deflater.finished()) {
+                    output[0] = DEFLATED;
+                    Varints.write(output, 1, input.length);
+                    result = Arrays.copyOf(output, headerSize + length);
+                }
+                deflater.reset();
+                if (!DEFLATERS.release(deflater)) {
+                    deflater.end();
+                }
+            } catch (final RuntimeException exception) {
+                deflater.end();
+                throw exception;
+            }
+        }
+        return result;
+    }
+
+    private static byte[] inflate(final byte[] payload, final int maximumLength) {
+        final int declaredLength = Varints.read(payload, 1);
+        final int offset = 1 + Varints.size(declaredLength);
+        if ((declaredLength > maximumLength)
+            || (declaredLength > ((long) (payload.length - offset) * MAX_INFLATION_RATIO))) {
+            throw new IllegalArgumentException("Compressed value length " + declaredLength + " exceeds the limit.");
+        }
+        final byte[] result = new byte[declaredLength];
+        Inflater inflater = INFLATERS.acquire();
+        if (null == inflater) {
+            inflater = new Inflater(true);
+        }
+        try {
+            inflater.setInput(payload, offset, payload.length - offset);
+            final int length = inflater.inflate(result);
+            if ((length != result.length) || !inflater.finished()) {
+                throw new IllegalArgumentException("Malformed compressed value.");
+            }
+            inflater.reset();
+            if (!INFLATERS.release(inflater)) {
+                inflater.end();
+            }
+            return result;
+        } catch (final DataFormatException exception) {
+            inflater.end();
+            throw new IllegalArgumentException("Malformed compressed value.", exception);
+        } catch (final RuntimeException exception) {
+            inflater.end();
+            throw exception;
+        }
+    }
+
+    private static byte[] unwrap(final byte[] payload, final int maximumLength) {
+        if (0 == payload.length) {
+            throw new IllegalArgumentException("Compression flag is missing.");
+        }
+        final byte[] result;
+        switch (payload[0]) {
+            case STORED:
+                result = Arrays.copyOfRange(payload, 1, payload.length);
+                break;
+            case DEFLATED:
+                result = inflate(payload, maximumLength);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown compression flag: " + payload[0]);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    @SuppressWarnings("PMD.NullAssignment")
+    public byte[] decrypt(@Nullable final DecryptableValue<byte[]> value) {
+        final byte[] result;
+        if (null == value) {
+            result = null;
+        } else if (value instanceof CompressedValue) {
+            result = unwrap(((CompressedValue) value).encrypted.decrypt(), maximumLength);
+        } else {
+            result = unwrap(decryptor.decrypt(value), maximumLength);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    @SuppressWarnings("PMD.NullAssignment")
+    public DecryptableValue<byte[]> encrypt(@Nullable final byte[] value) {
+        final DecryptableValue<byte[]> result;
+        if (null == value) {
+            result = null;
+        } else {
+            byte[] payload = (threshold <= value.length) ? deflate(value, level) : null;
+            if (null == payload) {
+                payload = new byte[value.length + 1];
+                payload[0] = STORED;
+                System.arraycopy(value, 0, payload, 1, value.length);
+            }
+            result = new CompressedValue(encryptor.encrypt(payload), maximumLength);
+        }
+        return result;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Compression stage (threshold ")
+                                  .append(threshold)
+                                  .append(" bytes) in front of ")
+                                  .append(encryptor)
+                                  .toString();
+    }
+
+    /**
+     * Creates compression stage configured like this one, but using given compression level.
+     *
+     * @param level the compression level (0-9, or {@link Deflater#DEFAULT_COMPRESSION})
+     * @return newly created compression stage using given compression level
+     */
+    @SuppressWarnings("hiding")
+    public CompressionStage withLevel(final int level) {
+        if (((Deflater.NO_COMPRESSION > level) || (Deflater.BEST_COMPRESSION < level))
+            && (Deflater.DEFAULT_COMPRESSION != level)) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        return new CompressionStage(encryptor, decryptor, threshold, level, maximumLength);
+    }
+
+    /**
+     * Creates compression stage configured like this one, but refusing to decompress the values longer than given
+     * maximum.
+     *
+     * @param maximumLength the maximum length (in bytes) of decompressed value
+     * @return newly created compression stage using given maximum length
+     */
+    @SuppressWarnings("hiding")
+    public CompressionStage withMaximumLength(final int maximumLength) {
+        if (0 > maximumLength) {
+            throw new IllegalArgumentException("Maximum length cannot be negative.");
+        }
+        return new CompressionStage(encryptor, decryptor, threshold, level, maximumLength);
+    }
+
+    /**
+     * Creates compression stage configured like this one, but compressing the values not shorter than given threshold.
+     *
+     * @param threshold the length (in bytes) from which the values are compressed
+     * @return newly created compression stage using given threshold
+     */
+    @SuppressWarnings("hiding")
+    public CompressionStage withThreshold(final int threshold) {
+        if (0 > threshold) {
+            throw new IllegalArgumentException("Threshold cannot be negative.");
+        }
+        return new CompressionStage(encryptor, decryptor, threshold, level, maximumLength);
+    }
+
+    /**
+     * Encrypted value decompressed on decryption.
+     */
+    private static final class CompressedValue implements DecryptableValue<byte[]> {
+
+        private final DecryptableValue<byte[]> encrypted;
+
+        private final int maximumLength;
+
+        CompressedValue(final DecryptableValue<byte[]> encrypted, final int maximumLength) {
+            super();
+            this.encrypted = encrypted;
+            this.maximumLength = maximumLength;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public byte[] decrypt() {
+            return unwrap(encrypted.decrypt(), maximumLength);
+        }
+
+        /**
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(final Object object) {
+            return (this == object) || ((object instanceof CompressedValue)
+                && encrypted.equals(((CompressedValue) object).encrypted));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public byte[] getEncryptedValue() {
+            return encrypted.getEncryptedValue();
+        }
+
+        /**
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return encrypted.hashCode();
+        }
+
+    }
+
+    /**
+     * Bounded, non-blocking pool of idle (de)compressors.
+     */
+    private static final class Pool<T> {
+
+        private static final int MAX_IDLE = 2 * Runtime.getRuntime().availableProcessors();
+
+        private final AtomicInteger idleCount = new AtomicInteger();
+
+        private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+
+        /**
+         * @return idle instance, or {@code null} if there is no such instance
+         */
+        T acquire() {
+            final T result = idle.poll();
+            if (null != result) {
+                idleCount.decrementAndGet();
+            }
+            return result;
+        }
+
+        /**
+         * @return {@code true} if given instance has been pooled, {@code false} if it should be disposed
+         */
+        boolean release(final T instance) {
+            final boolean result = MAX_IDLE > idleCount.getAndIncrement();
+            if (result) {
+                idle.offer(instance);
+            } else {
+                idleCount.decrementAndGet();
+            }
+            return result;
+        }
+
+    }
+
+}
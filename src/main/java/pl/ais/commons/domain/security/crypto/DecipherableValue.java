@@ -6,11 +6,17 @@ import pl.ais.commons.domain.security.DecryptableValueFactory;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.security.spec.AlgorithmParameterSpec;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
  * Decipherable value.
  *
+ * <p>
+ * The value is decrypted at most once (unless several threads request the decryption concurrently), decrypted value
+ * is retained, and its copy is returned by each {@link #decrypt()} call, so the callers may wipe it safely.
+ * </p>
+ *
  * @author Warlock, AIS.PL
  * @since 1.1.1
  */
@@ -21,8 +27,12 @@ public final class DecipherableValue implements DecryptableValue<byte[]> {
 
     private final byte[] encryptedValue;
 
+    private int hash;
+
     private final AlgorithmParameterSpec params;
 
+    private volatile byte[] decryptedValue;
+
     /**
      * Constructs new instance.
      *
@@ -32,11 +42,17 @@ public final class DecipherableValue implements DecryptableValue<byte[]> {
      */
     protected DecipherableValue(@Nonnull final Decipherer decipherer, final AlgorithmParameterSpec params,
                                 @Nonnull final byte[] encryptedValue) {
-        this.decipherer = decipherer;
+        this.decipherer = decipherer.withParams(params);
         this.params = params;
         this.encryptedValue = encryptedValue.clone();
     }
 
+    private DecipherableValue(@Nonnull final Factory factory, @Nonnull final byte[] encryptedValue) {
+        this.decipherer = factory.decipherer;
+        this.params = factory.params;
+        this.encryptedValue = encryptedValue;
+    }
+
     /**
      * Returns factory creating {@link DecipherableValue} instances using provided decipherer.
      *
@@ -50,11 +66,25 @@ public final class DecipherableValue implements DecryptableValue<byte[]> {
     }
 
     /**
-     * {@inheritDoc}
+     * Decrypts the value.
+     *
+     * @return the copy of decrypted value
      */
     @Override
     public byte[] decrypt() {
-        return decipherer.withParams(params).decrypt(this);
+        byte[] result = decryptedValue;
+        if (null == result) {
+            result = decipherer.decrypt(this);
+            decryptedValue = result;
+        }
+        return result.clone();
+    }
+
+    /**
+     * @return the encrypted value (not a copy of it)
+     */
+    byte[] encryptedValue() {
+        return encryptedValue;
     }
 
     /**
@@ -66,7 +96,7 @@ public final class DecipherableValue implements DecryptableValue<byte[]> {
         if (!result && (object instanceof DecipherableValue)) {
             final DecipherableValue other = (DecipherableValue) object;
             result = Objects.equals(decipherer, other.decipherer) && Objects.equals(params, other.params)
-                && Objects.equals(encryptedValue, other.encryptedValue);
+                && Arrays.equals(encryptedValue, other.encryptedValue);
         }
         return result;
     }
@@ -84,7 +114,15 @@ public final class DecipherableValue implements DecryptableValue<byte[]> {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(decipherer, params, encryptedValue);
+
+        // Hash code is computed lazily, and cached (racy initialization is safe, as all the fields used are final).
+        int result = hash;
+        if (0 == result) {
+            result = (31 * ((31 * (31 + decipherer.hashCode())) + Objects.hashCode(params)))
+                + Arrays.hashCode(encryptedValue);
+            hash = result;
+        }
+        return result;
     }
 
     /**
@@ -99,24 +137,34 @@ public final class DecipherableValue implements DecryptableValue<byte[]> {
                                   .toString();
     }
 
-    private static class Factory implements DecryptableValueFactory<byte[], DecipherableValue> {
+    static final class Factory implements DecryptableValueFactory<byte[], DecipherableValue> {
 
         private final Decipherer decipherer;
 
         private final AlgorithmParameterSpec params;
 
-        protected Factory(@Nonnull final Decipherer decipherer, @Nullable final AlgorithmParameterSpec params) {
+        Factory(@Nonnull final Decipherer decipherer, @Nullable final AlgorithmParameterSpec params) {
             super();
-            this.decipherer = decipherer;
+            this.decipherer = decipherer.withParams(params);
             this.params = params;
         }
 
+        /**
+         * Creates decipherable value enclosing given array without making a copy of it.
+         *
+         * @param representation encrypted value, which shouldn't be modified after this call
+         * @return decipherable value enclosing given array
+         */
+        DecipherableValue adopt(final byte[] representation) {
+            return new DecipherableValue(this, representation);
+        }
+
         /**
          * {@inheritDoc}
          */
         @Override
         public DecipherableValue decryptableValue(final byte[] representation) {
-            return new DecipherableValue(decipherer, params, representation);
+            return new DecipherableValue(this, representation.clone());
         }
 
     }
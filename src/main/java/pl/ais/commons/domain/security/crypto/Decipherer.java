@@ -6,15 +6,22 @@ import pl.ais.commons.domain.security.Decryptor;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.crypto.Cipher;
+import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.spec.AlgorithmParameterSpec;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
 
 /**
  * {@link Decryptor} implementation based on Java Cryptography Architecture (JCA).
  *
+ * <p>
+ * Instances created using {@link #enveloped(EnvelopeAlgorithm, Key)} method decrypt ciphertext envelopes produced
+ * by {@link Cipherer#enveloped(EnvelopeAlgorithm, Key)}, taking the initialization vector from the envelope itself.
+ * </p>
+ *
  * @author Warlock, AIS.PL
  * @see <a href="http://docs.oracle.com/javase/7/docs/technotes/guides/security/crypto/CryptoSpec.html">Java
  * Cryptography Architecture (JCA)</a>
@@ -23,10 +30,18 @@ import java.util.Optional;
 @SuppressWarnings("PMD.BeanMembersShouldSerialize")
 public final class Decipherer implements Decryptor<byte[]> {
 
+    private final EnvelopeAlgorithm envelope;
+
+    private final int hash;
+
     private final Key key;
 
     private final Optional<AlgorithmParameterSpec> params;
 
+    private final CipherPool pool;
+
+    private final CipherPool.Spec spec;
+
     private final String transformation;
 
     /**
@@ -39,7 +54,22 @@ public final class Decipherer implements Decryptor<byte[]> {
      * @param key            the encryption key
      */
     public Decipherer(@Nonnull final String transformation, @Nonnull final Key key) {
-        this(transformation, key, Optional.empty());
+        this(transformation, key, Optional.empty(), CipherPool.shared(), null);
+    }
+
+    /**
+     * Constructs new instance.
+     *
+     * @param transformation the name of the transformation.
+     *                       See the Cipher section in the <a href="http://docs.oracle.com/javase/7/docs/technotes/guides/security/StandardNames.html#Cipher">Java
+     *                       Cryptography Architecture Standard Algorithm Name Documentation</a>
+     *                       for information about standard transformation names.
+     * @param key            the encryption key
+     * @param pool           the pool of ciphers to be used
+     * @since 1.2.5
+     */
+    public Decipherer(@Nonnull final String transformation, @Nonnull final Key key, @Nonnull final CipherPool pool) {
+        this(transformation, key, Optional.empty(), pool, null);
     }
 
     /**
@@ -54,19 +84,71 @@ public final class Decipherer implements Decryptor<byte[]> {
      */
     public Decipherer(@Nonnull final String transformation, @Nonnull final Key key,
                       @Nonnull final AlgorithmParameterSpec params) {
-        this(transformation, key, Optional.of(params));
+        this(transformation, key, Optional.of(params), CipherPool.shared(), null);
+    }
+
+    /**
+     * Constructs new instance.
+     *
+     * @param transformation the name of the transformation.
+     *                       See the Cipher section in the <a href="http://docs.oracle.com/javase/7/docs/technotes/guides/security/StandardNames.html#Cipher">Java
+     *                       Cryptography Architecture Standard Algorithm Name Documentation</a>
+     *                       for information about standard transformation names.
+     * @param key            the encryption key
+     * @param params         the algorithm parameters
+     * @param pool           the pool of ciphers to be used
+     * @since 1.2.5
+     */
+    public Decipherer(@Nonnull final String transformation, @Nonnull final Key key,
+                      @Nonnull final AlgorithmParameterSpec params, @Nonnull final CipherPool pool) {
+        this(transformation, key, Optional.of(params), pool, null);
     }
 
     private Decipherer(@Nonnull final String transformation, @Nonnull final Key key,
-                       @Nonnull final Optional<AlgorithmParameterSpec> params) {
+                       @Nonnull final Optional<AlgorithmParameterSpec> params, @Nonnull final CipherPool pool,
+                       @Nullable final EnvelopeAlgorithm envelope) {
 
         Objects.requireNonNull(transformation, "Transformation is required.");
         Objects.requireNonNull(key, "Key is required.");
         Objects.requireNonNull(params, "Params are required");
+        Objects.requireNonNull(pool, "Pool is required.");
 
         this.key = key;
         this.params = params;
+        this.pool = pool;
         this.transformation = transformation;
+        this.envelope = envelope;
+        this.spec = (null == envelope) ? new CipherPool.Spec(transformation, Cipher.DECRYPT_MODE, key,
+            params.orElse(null)) : new CipherPool.Spec(transformation, key);
+        this.hash = (31 * ((31 * ((31 * (31 + transformation.hashCode())) + key.hashCode())) + params.hashCode()))
+            + Objects.hashCode(envelope);
+    }
+
+    /**
+     * Creates decipherer of ciphertext envelopes, using shared pool of ciphers.
+     *
+     * @param algorithm the algorithm
+     * @param key       the encryption key
+     * @return decipherer of ciphertext envelopes
+     * @since 1.2.5
+     */
+    public static Decipherer enveloped(@Nonnull final EnvelopeAlgorithm algorithm, @Nonnull final Key key) {
+        return enveloped(algorithm, key, CipherPool.shared());
+    }
+
+    /**
+     * Creates decipherer of ciphertext envelopes.
+     *
+     * @param algorithm the algorithm
+     * @param key       the encryption key
+     * @param pool      the pool of ciphers to be used
+     * @return decipherer of ciphertext envelopes
+     * @since 1.2.5
+     */
+    public static Decipherer enveloped(@Nonnull final EnvelopeAlgorithm algorithm, @Nonnull final Key key,
+                                       @Nonnull final CipherPool pool) {
+        Objects.requireNonNull(algorithm, "Algorithm is required.");
+        return new Decipherer(algorithm.getTransformation(), key, Optional.empty(), pool, algorithm);
     }
 
     /**
@@ -80,15 +162,16 @@ public final class Decipherer implements Decryptor<byte[]> {
         if (null == input) {
             result = null;
         } else {
-            Cipher cipher;
             try {
-                cipher = Cipher.getInstance(transformation);
-                if (params.isPresent()) {
-                    cipher.init(Cipher.DECRYPT_MODE, key, params.get());
+                final Cipher cipher = pool.acquire(spec);
+                if (null != envelope) {
+                    result = Envelopes.open(cipher, key, envelope, encryptedValue(input));
+                } else if (input instanceof BufferDecipherableValue) {
+                    result = doFinal(cipher, ((BufferDecipherableValue) input).buffer());
                 } else {
-                    cipher.init(Cipher.DECRYPT_MODE, key);
+                    result = cipher.doFinal(encryptedValue(input));
                 }
-                result = cipher.doFinal(input.getEncryptedValue());
+                pool.release(spec, cipher);
             } catch (GeneralSecurityException exception) {
                 throw new RuntimeException(exception);
             }
@@ -96,6 +179,56 @@ public final class Decipherer implements Decryptor<byte[]> {
         return result;
     }
 
+    /**
+     * Decrypts remaining bytes of given input buffer into given output buffer.
+     *
+     * <p>
+     * Input buffer's position will be equal to its limit, and output buffer's position will be advanced by the number
+     * of bytes stored, when this method completes. Both heap and direct buffers are supported, no intermediate arrays
+     * are allocated by this method itself.
+     * </p>
+     *
+     * @param input  buffer holding encrypted bytes
+     * @param output buffer into which decrypted bytes will be stored
+     * @return the number of bytes stored in the output buffer
+     * @throws UnsupportedOperationException if this decipherer decrypts ciphertext envelopes
+     * @see #getOutputSize(int)
+     * @since 1.2.5
+     */
+    @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+    public int decrypt(@Nonnull final ByteBuffer input, @Nonnull final ByteBuffer output) {
+        Objects.requireNonNull(input, "Input buffer is required.");
+        Objects.requireNonNull(output, "Output buffer is required.");
+        requireRaw();
+        try {
+            final Cipher cipher = pool.acquire(spec);
+            final int result = cipher.doFinal(input, output);
+            pool.release(spec, cipher);
+            return result;
+        } catch (final GeneralSecurityException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    private static byte[] doFinal(final Cipher cipher, final ByteBuffer encrypted) throws GeneralSecurityException {
+        final byte[] result;
+        if (encrypted.hasArray()) {
+            result = cipher.doFinal(encrypted.array(), encrypted.arrayOffset() + encrypted.position(),
+                encrypted.remaining());
+        } else {
+            final byte[] output = new byte[cipher.getOutputSize(encrypted.remaining())];
+            final int length = cipher.doFinal(encrypted.duplicate(), ByteBuffer.wrap(output));
+            result = (length == output.length) ? output : Arrays.copyOf(output, length);
+        }
+        return result;
+    }
+
+    private static byte[] encryptedValue(final DecryptableValue<byte[]> input) {
+        // Values created by this package are read directly, the others are asked for the copy.
+        return (input instanceof DecipherableValue) ? ((DecipherableValue) input).encryptedValue()
+            : input.getEncryptedValue();
+    }
+
     /**
      * @see java.lang.Object#equals(java.lang.Object)
      */
@@ -104,18 +237,76 @@ public final class Decipherer implements Decryptor<byte[]> {
         boolean result = (this == object);
         if (!result && (object instanceof Decipherer)) {
             final Decipherer other = (Decipherer) object;
-            result = Objects.equals(transformation, other.transformation) && Objects.equals(key, other.key)
-                && Objects.equals(params, other.params);
+            result = (hash == other.hash) && (envelope == other.envelope) && transformation.equals(other.transformation)
+                && key.equals(other.key) && params.equals(other.params);
         }
         return result;
     }
 
+    /**
+     * Returns the length in bytes that an output buffer would need to be in order to hold the result of decrypting
+     * given number of bytes.
+     *
+     * @param inputLength the input length (in bytes)
+     * @return the required output buffer size (in bytes)
+     * @throws UnsupportedOperationException if this decipherer decrypts ciphertext envelopes
+     * @since 1.2.5
+     */
+    @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+    public int getOutputSize(final int inputLength) {
+        requireRaw();
+        try {
+            final Cipher cipher = pool.acquire(spec);
+            final int result = cipher.getOutputSize(inputLength);
+            pool.release(spec, cipher);
+            return result;
+        } catch (final GeneralSecurityException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
     /**
      * @see java.lang.Object#hashCode()
      */
     @Override
     public int hashCode() {
-        return Objects.hash(transformation, key, params);
+        return hash;
+    }
+
+    /**
+     * @return the key
+     */
+    Key key() {
+        return key;
+    }
+
+    /**
+     * @return the pool of ciphers
+     */
+    CipherPool pool() {
+        return pool;
+    }
+
+    /**
+     * Pre-fills the pool used by this decipherer with up to given number of initialized ciphers, so the first
+     * operations do not pay for the provider lookup and the initialization.
+     *
+     * @param count the number of ciphers to be created (at most)
+     * @since 1.2.5
+     */
+    @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+    public void prefill(final int count) {
+        try {
+            pool.prefill(spec, count);
+        } catch (final GeneralSecurityException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    private void requireRaw() {
+        if (null != envelope) {
+            throw new UnsupportedOperationException("Buffer operations are not supported for ciphertext envelopes.");
+        }
     }
 
     /**
@@ -128,15 +319,27 @@ public final class Decipherer implements Decryptor<byte[]> {
                                   .toString();
     }
 
+    /**
+     * @return the name of the transformation
+     */
+    String transformation() {
+        return transformation;
+    }
+
     /**
      * Creates a copy of this decipherer with given algorithm parameters applied.
      *
+     * <p>
+     * Decipherers of ciphertext envelopes ignore the algorithm parameters, and return themselves.
+     * </p>
+     *
      * @param params the algorithm parameters to be used
      * @return newly created decipherer instance with given algorithm parameters applied
      */
     @SuppressWarnings("hiding")
     public Decipherer withParams(@Nullable final AlgorithmParameterSpec params) {
-        return new Decipherer(transformation, key, Optional.ofNullable(params));
+        return (null == envelope) ? new Decipherer(transformation, key, Optional.ofNullable(params), pool, null)
+            : this;
     }
 
 }
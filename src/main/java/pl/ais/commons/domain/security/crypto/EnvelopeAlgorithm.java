@@ -0,0 +1,138 @@
+package pl.ais.commons.domain.security.crypto;
+
+import javax.annotation.Nonnull;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+
+/**
+ * Enumerates the algorithms supported by the ciphertext envelope.
+ *
+ * <p>
+ * Each algorithm is identified within the envelope by single byte, so the identifiers should never be changed.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @see Cipherer#enveloped(EnvelopeAlgorithm, java.security.Key)
+ * @since 1.2.5
+ */
+public enum EnvelopeAlgorithm {
+
+    /**
+     * AES in CBC mode with PKCS#5 padding.
+     */
+    AES_CBC(1, "AES/CBC/PKCS5Padding", 16, false),
+
+    /**
+     * AES in CTR mode.
+     */
+    AES_CTR(2, "AES/CTR/NoPadding", 16, false),
+
+    /**
+     * AES in GCM mode, with 128-bit authentication tag.
+     */
+    AES_GCM(3, "AES/GCM/NoPadding", 12, true),
+
+    /**
+     * ChaCha20 stream cipher with Poly1305 authenticator (requires Java 11 or newer).
+     */
+    CHACHA20_POLY1305(4, "ChaCha20-Poly1305", 12, true);
+
+    private static final EnvelopeAlgorithm[] BY_ID = new EnvelopeAlgorithm[8];
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final int TAG_LENGTH = 128;
+
+    static {
+        for (final EnvelopeAlgorithm algorithm : values()) {
+            BY_ID[algorithm.id] = algorithm;
+        }
+    }
+
+    private final boolean authenticated;
+
+    private final byte id;
+
+    private final int ivLength;
+
+    private final String transformation;
+
+    EnvelopeAlgorithm(final int id, final String transformation, final int ivLength, final boolean authenticated) {
+        this.id = (byte) id;
+        this.transformation = transformation;
+        this.ivLength = ivLength;
+        this.authenticated = authenticated;
+    }
+
+    /**
+     * @param id algorithm identifier
+     * @return algorithm having given identifier
+     * @throws IllegalArgumentException if there is no algorithm with given identifier
+     */
+    @Nonnull
+    public static EnvelopeAlgorithm forId(final int id) {
+        final EnvelopeAlgorithm result = ((0 <= id) && (id < BY_ID.length)) ? BY_ID[id] : null;
+        if (null == result) {
+            throw new IllegalArgumentException(String.format("Unsupported envelope algorithm: %d.", id));
+        }
+        return result;
+    }
+
+    /**
+     * @return the algorithm identifier
+     */
+    public byte getId() {
+        return id;
+    }
+
+    /**
+     * @return the length of initialization vector (in bytes)
+     */
+    public int getIvLength() {
+        return ivLength;
+    }
+
+    /**
+     * @return the name of the transformation
+     */
+    public String getTransformation() {
+        return transformation;
+    }
+
+    /**
+     * @return {@code true} if this algorithm authenticates the ciphertext (and envelope header)
+     */
+    public boolean isAuthenticated() {
+        return authenticated;
+    }
+
+    /**
+     * @return the name of the key algorithm applicable to this algorithm
+     */
+    String keyAlgorithm() {
+        return (CHACHA20_POLY1305 == this) ? "ChaCha20" : "AES";
+    }
+
+    /**
+     * @return randomly generated initialization vector
+     */
+    byte[] newIv() {
+        final byte[] result = new byte[ivLength];
+        RANDOM.nextBytes(result);
+        return result;
+    }
+
+    /**
+     * @param source the array holding initialization vector
+     * @param offset offset of the initialization vector within the array
+     * @param length the length of initialization vector
+     * @return the algorithm parameters applicable to given initialization vector
+     */
+    AlgorithmParameterSpec parameters(final byte[] source, final int offset, final int length) {
+        return (AES_GCM == this) ? new GCMParameterSpec(TAG_LENGTH, source, offset, length)
+            : new IvParameterSpec(source, offset, length);
+    }
+
+}
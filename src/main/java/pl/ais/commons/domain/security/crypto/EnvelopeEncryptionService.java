@@ -0,0 +1,264 @@
+package pl.ais.commons.domain.security.crypto;
+
+import pl.ais.commons.domain.security.DecryptableValue;
+import pl.ais.commons.domain.security.DecryptableValueFactory;
+import pl.ais.commons.domain.security.Decryptor;
+import pl.ais.commons.domain.security.DefaultDecryptableValue;
+import pl.ais.commons.domain.security.Encryptor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Envelope encryption service: values are encrypted using the data key, which is wrapped by the master key (see
+ * {@link MasterKeyProvider}), and stored along with the value.
+ *
+ * <p>
+ * Encrypted value consists of the wrapped data key length (variable-length integer), the wrapped data key, and
+ * the ciphertext envelope (see {@link Cipherer#enveloped(EnvelopeAlgorithm, Key)}). All the values are encrypted
+ * using the same data key, until {@link #rotateDataKey()} is called, values encrypted using the previous data keys
+ * remain decryptable as long as the master key is available.
+ * </p>
+ * <p>
+ * Unwrapped data keys are cached (the number of cached keys and the time for which they are cached are bounded),
+ * so unwrapping is performed only when the value encrypted using not recently used data key is decrypted.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class EnvelopeEncryptionService implements Decryptor<byte[]>, Encryptor<byte[]> {
+
+    private static final int DEFAULT_MAX_CACHED_KEYS = 1024;
+
+    private static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(15);
+
+    private static final int KEY_SIZE = 256;
+
+    private final EnvelopeAlgorithm algorithm;
+
+    private final ConcurrentMap<ByteBuffer, DataKey> dataKeys = new ConcurrentHashMap<>();
+
+    private final DecryptableValueFactory<byte[], DefaultDecryptableValue<byte[]>> factory;
+
+    private final MasterKeyProvider masterKeyProvider;
+
+    private final int maxCachedKeys;
+
+    private final CipherPool pool;
+
+    private final long timeToLive;
+
+    private final LongAdder unwrapCount = new LongAdder();
+
+    private volatile DataKey current;
+
+    /**
+     * Constructs new instance caching up to 1024 data keys for 15 minutes, and using shared pool of ciphers.
+     *
+     * @param masterKeyProvider the master key provider
+     * @param algorithm         the algorithm used for the encryption of values
+     */
+    public EnvelopeEncryptionService(@Nonnull final MasterKeyProvider masterKeyProvider,
+                                     @Nonnull final EnvelopeAlgorithm algorithm) {
+        this(masterKeyProvider, algorithm, DEFAULT_MAX_CACHED_KEYS, DEFAULT_TIME_TO_LIVE, CipherPool.shared());
+    }
+
+    /**
+     * Constructs new instance.
+     *
+     * @param masterKeyProvider the master key provider
+     * @param algorithm         the algorithm used for the encryption of values
+     * @param maxCachedKeys     maximum number of cached data keys
+     * @param timeToLive        time for which the data keys are cached
+     * @param pool              the pool of ciphers to be used
+     */
+    public EnvelopeEncryptionService(@Nonnull final MasterKeyProvider masterKeyProvider,
+                                     @Nonnull final EnvelopeAlgorithm algorithm, final int maxCachedKeys,
+                                     @Nonnull final Duration timeToLive, @Nonnull final CipherPool pool) {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(masterKeyProvider, "Master key provider is required.");
+        Objects.requireNonNull(algorithm, "Algorithm is required.");
+        Objects.requireNonNull(timeToLive, "Time to live is required.");
+        Objects.requireNonNull(pool, "Pool is required.");
+        if (0 >= maxCachedKeys) {
+            throw new IllegalArgumentException("Maximum number of cached keys should be positive.");
+        }
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Time to live should be positive.");
+        }
+
+        // ... and initialize this instance fields.
+        this.masterKeyProvider = masterKeyProvider;
+        this.algorithm = algorithm;
+        this.maxCachedKeys = maxCachedKeys;
+        this.timeToLive = timeToLive.toNanos();
+        this.pool = pool;
+        this.factory = DefaultDecryptableValue.factory(this);
+        rotateDataKey();
+    }
+
+    private void cache(final DataKey dataKey) {
+        dataKeys.put(ByteBuffer.wrap(dataKey.wrapped), dataKey);
+
+        // Evict the entries expiring first (releasing their pooled ciphers), if the cache exceeds its bound.
+        while (dataKeys.size() > maxCachedKeys) {
+            Map.Entry<ByteBuffer, DataKey> eldest = null;
+            for (final Map.Entry<ByteBuffer, DataKey> entry : dataKeys.entrySet()) {
+                if ((null == eldest) || (0 > (entry.getValue().expiresAt - eldest.getValue().expiresAt))) {
+                    eldest = entry;
+                }
+            }
+            if ((null != eldest) && dataKeys.remove(eldest.getKey(), eldest.getValue())
+                && (current != eldest.getValue())) {
+                pool.evict(eldest.getValue().key);
+            }
+        }
+    }
+
+    private DataKey dataKey(final byte[] source, final int offset, final int length)
+        throws GeneralSecurityException {
+        DataKey result = dataKeys.get(ByteBuffer.wrap(source, offset, length));
+        final long now = System.nanoTime();
+        if ((null == result) || (0 < (now - result.expiresAt))) {
+            final byte[] wrapped = Arrays.copyOfRange(source, offset, offset + length);
+            result = new DataKey(masterKeyProvider.unwrap(wrapped, algorithm.keyAlgorithm()), wrapped,
+                now + timeToLive);
+            unwrapCount.increment();
+            cache(result);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+    public byte[] decrypt(@Nullable final DecryptableValue<byte[]> input) {
+        final byte[] result;
+        if (null == input) {
+            result = null;
+        } else {
+            final byte[] encrypted = input.getEncryptedValue();
+            final int wrappedLength = Varints.read(encrypted, 0);
+            final int wrappedOffset = Varints.size(wrappedLength);
+            if (wrappedLength > (encrypted.length - wrappedOffset)) {
+                throw new IllegalArgumentException("Encrypted value is truncated.");
+            }
+            try {
+                final DataKey dataKey = dataKey(encrypted, wrappedOffset, wrappedLength);
+                final Cipher cipher = pool.acquire(dataKey.spec);
+                result = Envelopes.open(cipher, dataKey.key, algorithm, encrypted, wrappedOffset + wrappedLength);
+                pool.release(dataKey.spec, cipher);
+            } catch (final GeneralSecurityException exception) {
+                throw new RuntimeException(exception);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+    public DecryptableValue<byte[]> encrypt(@Nullable final byte[] input) {
+        final DecryptableValue<byte[]> result;
+        if (null == input) {
+            result = null;
+        } else {
+            final DataKey dataKey = current;
+            final int wrappedOffset = Varints.size(dataKey.wrapped.length);
+            try {
+                final Cipher cipher = pool.acquire(dataKey.spec);
+                final byte[] encrypted = Envelopes.seal(cipher, dataKey.key, algorithm, Envelopes.NO_KEY_ID, input,
+                    wrappedOffset + dataKey.wrapped.length);
+                pool.release(dataKey.spec, cipher);
+                Varints.write(encrypted, 0, dataKey.wrapped.length);
+                System.arraycopy(dataKey.wrapped, 0, encrypted, wrappedOffset, dataKey.wrapped.length);
+                result = factory.decryptableValue(encrypted);
+            } catch (final GeneralSecurityException exception) {
+                throw new RuntimeException(exception);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of data keys unwrapped so far
+     */
+    public long getUnwrapCount() {
+        return unwrapCount.sum();
+    }
+
+    /**
+     * Generates new data key, which will be used for the encryption of subsequent values.
+     */
+    @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+    public void rotateDataKey() {
+        try {
+            final KeyGenerator generator = KeyGenerator.getInstance(algorithm.keyAlgorithm());
+            generator.init(KEY_SIZE);
+            final Key key = generator.generateKey();
+            final DataKey dataKey = new DataKey(key, masterKeyProvider.wrap(key), System.nanoTime() + timeToLive);
+            cache(dataKey);
+            current = dataKey;
+        } catch (final GeneralSecurityException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Envelope encryption service using ")
+                                  .append(algorithm)
+                                  .append(" and ")
+                                  .append(masterKeyProvider)
+                                  .toString();
+    }
+
+    /**
+     * Unwrapped data key, along with its wrapped form.
+     */
+    private final class DataKey {
+
+        private final long expiresAt;
+
+        private final Key key;
+
+        private final CipherPool.Spec spec;
+
+        private final byte[] wrapped;
+
+        DataKey(final Key key, final byte[] wrapped, final long expiresAt) {
+            super();
+            this.key = key;
+            this.wrapped = wrapped;
+            this.expiresAt = expiresAt;
+            this.spec = new CipherPool.Spec(algorithm.getTransformation(), key);
+        }
+
+    }
+
+}
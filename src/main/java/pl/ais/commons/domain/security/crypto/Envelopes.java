@@ -0,0 +1,177 @@
+package pl.ais.commons.domain.security.crypto;
+
+import javax.crypto.Cipher;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.Arrays;
+
+/**
+ * Defines the format of compact, self-describing ciphertext envelope.
+ *
+ * <p>
+ * The envelope consists of format version (1 byte), algorithm identifier (1 byte, with the highest bit set when
+ * the key identifier is present), optional key identifier (variable-length integer), initialization vector length
+ * (variable-length integer), initialization vector, and the ciphertext. For the authenticated algorithms, everything
+ * preceding the ciphertext is authenticated as additional data.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+final class Envelopes {
+
+    /**
+     * Key identifier value denoting the absence of the key identifier.
+     */
+    static final int NO_KEY_ID = -1;
+
+    /**
+     * Version of the format.
+     */
+    static final byte VERSION = 1;
+
+    private static final int ALGORITHM_MASK = 0x7F;
+
+    private static final int KEY_ID_FLAG = 0x80;
+
+    private Envelopes() {
+        super();
+    }
+
+    /**
+     * @param envelope the envelope
+     * @return the algorithm used for the envelope
+     * @throws IllegalArgumentException if given array is not supported envelope
+     */
+    static EnvelopeAlgorithm algorithm(final byte[] envelope) {
+        return algorithm(envelope, 0);
+    }
+
+    private static EnvelopeAlgorithm algorithm(final byte[] envelope, final int offset) {
+        if (((offset + 2) > envelope.length) || (VERSION != envelope[offset])) {
+            throw new IllegalArgumentException("Unsupported ciphertext envelope.");
+        }
+        return EnvelopeAlgorithm.forId(envelope[offset + 1] & ALGORITHM_MASK);
+    }
+
+    /**
+     * @param envelope the envelope
+     * @return the key identifier, or {@link #NO_KEY_ID} if the envelope doesn't hold the key identifier
+     * @throws IllegalArgumentException if given array is not supported envelope
+     */
+    static int keyId(final byte[] envelope) {
+        return keyId(envelope, 0);
+    }
+
+    private static int keyId(final byte[] envelope, final int offset) {
+        algorithm(envelope, offset);
+        return (0 == (envelope[offset + 1] & KEY_ID_FLAG)) ? NO_KEY_ID : Varints.read(envelope, offset + 2);
+    }
+
+    /**
+     * Decrypts the envelope using given cipher.
+     *
+     * @param cipher    the cipher
+     * @param key       the key
+     * @param algorithm expected algorithm
+     * @param envelope  the envelope
+     * @return decrypted value
+     * @throws GeneralSecurityException if the envelope cannot be decrypted
+     * @throws IllegalArgumentException if given array is not supported envelope, or uses unexpected algorithm
+     */
+    static byte[] open(final Cipher cipher, final Key key, final EnvelopeAlgorithm algorithm, final byte[] envelope)
+        throws GeneralSecurityException {
+        return open(cipher, key, algorithm, envelope, 0);
+    }
+
+    /**
+     * Decrypts the envelope starting at given offset of the array using given cipher.
+     *
+     * @param cipher    the cipher
+     * @param key       the key
+     * @param algorithm expected algorithm
+     * @param envelope  the array holding the envelope
+     * @param offset    offset of the envelope within the array
+     * @return decrypted value
+     * @throws GeneralSecurityException if the envelope cannot be decrypted
+     * @throws IllegalArgumentException if given array doesn't hold supported envelope, or uses unexpected algorithm
+     *                                  or initialization vector length
+     */
+    static byte[] open(final Cipher cipher, final Key key, final EnvelopeAlgorithm algorithm, final byte[] envelope,
+                       final int offset) throws GeneralSecurityException {
+        if (algorithm != algorithm(envelope, offset)) {
+            throw new IllegalArgumentException(String.format("Envelope algorithm differs from %s.", algorithm));
+        }
+        final int keyId = keyId(envelope, offset);
+        final int ivLengthOffset = offset + ((NO_KEY_ID == keyId) ? 2 : (2 + Varints.size(keyId)));
+        final int ivLength = Varints.read(envelope, ivLengthOffset);
+        if (algorithm.getIvLength() != ivLength) {
+            throw new IllegalArgumentException(String.format("Initialization vector length should be %d.",
+                algorithm.getIvLength()));
+        }
+        final int ivOffset = ivLengthOffset + Varints.size(ivLength);
+        if (ivLength > (envelope.length - ivOffset)) {
+            throw new IllegalArgumentException("Ciphertext envelope is truncated.");
+        }
+        final int ciphertextOffset = ivOffset + ivLength;
+        cipher.init(Cipher.DECRYPT_MODE, key, algorithm.parameters(envelope, ivOffset, ivLength));
+        if (algorithm.isAuthenticated()) {
+            cipher.updateAAD(envelope, offset, ciphertextOffset - offset);
+        }
+        return cipher.doFinal(envelope, ciphertextOffset, envelope.length - ciphertextOffset);
+    }
+
+    /**
+     * Encrypts given value into the envelope, using freshly generated initialization vector.
+     *
+     * @param cipher    the cipher
+     * @param key       the key
+     * @param algorithm the algorithm
+     * @param keyId     the key identifier, or {@link #NO_KEY_ID}
+     * @param input     value to be encrypted
+     * @return the envelope
+     * @throws GeneralSecurityException if the value cannot be encrypted
+     */
+    static byte[] seal(final Cipher cipher, final Key key, final EnvelopeAlgorithm algorithm, final int keyId,
+                       final byte[] input) throws GeneralSecurityException {
+        return seal(cipher, key, algorithm, keyId, input, 0);
+    }
+
+    /**
+     * Encrypts given value into the envelope, using freshly generated initialization vector, leaving given number of
+     * leading bytes of the result for the caller.
+     *
+     * @param cipher    the cipher
+     * @param key       the key
+     * @param algorithm the algorithm
+     * @param keyId     the key identifier, or {@link #NO_KEY_ID}
+     * @param input     value to be encrypted
+     * @param offset    the number of leading bytes reserved for the caller
+     * @return the array holding the envelope at given offset
+     * @throws GeneralSecurityException if the value cannot be encrypted
+     */
+    static byte[] seal(final Cipher cipher, final Key key, final EnvelopeAlgorithm algorithm, final int keyId,
+                       final byte[] input, final int offset) throws GeneralSecurityException {
+        final byte[] iv = algorithm.newIv();
+        cipher.init(Cipher.ENCRYPT_MODE, key, algorithm.parameters(iv, 0, iv.length));
+
+        // Write the header, ...
+        final int headerLength = 2 + ((NO_KEY_ID == keyId) ? 0 : Varints.size(keyId)) + Varints.size(iv.length)
+            + iv.length;
+        final byte[] result = new byte[offset + headerLength + cipher.getOutputSize(input.length)];
+        result[offset] = VERSION;
+        result[offset + 1] = (byte) ((NO_KEY_ID == keyId) ? algorithm.getId() : (algorithm.getId() | KEY_ID_FLAG));
+        int position = (NO_KEY_ID == keyId) ? (offset + 2) : Varints.write(result, offset + 2, keyId);
+        position = Varints.write(result, position, iv.length);
+        System.arraycopy(iv, 0, result, position, iv.length);
+
+        // ... and the ciphertext.
+        if (algorithm.isAuthenticated()) {
+            cipher.updateAAD(result, offset, headerLength);
+        }
+        final int length = offset + headerLength
+            + cipher.doFinal(input, 0, input.length, result, offset + headerLength);
+        return (length == result.length) ? result : Arrays.copyOf(result, length);
+    }
+
+}
@@ -0,0 +1,197 @@
+package pl.ais.commons.domain.security.crypto;
+
+import javax.annotation.Nonnull;
+import javax.crypto.Cipher;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Encrypts files in parallel, using the configuration (transformation, key and pool of ciphers) of predefined
+ * {@link Cipherer}.
+ *
+ * <p>
+ * The file is encrypted into the same segmented format as produced by {@link StreamCipherer}, so it may be decrypted
+ * either by {@link FileDecipherer} or {@link StreamDecipherer}. Because the segments are independent, and their
+ * positions within both source and target file are known upfront, the regions of the files are memory-mapped and
+ * encrypted by the worker threads of predefined {@link ForkJoinPool} in parallel, directly from the source mapping
+ * into the target mapping.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class FileCipherer {
+
+    private final Cipherer cipherer;
+
+    private final ForkJoinPool pool;
+
+    private final int segmentSize;
+
+    private final CipherPool.Spec spec;
+
+    /**
+     * Constructs new instance using default segment size (64 KiB) and common fork-join pool.
+     *
+     * @param cipherer cipherer providing the configuration
+     */
+    public FileCipherer(@Nonnull final Cipherer cipherer) {
+        this(cipherer, Segments.DEFAULT_SEGMENT_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs new instance.
+     *
+     * @param cipherer    cipherer providing the configuration
+     * @param segmentSize the segment size (in bytes)
+     * @param pool        fork-join pool used for parallel encryption
+     */
+    public FileCipherer(@Nonnull final Cipherer cipherer, final int segmentSize, @Nonnull final ForkJoinPool pool) {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(cipherer, "Cipherer is required.");
+        Objects.requireNonNull(pool, "Pool is required.");
+        Segments.requireAead(cipherer.transformation());
+
+        // ... and initialize this instance fields.
+        this.cipherer = cipherer;
+        this.segmentSize = Segments.requireSegmentSize(segmentSize);
+        this.pool = pool;
+        this.spec = new CipherPool.Spec(cipherer.transformation(), cipherer.key());
+    }
+
+    /**
+     * Encrypts given source file into given target file.
+     *
+     * <p>
+     * Target file is created if needed, and overwritten otherwise. Its content should be discarded, if this method
+     * fails.
+     * </p>
+     *
+     * @param source the source file
+     * @param target the target file
+     * @return the size of target file (in bytes)
+     * @throws IOException if an I/O error occurs
+     */
+    public long encrypt(@Nonnull final Path source, @Nonnull final Path target) throws IOException {
+        Objects.requireNonNull(source, "Source file is required.");
+        Objects.requireNonNull(target, "Target file is required.");
+
+        try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel output = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                 StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            // Write the header and pre-size the target file, ...
+            final long plaintextLength = input.size();
+            final long result = Segments.ciphertextLength(plaintextLength, segmentSize);
+            final byte[] nonce = Segments.newNonce();
+            final byte[] header = new byte[Segments.HEADER_LENGTH];
+            Segments.header(header, segmentSize, nonce);
+            MappedFiles.presize(output, result);
+            MappedFiles.writeFully(output, ByteBuffer.wrap(header), 0);
+
+            // ... and encrypt the regions of source file in parallel.
+            final long segmentCount = Segments.segmentCount(plaintextLength, segmentSize);
+            final int segmentsPerRegion = MappedFiles.segmentsPerRegion(segmentSize);
+            final List<Callable<Void>> tasks = new ArrayList<>();
+            for (long first = 0; first < segmentCount; first += segmentsPerRegion) {
+                tasks.add(new RegionEncryption(input, output, nonce, plaintextLength, first,
+                    Math.min(segmentCount, first + segmentsPerRegion)));
+            }
+            MappedFiles.invokeAll(pool, tasks);
+            return result;
+        }
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("File cipherer using segments of ")
+                                  .append(segmentSize)
+                                  .append(" bytes and ")
+                                  .append(cipherer)
+                                  .toString();
+    }
+
+    /**
+     * Encrypts the range of segments.
+     */
+    private final class RegionEncryption implements Callable<Void> {
+
+        private final long first;
+
+        private final FileChannel input;
+
+        private final long last;
+
+        private final byte[] nonce;
+
+        private final FileChannel output;
+
+        private final long plaintextLength;
+
+        RegionEncryption(final FileChannel input, final FileChannel output, final byte[] nonce,
+                         final long plaintextLength, final long first, final long last) {
+            super();
+            this.input = input;
+            this.output = output;
+            this.nonce = nonce;
+            this.plaintextLength = plaintextLength;
+            this.first = first;
+            this.last = last;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void call() throws IOException, GeneralSecurityException {
+            final long segmentCount = Segments.segmentCount(plaintextLength, segmentSize);
+            final int frameLength = Segments.PREFIX_LENGTH + segmentSize + Segments.TAG_LENGTH;
+            final long plaintextOffset = first * segmentSize;
+            final long ciphertextOffset = Segments.HEADER_LENGTH + (first * frameLength);
+            final long plaintextEnd = Math.min(plaintextLength, last * segmentSize);
+            final MappedByteBuffer plaintext = input.map(FileChannel.MapMode.READ_ONLY, plaintextOffset,
+                plaintextEnd - plaintextOffset);
+            final MappedByteBuffer ciphertext = output.map(FileChannel.MapMode.READ_WRITE, ciphertextOffset,
+                (plaintextEnd - plaintextOffset) + ((last - first) * (Segments.PREFIX_LENGTH + Segments.TAG_LENGTH)));
+
+            final byte[] aad = new byte[Segments.AAD_LENGTH];
+            final byte[] scratch = new byte[Segments.NONCE_LENGTH];
+            final Cipher cipher = cipherer.pool().acquire(spec);
+            for (long index = first; index < last; index++) {
+                final boolean closing = (segmentCount - 1) == index;
+                final int position = (int) ((index - first) * segmentSize);
+                plaintext.limit(position + (closing ? (int) (plaintextLength % segmentSize) : segmentSize))
+                         .position(position);
+                final int prefix = (int) ((index - first) * frameLength);
+                ciphertext.limit(ciphertext.capacity()).position(prefix + Segments.PREFIX_LENGTH);
+
+                cipher.init(Cipher.ENCRYPT_MODE, cipherer.key(),
+                    Segments.parameters(cipherer.transformation(), nonce, index, scratch));
+                Segments.aad(aad, index, closing);
+                cipher.updateAAD(aad);
+                final int length = cipher.doFinal(plaintext, ciphertext);
+                ciphertext.putInt(prefix, closing ? (length | Segments.FINAL_FLAG) : length);
+            }
+            cipherer.pool().release(spec, cipher);
+            return null;
+        }
+
+    }
+
+}
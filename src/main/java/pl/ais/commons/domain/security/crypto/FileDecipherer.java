@@ -0,0 +1,214 @@
+package pl.ais.commons.domain.security.crypto;
+
+import javax.annotation.Nonnull;
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Decrypts files encrypted by {@link FileCipherer} or {@link StreamCipherer} in parallel, using the configuration
+ * (transformation, key and pool of ciphers) of predefined {@link Decipherer}.
+ *
+ * <p>
+ * The regions of both source and target file are memory-mapped, and decrypted by the worker threads of predefined
+ * {@link ForkJoinPool} in parallel, directly from the source mapping into the target mapping.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class FileDecipherer {
+
+    private final Decipherer decipherer;
+
+    private final ForkJoinPool pool;
+
+    private final CipherPool.Spec spec;
+
+    /**
+     * Constructs new instance using common fork-join pool.
+     *
+     * @param decipherer decipherer providing the configuration
+     */
+    public FileDecipherer(@Nonnull final Decipherer decipherer) {
+        this(decipherer, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs new instance.
+     *
+     * @param decipherer decipherer providing the configuration
+     * @param pool       fork-join pool used for parallel decryption
+     */
+    public FileDecipherer(@Nonnull final Decipherer decipherer, @Nonnull final ForkJoinPool pool) {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(decipherer, "Decipherer is required.");
+        Objects.requireNonNull(pool, "Pool is required.");
+        Segments.requireAead(decipherer.transformation());
+
+        // ... and initialize this instance fields.
+        this.decipherer = decipherer;
+        this.pool = pool;
+        this.spec = new CipherPool.Spec(decipherer.transformation(), decipherer.key());
+    }
+
+    /**
+     * Decrypts given source file into given target file.
+     *
+     * <p>
+     * Target file is created if needed, and overwritten otherwise. Its content should be discarded, if this method
+     * fails.
+     * </p>
+     *
+     * @param source the source file
+     * @param target the target file
+     * @return the size of target file (in bytes)
+     * @throws IOException if an I/O error occurs, or the source file is not valid encrypted file
+     */
+    public long decrypt(@Nonnull final Path source, @Nonnull final Path target) throws IOException {
+        Objects.requireNonNull(source, "Source file is required.");
+        Objects.requireNonNull(target, "Target file is required.");
+
+        try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel output = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                 StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            // Read and verify the header, ...
+            final ByteBuffer header = ByteBuffer.allocate(Segments.HEADER_LENGTH);
+            MappedFiles.readFully(input, header, 0);
+            if (Segments.VERSION != header.get(0)) {
+                throw new IOException(String.format("Unsupported encrypted file version: %d.", header.get(0)));
+            }
+            final int segmentSize = header.getInt(1);
+            if ((0 >= segmentSize) || (Segments.MAX_SEGMENT_SIZE < segmentSize)) {
+                throw new IOException(String.format("Invalid encrypted file segment size: %d.", segmentSize));
+            }
+            final byte[] nonce = new byte[Segments.NONCE_LENGTH];
+            System.arraycopy(header.array(), 5, nonce, 0, Segments.NONCE_LENGTH);
+
+            // ... determine the segments layout, ...
+            final long frameLength = Segments.PREFIX_LENGTH + segmentSize + Segments.TAG_LENGTH;
+            final long payloadLength = input.size() - Segments.HEADER_LENGTH;
+            final long segmentCount = (payloadLength / frameLength) + 1;
+            final long remainder = (payloadLength % frameLength) - Segments.PREFIX_LENGTH - Segments.TAG_LENGTH;
+            if (0 > remainder) {
+                throw new IOException("Encrypted file is truncated.");
+            }
+            final long result = ((segmentCount - 1) * segmentSize) + remainder;
+            MappedFiles.presize(output, result);
+
+            // ... and decrypt the regions of source file in parallel.
+            final int segmentsPerRegion = MappedFiles.segmentsPerRegion(segmentSize);
+            final List<Callable<Void>> tasks = new ArrayList<>();
+            for (long first = 0; first < segmentCount; first += segmentsPerRegion) {
+                tasks.add(new RegionDecryption(input, output, nonce, segmentSize, result, first,
+                    Math.min(segmentCount, first + segmentsPerRegion)));
+            }
+            MappedFiles.invokeAll(pool, tasks);
+            return result;
+        }
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("File decipherer using ")
+                                  .append(decipherer)
+                                  .toString();
+    }
+
+    /**
+     * Decrypts the range of segments.
+     */
+    private final class RegionDecryption implements Callable<Void> {
+
+        private final long first;
+
+        private final FileChannel input;
+
+        private final long last;
+
+        private final byte[] nonce;
+
+        private final FileChannel output;
+
+        private final long plaintextLength;
+
+        private final int segmentSize;
+
+        RegionDecryption(final FileChannel input, final FileChannel output, final byte[] nonce, final int segmentSize,
+                         final long plaintextLength, final long first, final long last) {
+            super();
+            this.input = input;
+            this.output = output;
+            this.nonce = nonce;
+            this.segmentSize = segmentSize;
+            this.plaintextLength = plaintextLength;
+            this.first = first;
+            this.last = last;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void call() throws IOException, GeneralSecurityException {
+            final long segmentCount = Segments.segmentCount(plaintextLength, segmentSize);
+            final int frameLength = Segments.PREFIX_LENGTH + segmentSize + Segments.TAG_LENGTH;
+            final long plaintextOffset = first * segmentSize;
+            final long ciphertextOffset = Segments.HEADER_LENGTH + (first * frameLength);
+            final long plaintextEnd = Math.min(plaintextLength, last * segmentSize);
+            final MappedByteBuffer ciphertext = input.map(FileChannel.MapMode.READ_ONLY, ciphertextOffset,
+                (plaintextEnd - plaintextOffset) + ((last - first) * (Segments.PREFIX_LENGTH + Segments.TAG_LENGTH)));
+            final MappedByteBuffer plaintext = output.map(FileChannel.MapMode.READ_WRITE, plaintextOffset,
+                plaintextEnd - plaintextOffset);
+
+            final byte[] aad = new byte[Segments.AAD_LENGTH];
+            final byte[] scratch = new byte[Segments.NONCE_LENGTH];
+            final Cipher cipher = decipherer.pool().acquire(spec);
+            for (long index = first; index < last; index++) {
+                final boolean closing = (segmentCount - 1) == index;
+                final int expected = (closing ? (int) (plaintextLength % segmentSize) : segmentSize)
+                    + Segments.TAG_LENGTH;
+                final int prefix = (int) ((index - first) * frameLength);
+                ciphertext.limit(ciphertext.capacity());
+                if (ciphertext.getInt(prefix) != (closing ? (expected | Segments.FINAL_FLAG) : expected)) {
+                    throw new IOException(String.format("Invalid prefix of segment %d.", index));
+                }
+                ciphertext.limit(prefix + Segments.PREFIX_LENGTH + expected).position(prefix + Segments.PREFIX_LENGTH);
+                plaintext.limit(plaintext.capacity()).position((int) ((index - first) * segmentSize));
+
+                cipher.init(Cipher.DECRYPT_MODE, decipherer.key(),
+                    Segments.parameters(decipherer.transformation(), nonce, index, scratch));
+                Segments.aad(aad, index, closing);
+                cipher.updateAAD(aad);
+                try {
+                    cipher.doFinal(ciphertext, plaintext);
+                } catch (final AEADBadTagException exception) {
+                    throw new IOException(String.format("Segment %d of encrypted file failed authentication.",
+                        index), exception);
+                }
+            }
+            decipherer.pool().release(spec, cipher);
+            return null;
+        }
+
+    }
+
+}
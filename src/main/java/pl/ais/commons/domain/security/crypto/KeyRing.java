@@ -0,0 +1,274 @@
+package pl.ais.commons.domain.security.crypto;
+
+import pl.ais.commons.domain.security.DecryptableValue;
+import pl.ais.commons.domain.security.Decryptor;
+import pl.ais.commons.domain.security.Encryptor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.security.Key;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Set of keys identified by non-negative integers, one of which is the current key.
+ *
+ * <p>
+ * Values are encrypted into ciphertext envelopes (see {@link Cipherer#enveloped(EnvelopeAlgorithm, Key, int)}) using
+ * the current key, and tagged with its identifier, so the key ring can decrypt them as long as the key used for
+ * the encryption remains in the ring - even if the current key has been changed in the meantime. Decipherer
+ * applicable to given value is looked up by the key identifier in constant time.
+ * </p>
+ * <p>
+ * Key ring is thread-safe, modifications are visible to subsequent operations, but do not affect the operations
+ * in progress.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @see ReEncryptionJob
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class KeyRing implements Decryptor<byte[]>, Encryptor<byte[]> {
+
+    private final EnvelopeAlgorithm algorithm;
+
+    private final CipherPool pool;
+
+    private volatile State state;
+
+    /**
+     * Constructs new instance using shared pool of ciphers.
+     *
+     * @param algorithm    the algorithm
+     * @param currentKeyId identifier of the current key
+     * @param currentKey   the current key
+     */
+    public KeyRing(@Nonnull final EnvelopeAlgorithm algorithm, final int currentKeyId, @Nonnull final Key currentKey) {
+        this(algorithm, currentKeyId, currentKey, CipherPool.shared());
+    }
+
+    /**
+     * Constructs new instance.
+     *
+     * @param algorithm    the algorithm
+     * @param currentKeyId identifier of the current key
+     * @param currentKey   the current key
+     * @param pool         the pool of ciphers to be used
+     */
+    public KeyRing(@Nonnull final EnvelopeAlgorithm algorithm, final int currentKeyId, @Nonnull final Key currentKey,
+                   @Nonnull final CipherPool pool) {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(algorithm, "Algorithm is required.");
+        Objects.requireNonNull(currentKey, "Current key is required.");
+        Objects.requireNonNull(pool, "Pool is required.");
+
+        // ... and initialize this instance fields.
+        this.algorithm = algorithm;
+        this.pool = pool;
+        this.state = new State(Collections.<Integer, Decipherer>emptyMap(), null, currentKeyId)
+            .with(currentKeyId, currentKey, algorithm, pool)
+            .current(currentKeyId, algorithm, pool);
+    }
+
+    /**
+     * Adds given key to this ring (replacing the key having the same identifier, if any, and evicting the ciphers
+     * using it from the pool).
+     *
+     * @param keyId the key identifier (non-negative)
+     * @param key   the key
+     * @return this key ring
+     */
+    public synchronized KeyRing add(final int keyId, @Nonnull final Key key) {
+        Objects.requireNonNull(key, "Key is required.");
+        final Decipherer previous = state.decipherers.get(keyId);
+        state = state.with(keyId, key, algorithm, pool);
+        if (keyId == state.currentKeyId) {
+            state = state.current(keyId, algorithm, pool);
+        }
+        if ((null != previous) && !key.equals(previous.key())) {
+            pool.evict(previous.key());
+        }
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if the value is not ciphertext envelope, or was encrypted using the key not
+     *                                  present in this ring
+     */
+    @Nullable
+    @Override
+    public byte[] decrypt(@Nullable final DecryptableValue<byte[]> value) {
+        final byte[] result;
+        if (null == value) {
+            result = null;
+        } else {
+            final int keyId = keyId(value);
+            final Decipherer decipherer = state.decipherers.get(keyId);
+            if (null == decipherer) {
+                throw new IllegalArgumentException(String.format("There is no key %d in the key ring.", keyId));
+            }
+            result = decipherer.decrypt(value);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public DecipherableValue encrypt(@Nullable final byte[] value) {
+        return state.cipherer.encrypt(value);
+    }
+
+    private static byte[] encryptedValue(final DecryptableValue<byte[]> value) {
+        return (value instanceof DecipherableValue) ? ((DecipherableValue) value).encryptedValue()
+            : value.getEncryptedValue();
+    }
+
+    /**
+     * @return identifier of the current key
+     */
+    public int getCurrentKeyId() {
+        return state.currentKeyId;
+    }
+
+    /**
+     * @param keyId the key identifier
+     * @return {@code true} if this ring holds the key having given identifier, {@code false} otherwise
+     */
+    public boolean hasKey(final int keyId) {
+        return state.decipherers.containsKey(keyId);
+    }
+
+    /**
+     * @param value the encrypted value
+     * @return {@code true} if given value was encrypted using the current key, {@code false} otherwise
+     */
+    public boolean isCurrent(@Nonnull final DecryptableValue<byte[]> value) {
+        return state.currentKeyId == keyId(value);
+    }
+
+    /**
+     * @param value the encrypted value
+     * @return {@code true} if given value is ciphertext envelope tagged with the key identifier, {@code false} if it
+     * is untagged envelope or was not encrypted into an envelope at all (legacy value, for example)
+     */
+    public boolean isTagged(@Nonnull final DecryptableValue<byte[]> value) {
+        Objects.requireNonNull(value, "Value is required.");
+        final byte[] encrypted = encryptedValue(value);
+        try {
+            return (null != encrypted) && (Envelopes.NO_KEY_ID != Envelopes.keyId(encrypted));
+        } catch (final IllegalArgumentException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * @param value the encrypted value
+     * @return identifier of the key used for the encryption of given value
+     * @throws IllegalArgumentException if the value is not ciphertext envelope tagged with the key identifier
+     */
+    public int keyId(@Nonnull final DecryptableValue<byte[]> value) {
+        Objects.requireNonNull(value, "Value is required.");
+        final int result = Envelopes.keyId(encryptedValue(value));
+        if (Envelopes.NO_KEY_ID == result) {
+            throw new IllegalArgumentException("Value is not tagged with the key identifier.");
+        }
+        return result;
+    }
+
+    /**
+     * Removes the key having given identifier from this ring, values encrypted using it will not be decryptable
+     * anymore.
+     *
+     * @param keyId the key identifier
+     * @return this key ring
+     * @throws IllegalStateException if given key is the current one
+     */
+    public synchronized KeyRing remove(final int keyId) {
+        if (keyId == state.currentKeyId) {
+            throw new IllegalStateException("Current key cannot be removed.");
+        }
+        final Map<Integer, Decipherer> decipherers = new HashMap<>(state.decipherers);
+        final Decipherer removed = decipherers.remove(keyId);
+        if (null != removed) {
+            state = new State(decipherers, state.cipherer, state.currentKeyId);
+            pool.evict(removed.key());
+        }
+        return this;
+    }
+
+    /**
+     * Makes the key having given identifier the current one.
+     *
+     * @param keyId the key identifier
+     * @return this key ring
+     * @throws IllegalArgumentException if there is no key having given identifier in this ring
+     */
+    public synchronized KeyRing rotate(final int keyId) {
+        if (!hasKey(keyId)) {
+            throw new IllegalArgumentException(String.format("There is no key %d in the key ring.", keyId));
+        }
+        state = state.current(keyId, algorithm, pool);
+        return this;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        final State current = state;
+        return new StringBuilder().append("Key ring using ")
+                                  .append(algorithm)
+                                  .append(", holding keys ")
+                                  .append(current.decipherers.keySet())
+                                  .append(" (current: ")
+                                  .append(current.currentKeyId)
+                                  .append(')')
+                                  .toString();
+    }
+
+    /**
+     * Immutable state of the key ring.
+     */
+    private static final class State {
+
+        private final Cipherer cipherer;
+
+        private final int currentKeyId;
+
+        private final Map<Integer, Decipherer> decipherers;
+
+        State(final Map<Integer, Decipherer> decipherers, final Cipherer cipherer, final int currentKeyId) {
+            super();
+            this.decipherers = decipherers;
+            this.cipherer = cipherer;
+            this.currentKeyId = currentKeyId;
+        }
+
+        State current(final int keyId, final EnvelopeAlgorithm algorithm, final CipherPool pool) {
+            return new State(decipherers, Cipherer.enveloped(algorithm, decipherers.get(keyId).key(), keyId, pool),
+                keyId);
+        }
+
+        State with(final int keyId, final Key key, final EnvelopeAlgorithm algorithm, final CipherPool pool) {
+            if (0 > keyId) {
+                throw new IllegalArgumentException("Key identifier cannot be negative.");
+            }
+            final Map<Integer, Decipherer> result = new HashMap<>(decipherers);
+            result.put(keyId, Decipherer.enveloped(algorithm, key, pool));
+            return new State(result, cipherer, currentKeyId);
+        }
+
+    }
+
+}
@@ -0,0 +1,113 @@
+package pl.ais.commons.domain.security.crypto;
+
+import javax.annotation.Nonnull;
+import javax.crypto.Cipher;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.UnrecoverableKeyException;
+import java.util.Objects;
+
+/**
+ * {@link MasterKeyProvider} implementation using AES master key held by the {@link KeyStore} (for example, PKCS#12
+ * or JCEKS one), wrapping the data keys using AES Key Wrap algorithm (RFC 3394).
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class KeyStoreMasterKeyProvider implements MasterKeyProvider {
+
+    private static final String WRAP_TRANSFORMATION = "AESWrap";
+
+    private final String alias;
+
+    private final Key masterKey;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param keyStore the key store holding the master key
+     * @param alias    the alias of master key
+     * @param password the password protecting the master key
+     * @throws GeneralSecurityException if the master key cannot be recovered from the key store
+     */
+    public KeyStoreMasterKeyProvider(@Nonnull final KeyStore keyStore, @Nonnull final String alias,
+                                     @Nonnull final char[] password) throws GeneralSecurityException {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(keyStore, "Key store is required.");
+        Objects.requireNonNull(alias, "Alias is required.");
+        Objects.requireNonNull(password, "Password is required.");
+
+        // ... and initialize this instance fields.
+        this.alias = alias;
+        this.masterKey = keyStore.getKey(alias, password);
+        if (null == masterKey) {
+            throw new UnrecoverableKeyException(String.format("There is no master key aliased '%s'.", alias));
+        }
+    }
+
+    /**
+     * Creates provider using master key held by the key store file.
+     *
+     * @param path          the path to key store file
+     * @param type          the type of key store (for example, {@code PKCS12})
+     * @param storePassword the password protecting the key store
+     * @param alias         the alias of master key
+     * @param keyPassword   the password protecting the master key
+     * @return provider using master key held by the key store file
+     * @throws IOException              if the key store file cannot be read
+     * @throws GeneralSecurityException if the master key cannot be recovered from the key store
+     */
+    public static KeyStoreMasterKeyProvider load(@Nonnull final Path path, @Nonnull final String type,
+                                                 @Nonnull final char[] storePassword, @Nonnull final String alias,
+                                                 @Nonnull final char[] keyPassword)
+        throws IOException, GeneralSecurityException {
+        Objects.requireNonNull(path, "Path is required.");
+        final KeyStore keyStore = KeyStore.getInstance(type);
+        try (InputStream input = Files.newInputStream(path)) {
+            keyStore.load(input, storePassword);
+        }
+        return new KeyStoreMasterKeyProvider(keyStore, alias, keyPassword);
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Key store master key provider using key aliased ")
+                                  .append(alias)
+                                  .toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Key unwrap(@Nonnull final byte[] wrappedKey, @Nonnull final String algorithm)
+        throws GeneralSecurityException {
+        final Cipher cipher = Cipher.getInstance(WRAP_TRANSFORMATION);
+        cipher.init(Cipher.UNWRAP_MODE, masterKey);
+        return cipher.unwrap(wrappedKey, algorithm, Cipher.SECRET_KEY);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public byte[] wrap(@Nonnull final Key dataKey) throws GeneralSecurityException {
+        final Cipher cipher = Cipher.getInstance(WRAP_TRANSFORMATION);
+        cipher.init(Cipher.WRAP_MODE, masterKey);
+        return cipher.wrap(dataKey);
+    }
+
+}
@@ -0,0 +1,125 @@
+package pl.ais.commons.domain.security.crypto;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Provides set of utility methods supporting parallel processing of memory-mapped files.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+final class MappedFiles {
+
+    /**
+     * Preferred size (in bytes) of the region processed by single task.
+     */
+    private static final int REGION_SIZE = 8 * 1024 * 1024;
+
+    private MappedFiles() {
+        super();
+    }
+
+    /**
+     * Executes given tasks using given pool, and waits for their completion.
+     *
+     * @param pool  the pool
+     * @param tasks tasks to be executed
+     * @throws IOException if any of the tasks failed with I/O error, or the current thread has been interrupted
+     */
+    @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+    static void invokeAll(final ForkJoinPool pool, final List<Callable<Void>> tasks) throws IOException {
+        try {
+            for (final Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw (IOException) new InterruptedIOException("Interrupted while processing the file.")
+                .initCause(exception);
+        } catch (final ExecutionException exception) {
+            // Fork-join pool may wrap the exceptions thrown by the tasks, so look for I/O error in the whole chain, ...
+            for (Throwable cause = exception.getCause(); null != cause; cause = cause.getCause()) {
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+            }
+
+            // ... and rethrow the unchecked exceptions as they are.
+            final Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Extends given file to given size, so the regions of it may be mapped concurrently.
+     *
+     * @param channel the file channel
+     * @param size    the size (in bytes)
+     * @throws IOException if an I/O error occurs
+     */
+    static void presize(final FileChannel channel, final long size) throws IOException {
+        if (0 < size) {
+            writeFully(channel, ByteBuffer.allocate(1), size - 1);
+        }
+    }
+
+    /**
+     * Reads bytes from given file at given position, until the buffer is full.
+     *
+     * @param channel  the file channel
+     * @param buffer   the buffer
+     * @param position the position within the file
+     * @throws IOException if an I/O error occurs, or the end of file is reached
+     */
+    static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+        throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            final int count = channel.read(buffer, current);
+            if (0 > count) {
+                throw new EOFException("Encrypted file is truncated.");
+            }
+            current += count;
+        }
+    }
+
+    /**
+     * @param segmentSize the segment size (in bytes)
+     * @return the number of segments processed by single task
+     */
+    static int segmentsPerRegion(final int segmentSize) {
+        return Math.max(1, REGION_SIZE / segmentSize);
+    }
+
+    /**
+     * Writes all remaining bytes of the buffer into given file at given position.
+     *
+     * @param channel  the file channel
+     * @param buffer   the buffer
+     * @param position the position within the file
+     * @throws IOException if an I/O error occurs
+     */
+    static void writeFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+        throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            current += channel.write(buffer, current);
+        }
+    }
+
+}
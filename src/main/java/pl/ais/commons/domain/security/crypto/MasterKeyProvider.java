@@ -0,0 +1,42 @@
+package pl.ais.commons.domain.security.crypto;
+
+import javax.annotation.Nonnull;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+
+/**
+ * Defines the API contract for the provider of master key, wrapping and unwrapping the data keys.
+ *
+ * <p>
+ * The master key itself doesn't need to leave the provider, so the implementations may delegate the work to the
+ * hardware security module or key management service.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @see EnvelopeEncryptionService
+ * @since 1.2.5
+ */
+public interface MasterKeyProvider {
+
+    /**
+     * Unwraps given data key.
+     *
+     * @param wrappedKey the wrapped data key
+     * @param algorithm  the algorithm of data key
+     * @return the data key
+     * @throws GeneralSecurityException if the data key cannot be unwrapped
+     */
+    @Nonnull
+    Key unwrap(@Nonnull byte[] wrappedKey, @Nonnull String algorithm) throws GeneralSecurityException;
+
+    /**
+     * Wraps given data key.
+     *
+     * @param dataKey the data key
+     * @return the wrapped data key
+     * @throws GeneralSecurityException if the data key cannot be wrapped
+     */
+    @Nonnull
+    byte[] wrap(@Nonnull Key dataKey) throws GeneralSecurityException;
+
+}
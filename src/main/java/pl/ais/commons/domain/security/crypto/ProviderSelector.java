@@ -0,0 +1,337 @@
+package pl.ais.commons.domain.security.crypto;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.Security;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Selects the fastest of installed JCE providers supporting given {@link EnvelopeAlgorithm}, and pins it for all
+ * the ciphers created by {@link CipherPool}s afterwards.
+ *
+ * <p>
+ * Each provider supporting the transformation is verified by the known-answer test first, and the providers passing
+ * it are measured by short encryption microbenchmark, so the selection should be performed once, at the application
+ * startup:
+ * </p>
+ * <pre>
+ * final ProviderSelector selector = new ProviderSelector();
+ * selector.pin(EnvelopeAlgorithm.AES_GCM);
+ * ...
+ * ProviderSelector.getPinnedSelections(); // diagnostics
+ * </pre>
+ * <p>
+ * Unless the provider is pinned, ciphers are created by the first provider supporting the transformation.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class ProviderSelector {
+
+    private static final Map<EnvelopeAlgorithm, String> KNOWN_ANSWERS = new EnumMap<>(EnvelopeAlgorithm.class);
+
+    private static final ConcurrentMap<String, Selection> PINNED = new ConcurrentHashMap<>();
+
+    private static final byte[] PLAINTEXT = "The quick brown fox jumps over the lazy dog"
+        .getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        KNOWN_ANSWERS.put(EnvelopeAlgorithm.AES_CBC, "66c79eeb9465863ede43c216978135de45de5a6a4c003c3a2acf0dc47b07b0da"
+            + "59766c539cdf0ae0ff6c02eddeb1b61a");
+        KNOWN_ANSWERS.put(EnvelopeAlgorithm.AES_CTR, "0a70b4de8768611dab835ca55bd0ffaf7cadc7fcfd8014e122c1d7c5509e0aaf"
+            + "cc2147271bb7ccde6d6da8");
+        KNOWN_ANSWERS.put(EnvelopeAlgorithm.AES_GCM, "feee5d9b0ffc5a69e158d7722965de4035815b28e96250df56301eed27ffafdc"
+            + "f2c6655d6e90954d1bb18580e0fa1766fc3601807a29d19a69f1f2");
+        KNOWN_ANSWERS.put(EnvelopeAlgorithm.CHACHA20_POLY1305, "58c31d7f3c93abcecb2f9166938d93dbfb31ab9f291f0dd3"
+            + "c7f8b4c71410e37804e536e6cfb386aaa2a392abce7e3e15f4cd31353304b0e6d23425");
+    }
+
+    private final long measurementTime;
+
+    private final int payloadSize;
+
+    /**
+     * Constructs new instance, measuring each provider for 100 milliseconds, using 16 kB payload.
+     */
+    public ProviderSelector() {
+        this(Duration.ofMillis(100).toNanos(), 16 * 1024);
+    }
+
+    private ProviderSelector(final long measurementTime, final int payloadSize) {
+        super();
+        this.measurementTime = measurementTime;
+        this.payloadSize = payloadSize;
+    }
+
+    /**
+     * @return selections pinned so far, keyed by the transformation
+     */
+    @Nonnull
+    public static Map<String, Selection> getPinnedSelections() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(PINNED));
+    }
+
+    private static byte[] hex(final String value) {
+        final byte[] result = new byte[value.length() / 2];
+        for (int index = 0; index < result.length; index++) {
+            result[index] = (byte) Integer.parseInt(value.substring(2 * index, (2 * index) + 2), 16);
+        }
+        return result;
+    }
+
+    private static Cipher initialize(final Cipher cipher, final EnvelopeAlgorithm algorithm, final Key key,
+                                     final byte[] iv) throws GeneralSecurityException {
+        cipher.init(Cipher.ENCRYPT_MODE, key, algorithm.parameters(iv, 0, iv.length));
+        return cipher;
+    }
+
+    private static byte[] sequence(final int length, final int first) {
+        final byte[] result = new byte[length];
+        for (int index = 0; index < length; index++) {
+            result[index] = (byte) (first + index);
+        }
+        return result;
+    }
+
+    /**
+     * @param transformation the name of the transformation
+     * @return the provider pinned for given transformation, or {@code null} if there is no such provider
+     */
+    @Nullable
+    static Provider pinnedProvider(final String transformation) {
+        final Selection selection = PINNED.get(transformation);
+        return (null == selection) ? null : selection.provider;
+    }
+
+    /**
+     * Unpins the provider selected for given algorithm.
+     *
+     * @param algorithm the algorithm
+     */
+    public static void unpin(@Nonnull final EnvelopeAlgorithm algorithm) {
+        Objects.requireNonNull(algorithm, "Algorithm is required.");
+        PINNED.remove(algorithm.getTransformation());
+    }
+
+    private double measure(final Provider provider, final EnvelopeAlgorithm algorithm, final Key key)
+        throws GeneralSecurityException {
+        final Cipher cipher = Cipher.getInstance(algorithm.getTransformation(), provider);
+        final byte[] iv = sequence(algorithm.getIvLength(), 0);
+        final byte[] input = new byte[payloadSize];
+        final byte[] output = new byte[initialize(cipher, algorithm, key, iv).getOutputSize(payloadSize)];
+        long processed = 0;
+        long elapsed = 0;
+        final long start = System.nanoTime();
+        long now = start;
+        int counter = 0;
+        while ((now - start) < (2 * measurementTime)) {
+
+            // Use distinct initialization vector for each encryption, as nonce-based ciphers refuse to reuse them.
+            iv[0] = (byte) counter;
+            iv[1] = (byte) (counter >>> 8);
+            iv[2] = (byte) (counter >>> 16);
+            counter++;
+            initialize(cipher, algorithm, key, iv).doFinal(input, 0, payloadSize, output, 0);
+            final long previous = now;
+            now = System.nanoTime();
+
+            // ... first half of the time is the warm-up, second one is measured.
+            if ((now - start) > measurementTime) {
+                processed += payloadSize;
+                elapsed += now - previous;
+            }
+        }
+        return (0 == elapsed) ? 0 : ((processed * 1000.0) / elapsed);
+    }
+
+    /**
+     * Selects the fastest provider passing the known-answer test for given algorithm, and pins it.
+     *
+     * <p>
+     * Idle ciphers of the {@link CipherPool#shared() shared pool} are removed, so the ciphers created by pinned
+     * provider are used since now.
+     * </p>
+     *
+     * @param algorithm the algorithm
+     * @return the selection
+     * @throws NoSuchAlgorithmException if no provider passes the known-answer test for given algorithm
+     */
+    @Nonnull
+    public Selection pin(@Nonnull final EnvelopeAlgorithm algorithm) throws NoSuchAlgorithmException {
+        final Selection result = select(algorithm);
+        PINNED.put(algorithm.getTransformation(), result);
+        CipherPool.shared()
+                  .clear();
+        return result;
+    }
+
+    /**
+     * Selects the fastest provider passing the known-answer test for given algorithm, without pinning it.
+     *
+     * @param algorithm the algorithm
+     * @return the selection
+     * @throws NoSuchAlgorithmException if no provider passes the known-answer test for given algorithm
+     */
+    @Nonnull
+    public Selection select(@Nonnull final EnvelopeAlgorithm algorithm) throws NoSuchAlgorithmException {
+        Objects.requireNonNull(algorithm, "Algorithm is required.");
+        final Key key = new SecretKeySpec(sequence((EnvelopeAlgorithm.CHACHA20_POLY1305 == algorithm) ? 32 : 16, 0),
+            algorithm.keyAlgorithm());
+        final byte[] expected = hex(KNOWN_ANSWERS.get(algorithm));
+        final Map<String, Double> throughput = new LinkedHashMap<>();
+        final Map<String, String> rejected = new LinkedHashMap<>();
+        Provider fastest = null;
+        double best = -1;
+        for (final Provider provider : Security.getProviders()) {
+            final Cipher cipher;
+            try {
+                cipher = Cipher.getInstance(algorithm.getTransformation(), provider);
+            } catch (final GeneralSecurityException exception) {
+
+                // Provider doesn't support the transformation at all, so it isn't reported.
+                continue;
+            }
+            try {
+                final byte[] actual = initialize(cipher, algorithm, key, sequence(algorithm.getIvLength(), 0xA0))
+                    .doFinal(PLAINTEXT);
+                if (Arrays.equals(expected, actual)) {
+                    final double current = measure(provider, algorithm, key);
+                    throughput.put(provider.getName(), current);
+                    if (current > best) {
+                        best = current;
+                        fastest = provider;
+                    }
+                } else {
+                    rejected.put(provider.getName(), "Known-answer test failed.");
+                }
+            } catch (final GeneralSecurityException | RuntimeException exception) {
+                rejected.put(provider.getName(), String.valueOf(exception));
+            }
+        }
+        if (null == fastest) {
+            throw new NoSuchAlgorithmException("No provider passes the known-answer test for "
+                + algorithm.getTransformation() + ", rejected: " + rejected);
+        }
+        return new Selection(algorithm.getTransformation(), fastest, throughput, rejected);
+    }
+
+    /**
+     * Creates selector configured like this one, but measuring each provider for given time.
+     *
+     * @param measurementTime measurement time (preceded by the warm-up of the same length)
+     * @return newly created selector using given measurement time
+     */
+    @SuppressWarnings("hiding")
+    public ProviderSelector withMeasurementTime(@Nonnull final Duration measurementTime) {
+        Objects.requireNonNull(measurementTime, "Measurement time is required.");
+        if (measurementTime.isNegative() || measurementTime.isZero()) {
+            throw new IllegalArgumentException("Measurement time should be positive.");
+        }
+        return new ProviderSelector(measurementTime.toNanos(), payloadSize);
+    }
+
+    /**
+     * Creates selector configured like this one, but measuring the encryption of payload of given size.
+     *
+     * @param payloadSize payload size (in bytes)
+     * @return newly created selector using given payload size
+     */
+    @SuppressWarnings("hiding")
+    public ProviderSelector withPayloadSize(final int payloadSize) {
+        if (0 >= payloadSize) {
+            throw new IllegalArgumentException("Payload size should be positive.");
+        }
+        return new ProviderSelector(measurementTime, payloadSize);
+    }
+
+    /**
+     * Result of the provider selection, along with the measured numbers.
+     */
+    public static final class Selection {
+
+        private final Provider provider;
+
+        private final Map<String, String> rejected;
+
+        private final Map<String, Double> throughput;
+
+        private final String transformation;
+
+        Selection(final String transformation, final Provider provider, final Map<String, Double> throughput,
+                  final Map<String, String> rejected) {
+            super();
+            this.transformation = transformation;
+            this.provider = provider;
+            this.throughput = Collections.unmodifiableMap(throughput);
+            this.rejected = Collections.unmodifiableMap(rejected);
+        }
+
+        /**
+         * @return the selected provider
+         */
+        @Nonnull
+        public Provider getProvider() {
+            return provider;
+        }
+
+        /**
+         * @return providers supporting the transformation, but rejected because of given reasons, keyed by the name
+         */
+        @Nonnull
+        public Map<String, String> getRejected() {
+            return rejected;
+        }
+
+        /**
+         * @return measured encryption throughput (in MB/s) of the providers passing the known-answer test, keyed by
+         * the name
+         */
+        @Nonnull
+        public Map<String, Double> getThroughput() {
+            return throughput;
+        }
+
+        /**
+         * @return the name of the transformation
+         */
+        @Nonnull
+        public String getTransformation() {
+            return transformation;
+        }
+
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return new StringBuilder().append("Provider ")
+                                      .append(provider.getName())
+                                      .append(" selected for ")
+                                      .append(transformation)
+                                      .append(", throughput (MB/s): ")
+                                      .append(throughput)
+                                      .append(", rejected: ")
+                                      .append(rejected)
+                                      .toString();
+        }
+
+    }
+
+}
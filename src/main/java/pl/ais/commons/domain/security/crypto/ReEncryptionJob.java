@@ -0,0 +1,313 @@
+package pl.ais.commons.domain.security.crypto;
+
+import pl.ais.commons.domain.security.BatchExecution;
+import pl.ais.commons.domain.security.DecryptableValue;
+import pl.ais.commons.domain.security.Decryptor;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Re-encrypts stored values encrypted using other than current key of the {@link KeyRing}.
+ *
+ * <p>
+ * The job walks the source of (identifier, encrypted value) pairs in batches. Values of each batch are re-encrypted
+ * in parallel (according to predefined {@link BatchExecution}), those which changed are handed to the writer as
+ * single list, and the identifier of the last value of the batch is passed to the checkpoint afterwards. So, if the
+ * source is ordered by the identifier, interrupted job can be resumed from the last checkpoint (batch written but not
+ * checkpointed will be re-encrypted again, which is harmless). Optional rate limit throttles the job, so it doesn't
+ * starve regular traffic.
+ * </p>
+ *
+ * <p>
+ * Values not tagged with the key identifier (encrypted before the key ring was introduced, for example) are
+ * decrypted using the legacy decryptor, if there is one, and skipped otherwise. Values tagged with the identifier
+ * of the key no longer present in the key ring, and the ones decrypted into {@code null} by the legacy decryptor, are
+ * skipped too, so they don't stop the job (and its resumption); the number of skipped values is reported by
+ * {@link #getSkippedCount()}.
+ * </p>
+ *
+ * <pre>
+ * new ReEncryptionJob&lt;Long&gt;(keyRing, repository::updateAll)
+ *     .withBatchSize(500)
+ *     .withRateLimit(10_000)
+ *     .withCheckpoint(checkpoints::save)
+ *     .run(repository.streamFrom(checkpoints.last()));
+ * </pre>
+ *
+ * @param <K> defines the type of value identifier
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class ReEncryptionJob<K> {
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final int batchSize;
+
+    private final Consumer<? super K> checkpoint;
+
+    private final LongAdder examinedCount = new LongAdder();
+
+    private final BatchExecution execution;
+
+    private final KeyRing keyRing;
+
+    private final Decryptor<byte[]> legacyDecryptor;
+
+    private final double rateLimit;
+
+    private final LongAdder reEncryptedCount = new LongAdder();
+
+    private final LongAdder skippedCount = new LongAdder();
+
+    private final Consumer<? super List<Map.Entry<K, DecryptableValue<byte[]>>>> writer;
+
+    private volatile boolean stopped;
+
+    /**
+     * Constructs new instance processing batches of 1000 values using common fork-join pool, without rate limit
+     * and checkpoints.
+     *
+     * @param keyRing the key ring
+     * @param writer  the writer storing batch of re-encrypted values
+     */
+    public ReEncryptionJob(@Nonnull final KeyRing keyRing,
+                           @Nonnull final Consumer<? super List<Map.Entry<K, DecryptableValue<byte[]>>>> writer) {
+        this(keyRing, writer, DEFAULT_BATCH_SIZE, BatchExecution.commonPool(), 0, key -> {
+        }, null);
+    }
+
+    private ReEncryptionJob(final KeyRing keyRing,
+                            final Consumer<? super List<Map.Entry<K, DecryptableValue<byte[]>>>> writer,
+                            final int batchSize, final BatchExecution execution, final double rateLimit,
+                            final Consumer<? super K> checkpoint, final Decryptor<byte[]> legacyDecryptor) {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(keyRing, "Key ring is required.");
+        Objects.requireNonNull(writer, "Writer is required.");
+
+        // ... and initialize this instance fields.
+        this.keyRing = keyRing;
+        this.writer = writer;
+        this.batchSize = batchSize;
+        this.execution = execution;
+        this.rateLimit = rateLimit;
+        this.checkpoint = checkpoint;
+        this.legacyDecryptor = legacyDecryptor;
+    }
+
+    private byte[] decrypt(final DecryptableValue<byte[]> value) {
+        final byte[] result;
+        if (keyRing.isTagged(value)) {
+            result = keyRing.hasKey(keyRing.keyId(value)) ? keyRing.decrypt(value) : null;
+        } else {
+            result = (null == legacyDecryptor) ? null : legacyDecryptor.decrypt(value);
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of values examined by this job
+     */
+    public long getExaminedCount() {
+        return examinedCount.sum();
+    }
+
+    /**
+     * @return the number of values re-encrypted by this job
+     */
+    public long getReEncryptedCount() {
+        return reEncryptedCount.sum();
+    }
+
+    /**
+     * @return the number of values skipped by this job, because they were not tagged with the key identifier (and
+     * there is no legacy decryptor, or it decrypted them into {@code null}), or were tagged with the identifier of the
+     * key not present in the key ring
+     */
+    public long getSkippedCount() {
+        return skippedCount.sum();
+    }
+
+    private Map.Entry<K, DecryptableValue<byte[]>> reEncrypt(
+        final Map.Entry<? extends K, ? extends DecryptableValue<byte[]>> entry) {
+        final DecryptableValue<byte[]> value = entry.getValue();
+        Map.Entry<K, DecryptableValue<byte[]>> result = null;
+        if ((null != value) && !(keyRing.isTagged(value) && keyRing.isCurrent(value))) {
+            final byte[] decrypted = decrypt(value);
+            if (null == decrypted) {
+                skippedCount.increment();
+            } else {
+                result = new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), keyRing.encrypt(decrypted));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Re-encrypts the values provided by given iterator, until it is exhausted or the job is stopped.
+     *
+     * <p>
+     * Stopped job doesn't process any batch, even if it has been stopped before the run started; use a copy of the
+     * job to resume the processing.
+     * </p>
+     *
+     * @param source the source of (identifier, encrypted value) pairs
+     * @return the number of values re-encrypted by this run
+     * @throws InterruptedException if the current thread has been interrupted while throttled
+     */
+    public long run(
+        @Nonnull final Iterator<? extends Map.Entry<? extends K, ? extends DecryptableValue<byte[]>>> source)
+        throws InterruptedException {
+        Objects.requireNonNull(source, "Source is required.");
+        final long start = System.nanoTime();
+        long examined = 0;
+        long result = 0;
+        while (!stopped && source.hasNext()) {
+
+            // Read the batch, ...
+            final List<Map.Entry<? extends K, ? extends DecryptableValue<byte[]>>> batch = new ArrayList<>(batchSize);
+            while ((batch.size() < batchSize) && source.hasNext()) {
+                batch.add(source.next());
+            }
+
+            // ... re-encrypt the values in parallel, ...
+            final List<Map.Entry<K, DecryptableValue<byte[]>>> changed = new ArrayList<>();
+            for (final Map.Entry<K, DecryptableValue<byte[]>> entry : execution.map(batch, this::reEncrypt)) {
+                if (null != entry) {
+                    changed.add(entry);
+                }
+            }
+
+            // ... store the changed ones, and record the progress, ...
+            if (!changed.isEmpty()) {
+                writer.accept(changed);
+            }
+            checkpoint.accept(batch.get(batch.size() - 1).getKey());
+            examined += batch.size();
+            result += changed.size();
+            examinedCount.add(batch.size());
+            reEncryptedCount.add(changed.size());
+
+            // ... and throttle, if needed.
+            if (0 < rateLimit) {
+                final long pause = (long) ((examined / rateLimit) * TimeUnit.SECONDS.toNanos(1))
+                    - (System.nanoTime() - start);
+                if (0 < pause) {
+                    TimeUnit.NANOSECONDS.sleep(pause);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Re-encrypts the values provided by given stream, until it is exhausted or the job is stopped.
+     *
+     * @param source the source of (identifier, encrypted value) pairs
+     * @return the number of values re-encrypted by this run
+     * @throws InterruptedException if the current thread has been interrupted while throttled
+     */
+    public long run(@Nonnull final Stream<? extends Map.Entry<? extends K, ? extends DecryptableValue<byte[]>>> source)
+        throws InterruptedException {
+        Objects.requireNonNull(source, "Source is required.");
+        return run(source.iterator());
+    }
+
+    /**
+     * Stops the job after the batch being processed, the job remains stopped for any subsequent run.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Re-encryption job using ")
+                                  .append(keyRing)
+                                  .toString();
+    }
+
+    /**
+     * Creates a copy of this job, processing the batches of given size.
+     *
+     * @param batchSize the batch size
+     * @return newly created job processing the batches of given size
+     */
+    @SuppressWarnings("hiding")
+    public ReEncryptionJob<K> withBatchSize(final int batchSize) {
+        if (0 >= batchSize) {
+            throw new IllegalArgumentException("Batch size should be positive.");
+        }
+        return new ReEncryptionJob<>(keyRing, writer, batchSize, execution, rateLimit, checkpoint,
+            legacyDecryptor);
+    }
+
+    /**
+     * Creates a copy of this job, passing the identifier of last value of each processed batch to given checkpoint.
+     *
+     * @param checkpoint the checkpoint
+     * @return newly created job using given checkpoint
+     */
+    @SuppressWarnings("hiding")
+    public ReEncryptionJob<K> withCheckpoint(@Nonnull final Consumer<? super K> checkpoint) {
+        Objects.requireNonNull(checkpoint, "Checkpoint is required.");
+        return new ReEncryptionJob<>(keyRing, writer, batchSize, execution, rateLimit, checkpoint,
+            legacyDecryptor);
+    }
+
+    /**
+     * Creates a copy of this job, re-encrypting the values of each batch according to given batch execution.
+     *
+     * @param execution the batch execution
+     * @return newly created job using given batch execution
+     */
+    @SuppressWarnings("hiding")
+    public ReEncryptionJob<K> withExecution(@Nonnull final BatchExecution execution) {
+        Objects.requireNonNull(execution, "Execution is required.");
+        return new ReEncryptionJob<>(keyRing, writer, batchSize, execution, rateLimit, checkpoint,
+            legacyDecryptor);
+    }
+
+    /**
+     * Creates a copy of this job, decrypting the values not tagged with the key identifier using given decryptor.
+     *
+     * @param legacyDecryptor the decryptor of values not tagged with the key identifier
+     * @return newly created job using given legacy decryptor
+     */
+    @SuppressWarnings("hiding")
+    public ReEncryptionJob<K> withLegacyDecryptor(@Nonnull final Decryptor<byte[]> legacyDecryptor) {
+        Objects.requireNonNull(legacyDecryptor, "Legacy decryptor is required.");
+        return new ReEncryptionJob<>(keyRing, writer, batchSize, execution, rateLimit, checkpoint, legacyDecryptor);
+    }
+
+    /**
+     * Creates a copy of this job, examining given number of values per second at most.
+     *
+     * @param valuesPerSecond the maximum number of values examined per second
+     * @return newly created job using given rate limit
+     */
+    public ReEncryptionJob<K> withRateLimit(final double valuesPerSecond) {
+        if (0 >= valuesPerSecond) {
+            throw new IllegalArgumentException("Rate limit should be positive.");
+        }
+        return new ReEncryptionJob<>(keyRing, writer, batchSize, execution, valuesPerSecond, checkpoint,
+            legacyDecryptor);
+    }
+
+}
@@ -0,0 +1,222 @@
+package pl.ais.commons.domain.security.crypto;
+
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectableChannel;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Locale;
+
+/**
+ * Defines the format of segmented ciphertext, shared by streaming and file encryption.
+ *
+ * <p>
+ * Segmented ciphertext starts with the header consisting of format version (1 byte), segment size (4 bytes) and base
+ * nonce (12 bytes). The header is followed by the sequence of segments, each of them being plaintext chunk encrypted
+ * independently using AEAD transformation, and prefixed with 4 bytes holding the ciphertext length and the flag
+ * marking the final segment. All the segments but the final one hold exactly segment size bytes of plaintext, final
+ * segment holds the remaining bytes, and may be empty.
+ * </p>
+ * <p>
+ * Each segment is encrypted using its own nonce, derived from the base nonce and segment index, while the segment
+ * index and final segment flag are authenticated as additional data, so any truncation, reordering or splicing of
+ * the segments is detected on decryption.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+final class Segments {
+
+    /**
+     * Length (in bytes) of additional authenticated data of each segment.
+     */
+    static final int AAD_LENGTH = 9;
+
+    /**
+     * Default segment size (in bytes).
+     */
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+
+    /**
+     * Flag marking the final segment.
+     */
+    static final int FINAL_FLAG = 0x80000000;
+
+    /**
+     * Length (in bytes) of the segment prefix.
+     */
+    static final int PREFIX_LENGTH = 4;
+
+    /**
+     * Length (in bytes) of the base nonce.
+     */
+    static final int NONCE_LENGTH = 12;
+
+    /**
+     * Length (in bytes) of the header.
+     */
+    static final int HEADER_LENGTH = 1 + 4 + NONCE_LENGTH;
+
+    /**
+     * Maximum segment size (in bytes).
+     */
+    static final int MAX_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Length (in bytes) of authentication tag appended to each segment.
+     */
+    static final int TAG_LENGTH = 16;
+
+    /**
+     * Version of the format.
+     */
+    static final byte VERSION = 1;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private Segments() {
+        super();
+    }
+
+    /**
+     * Fills given array with additional authenticated data of the segment.
+     *
+     * @param aad   array to be filled
+     * @param index segment index
+     * @param last  {@code true} if the segment is the final one
+     */
+    static void aad(final byte[] aad, final long index, final boolean last) {
+        for (int position = 0; position < 8; position++) {
+            aad[position] = (byte) (index >>> (56 - (8 * position)));
+        }
+        aad[8] = (byte) (last ? 1 : 0);
+    }
+
+    /**
+     * @param plaintextLength the length of plaintext (in bytes)
+     * @param segmentSize     the segment size (in bytes)
+     * @return the length of segmented ciphertext (in bytes)
+     */
+    static long ciphertextLength(final long plaintextLength, final int segmentSize) {
+        return HEADER_LENGTH + (segmentCount(plaintextLength, segmentSize) * (PREFIX_LENGTH + TAG_LENGTH))
+            + plaintextLength;
+    }
+
+    /**
+     * Writes the header into given array.
+     *
+     * @param header      array to be filled, at least {@link #HEADER_LENGTH} bytes long
+     * @param segmentSize the segment size (in bytes)
+     * @param nonce       the base nonce
+     */
+    static void header(final byte[] header, final int segmentSize, final byte[] nonce) {
+        header[0] = VERSION;
+        writeInt(header, 1, segmentSize);
+        System.arraycopy(nonce, 0, header, 5, NONCE_LENGTH);
+    }
+
+    /**
+     * @return randomly generated base nonce
+     */
+    static byte[] newNonce() {
+        final byte[] result = new byte[NONCE_LENGTH];
+        RANDOM.nextBytes(result);
+        return result;
+    }
+
+    /**
+     * Creates the algorithm parameters for the segment.
+     *
+     * @param transformation the name of the transformation
+     * @param nonce          the base nonce
+     * @param index          segment index
+     * @param scratch        array used for nonce derivation, {@link #NONCE_LENGTH} bytes long
+     * @return algorithm parameters applicable to the segment
+     */
+    static AlgorithmParameterSpec parameters(final String transformation, final byte[] nonce, final long index,
+                                             final byte[] scratch) {
+        System.arraycopy(nonce, 0, scratch, 0, NONCE_LENGTH);
+        for (int position = 0; position < 8; position++) {
+            scratch[NONCE_LENGTH - 1 - position] ^= (byte) (index >>> (8 * position));
+        }
+        return transformation.toUpperCase(Locale.ROOT).contains("/GCM/")
+            ? new GCMParameterSpec(TAG_LENGTH * 8, scratch) : new IvParameterSpec(scratch);
+    }
+
+    /**
+     * @param array  the array
+     * @param offset offset of the integer within the array
+     * @return integer read from the array (big-endian)
+     */
+    static int readInt(final byte[] array, final int offset) {
+        return ((array[offset] & 0xFF) << 24) | ((array[offset + 1] & 0xFF) << 16)
+            | ((array[offset + 2] & 0xFF) << 8) | (array[offset + 3] & 0xFF);
+    }
+
+    /**
+     * Verifies if given transformation is applicable to segmented ciphertext.
+     *
+     * @param transformation the name of the transformation
+     * @throws IllegalArgumentException if given transformation is not applicable
+     */
+    static void requireAead(final String transformation) {
+        final String normalized = transformation.toUpperCase(Locale.ROOT);
+        if (!(normalized.startsWith("AES/GCM/") || "CHACHA20-POLY1305".equals(normalized))) {
+            throw new IllegalArgumentException(String.format(
+                "Transformation '%s' is not supported, use AES/GCM/NoPadding or ChaCha20-Poly1305.", transformation));
+        }
+    }
+
+    /**
+     * Verifies if given channel is blocking, so reading and writing it doesn't spin when no bytes are available.
+     *
+     * @param channel the channel
+     * @throws IllegalArgumentException if given channel is selectable channel in non-blocking mode
+     */
+    static void requireBlocking(final Channel channel) {
+        if ((channel instanceof SelectableChannel) && !((SelectableChannel) channel).isBlocking()) {
+            throw new IllegalArgumentException("Non-blocking channels are not supported.");
+        }
+    }
+
+    /**
+     * Verifies if given segment size is valid.
+     *
+     * @param segmentSize the segment size (in bytes)
+     * @return given segment size
+     * @throws IllegalArgumentException if given segment size is not valid
+     */
+    static int requireSegmentSize(final int segmentSize) {
+        if ((0 >= segmentSize) || (MAX_SEGMENT_SIZE < segmentSize)) {
+            throw new IllegalArgumentException(String.format("Segment size should be between 1 and %d bytes.",
+                MAX_SEGMENT_SIZE));
+        }
+        return segmentSize;
+    }
+
+    /**
+     * @param plaintextLength the length of plaintext (in bytes)
+     * @param segmentSize     the segment size (in bytes)
+     * @return the number of segments
+     */
+    static long segmentCount(final long plaintextLength, final int segmentSize) {
+        return (plaintextLength / segmentSize) + 1;
+    }
+
+    /**
+     * Writes given integer into the array (big-endian).
+     *
+     * @param array  the array
+     * @param offset offset of the integer within the array
+     * @param value  the integer
+     */
+    static void writeInt(final byte[] array, final int offset, final int value) {
+        array[offset] = (byte) (value >>> 24);
+        array[offset + 1] = (byte) (value >>> 16);
+        array[offset + 2] = (byte) (value >>> 8);
+        array[offset + 3] = (byte) value;
+    }
+
+}
@@ -0,0 +1,242 @@
+package pl.ais.commons.domain.security.crypto;
+
+import javax.annotation.Nonnull;
+import javax.crypto.Cipher;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.GeneralSecurityException;
+import java.util.Objects;
+
+/**
+ * Encrypts streams of arbitrary length, using the configuration (transformation, key and pool of ciphers)
+ * of predefined {@link Cipherer}.
+ *
+ * <p>
+ * The plaintext is split into segments, encrypted and authenticated independently (see {@link StreamDecipherer}
+ * for the reverse operation), so the memory used doesn't depend on the payload size. Only AEAD transformations
+ * ({@code AES/GCM/NoPadding}, {@code ChaCha20-Poly1305}) are supported.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class StreamCipherer {
+
+    private final Cipherer cipherer;
+
+    private final int segmentSize;
+
+    private final CipherPool.Spec spec;
+
+    /**
+     * Constructs new instance using default segment size (64 KiB).
+     *
+     * @param cipherer cipherer providing the configuration
+     */
+    public StreamCipherer(@Nonnull final Cipherer cipherer) {
+        this(cipherer, Segments.DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Constructs new instance.
+     *
+     * @param cipherer    cipherer providing the configuration
+     * @param segmentSize the segment size (in bytes)
+     */
+    public StreamCipherer(@Nonnull final Cipherer cipherer, final int segmentSize) {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(cipherer, "Cipherer is required.");
+        Segments.requireAead(cipherer.transformation());
+
+        // ... and initialize this instance fields.
+        this.cipherer = cipherer;
+        this.segmentSize = Segments.requireSegmentSize(segmentSize);
+        this.spec = new CipherPool.Spec(cipherer.transformation(), cipherer.key());
+    }
+
+    private static int fill(final ReadableByteChannel input, final ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        int count = 0;
+        while (buffer.hasRemaining() && (0 <= count)) {
+            count = input.read(buffer);
+        }
+        return buffer.position();
+    }
+
+    private static int fill(final InputStream input, final byte[] buffer) throws IOException {
+        int length = 0;
+        int count = 0;
+        while ((length < buffer.length) && (0 <= count)) {
+            count = input.read(buffer, length, buffer.length - length);
+            length += Math.max(count, 0);
+        }
+        return length;
+    }
+
+    private static void flush(final WritableByteChannel output, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+    }
+
+    /**
+     * Encrypts the content of given input stream, and writes the result into given output stream.
+     *
+     * <p>Neither of the streams is closed by this method.</p>
+     *
+     * @param input  the input stream
+     * @param output the output stream
+     * @return the number of bytes written into the output stream
+     * @throws IOException if an I/O error occurs
+     */
+    public long encrypt(@Nonnull final InputStream input, @Nonnull final OutputStream output) throws IOException {
+        Objects.requireNonNull(input, "Input stream is required.");
+        Objects.requireNonNull(output, "Output stream is required.");
+
+        final byte[] plaintext = new byte[segmentSize];
+        final byte[] ciphertext = new byte[Segments.PREFIX_LENGTH + segmentSize + Segments.TAG_LENGTH];
+        try (Segmenter segmenter = new Segmenter()) {
+            segmenter.header(ciphertext);
+            output.write(ciphertext, 0, Segments.HEADER_LENGTH);
+            long result = Segments.HEADER_LENGTH;
+            boolean last = false;
+            while (!last) {
+                final int length = fill(input, plaintext);
+                last = (length < segmentSize);
+                final int encrypted = segmenter.encrypt(plaintext, length, last, ciphertext);
+                output.write(ciphertext, 0, encrypted);
+                result += encrypted;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Encrypts the content of given input channel, and writes the result into given output channel.
+     *
+     * <p>Neither of the channels is closed by this method, both of them should be blocking.</p>
+     *
+     * @param input  the input channel
+     * @param output the output channel
+     * @return the number of bytes written into the output channel
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if any of the channels is selectable channel in non-blocking mode
+     */
+    public long encrypt(@Nonnull final ReadableByteChannel input, @Nonnull final WritableByteChannel output)
+        throws IOException {
+        Objects.requireNonNull(input, "Input channel is required.");
+        Objects.requireNonNull(output, "Output channel is required.");
+        Segments.requireBlocking(input);
+        Segments.requireBlocking(output);
+
+        final byte[] plaintext = new byte[segmentSize];
+        final byte[] ciphertext = new byte[Segments.PREFIX_LENGTH + segmentSize + Segments.TAG_LENGTH];
+        final ByteBuffer plaintextBuffer = ByteBuffer.wrap(plaintext);
+        final ByteBuffer ciphertextBuffer = ByteBuffer.wrap(ciphertext);
+        try (Segmenter segmenter = new Segmenter()) {
+            segmenter.header(ciphertext);
+            ciphertextBuffer.limit(Segments.HEADER_LENGTH);
+            flush(output, ciphertextBuffer);
+            long result = Segments.HEADER_LENGTH;
+            boolean last = false;
+            while (!last) {
+                final int length = fill(input, plaintextBuffer);
+                last = (length < segmentSize);
+                final int encrypted = segmenter.encrypt(plaintext, length, last, ciphertext);
+                ciphertextBuffer.clear().limit(encrypted);
+                flush(output, ciphertextBuffer);
+                result += encrypted;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * @return the segment size (in bytes)
+     */
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Stream cipherer using segments of ")
+                                  .append(segmentSize)
+                                  .append(" bytes and ")
+                                  .append(cipherer)
+                                  .toString();
+    }
+
+    /**
+     * Encrypts consecutive segments of single stream.
+     */
+    private final class Segmenter implements AutoCloseable {
+
+        private final byte[] aad = new byte[Segments.AAD_LENGTH];
+
+        private final Cipher cipher;
+
+        private long index;
+
+        private final byte[] nonce = Segments.newNonce();
+
+        private final byte[] scratch = new byte[Segments.NONCE_LENGTH];
+
+        private boolean valid;
+
+        @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+        Segmenter() {
+            super();
+            try {
+                cipher = cipherer.pool().acquire(spec);
+            } catch (final GeneralSecurityException exception) {
+                throw new RuntimeException(exception);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() {
+            if (valid) {
+                cipherer.pool().release(spec, cipher);
+            }
+        }
+
+        @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+        int encrypt(final byte[] plaintext, final int length, final boolean last, final byte[] ciphertext) {
+            valid = false;
+            try {
+                cipher.init(Cipher.ENCRYPT_MODE, cipherer.key(),
+                    Segments.parameters(cipherer.transformation(), nonce, index, scratch));
+                Segments.aad(aad, index, last);
+                cipher.updateAAD(aad);
+                final int encrypted = cipher.doFinal(plaintext, 0, length, ciphertext, Segments.PREFIX_LENGTH);
+                Segments.writeInt(ciphertext, 0, last ? (encrypted | Segments.FINAL_FLAG) : encrypted);
+                index++;
+                valid = true;
+                return Segments.PREFIX_LENGTH + encrypted;
+            } catch (final GeneralSecurityException exception) {
+                throw new RuntimeException(exception);
+            }
+        }
+
+        void header(final byte[] header) {
+            Segments.header(header, segmentSize, nonce);
+            valid = true;
+        }
+
+    }
+
+}
@@ -0,0 +1,250 @@
+package pl.ais.commons.domain.security.crypto;
+
+import javax.annotation.Nonnull;
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.GeneralSecurityException;
+import java.util.Objects;
+
+/**
+ * Decrypts streams encrypted by {@link StreamCipherer}, using the configuration (transformation, key and pool of
+ * ciphers) of predefined {@link Decipherer}.
+ *
+ * <p>
+ * The segments are decrypted and authenticated one by one, so the memory used doesn't depend on the payload size.
+ * Note that the plaintext of already authenticated segments is written into the output before the following segments
+ * are verified, so the output should not be trusted until this decipherer completes successfully.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class StreamDecipherer {
+
+    private final Decipherer decipherer;
+
+    private final CipherPool.Spec spec;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param decipherer decipherer providing the configuration
+     */
+    public StreamDecipherer(@Nonnull final Decipherer decipherer) {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(decipherer, "Decipherer is required.");
+        Segments.requireAead(decipherer.transformation());
+
+        // ... and initialize this instance fields.
+        this.decipherer = decipherer;
+        this.spec = new CipherPool.Spec(decipherer.transformation(), decipherer.key());
+    }
+
+    private static void flush(final WritableByteChannel output, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+    }
+
+    private static void readFully(final InputStream input, final byte[] buffer, final int length)
+        throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            final int count = input.read(buffer, offset, length - offset);
+            if (0 > count) {
+                throw new EOFException("Encrypted stream is truncated.");
+            }
+            offset += count;
+        }
+    }
+
+    private static void readFully(final ReadableByteChannel input, final ByteBuffer buffer, final int length)
+        throws IOException {
+        buffer.clear().limit(length);
+        while (buffer.hasRemaining()) {
+            if (0 > input.read(buffer)) {
+                throw new EOFException("Encrypted stream is truncated.");
+            }
+        }
+    }
+
+    /**
+     * Decrypts the content of given input stream, and writes the result into given output stream.
+     *
+     * <p>Neither of the streams is closed by this method.</p>
+     *
+     * @param input  the input stream
+     * @param output the output stream
+     * @return the number of bytes written into the output stream
+     * @throws IOException if an I/O error occurs, or the input is not valid encrypted stream
+     */
+    public long decrypt(@Nonnull final InputStream input, @Nonnull final OutputStream output) throws IOException {
+        Objects.requireNonNull(input, "Input stream is required.");
+        Objects.requireNonNull(output, "Output stream is required.");
+
+        final byte[] header = new byte[Segments.HEADER_LENGTH];
+        readFully(input, header, Segments.HEADER_LENGTH);
+        try (Desegmenter desegmenter = new Desegmenter(header)) {
+            long result = 0;
+            boolean last = false;
+            while (!last) {
+                readFully(input, desegmenter.ciphertext, Segments.PREFIX_LENGTH);
+                final int length = desegmenter.segmentLength();
+                last = desegmenter.last();
+                readFully(input, desegmenter.ciphertext, length);
+                final int decrypted = desegmenter.decrypt(length, last);
+                output.write(desegmenter.plaintext, 0, decrypted);
+                result += decrypted;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Decrypts the content of given input channel, and writes the result into given output channel.
+     *
+     * <p>Neither of the channels is closed by this method, both of them should be blocking.</p>
+     *
+     * @param input  the input channel
+     * @param output the output channel
+     * @return the number of bytes written into the output channel
+     * @throws IOException if an I/O error occurs, or the input is not valid encrypted stream
+     * @throws IllegalArgumentException if any of the channels is selectable channel in non-blocking mode
+     */
+    public long decrypt(@Nonnull final ReadableByteChannel input, @Nonnull final WritableByteChannel output)
+        throws IOException {
+        Objects.requireNonNull(input, "Input channel is required.");
+        Objects.requireNonNull(output, "Output channel is required.");
+        Segments.requireBlocking(input);
+        Segments.requireBlocking(output);
+
+        final ByteBuffer header = ByteBuffer.allocate(Segments.HEADER_LENGTH);
+        readFully(input, header, Segments.HEADER_LENGTH);
+        try (Desegmenter desegmenter = new Desegmenter(header.array())) {
+            final ByteBuffer ciphertextBuffer = ByteBuffer.wrap(desegmenter.ciphertext);
+            final ByteBuffer plaintextBuffer = ByteBuffer.wrap(desegmenter.plaintext);
+            long result = 0;
+            boolean last = false;
+            while (!last) {
+                readFully(input, ciphertextBuffer, Segments.PREFIX_LENGTH);
+                final int length = desegmenter.segmentLength();
+                last = desegmenter.last();
+                readFully(input, ciphertextBuffer, length);
+                final int decrypted = desegmenter.decrypt(length, last);
+                plaintextBuffer.clear().limit(decrypted);
+                flush(output, plaintextBuffer);
+                result += decrypted;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Stream decipherer using ")
+                                  .append(decipherer)
+                                  .toString();
+    }
+
+    /**
+     * Decrypts consecutive segments of single stream.
+     */
+    private final class Desegmenter implements AutoCloseable {
+
+        private final byte[] aad = new byte[Segments.AAD_LENGTH];
+
+        private final Cipher cipher;
+
+        private final byte[] ciphertext;
+
+        private long index;
+
+        private final byte[] nonce = new byte[Segments.NONCE_LENGTH];
+
+        private final byte[] plaintext;
+
+        private final byte[] scratch = new byte[Segments.NONCE_LENGTH];
+
+        private final int segmentSize;
+
+        private boolean valid;
+
+        @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+        Desegmenter(final byte[] header) throws IOException {
+            super();
+            if (Segments.VERSION != header[0]) {
+                throw new IOException(String.format("Unsupported encrypted stream version: %d.", header[0]));
+            }
+            segmentSize = Segments.readInt(header, 1);
+            if ((0 >= segmentSize) || (Segments.MAX_SEGMENT_SIZE < segmentSize)) {
+                throw new IOException(String.format("Invalid encrypted stream segment size: %d.", segmentSize));
+            }
+            System.arraycopy(header, 5, nonce, 0, Segments.NONCE_LENGTH);
+            plaintext = new byte[segmentSize];
+            ciphertext = new byte[segmentSize + Segments.TAG_LENGTH];
+            try {
+                cipher = decipherer.pool().acquire(spec);
+            } catch (final GeneralSecurityException exception) {
+                throw new RuntimeException(exception);
+            }
+            valid = true;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() {
+            if (valid) {
+                decipherer.pool().release(spec, cipher);
+            }
+        }
+
+        @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+        int decrypt(final int length, final boolean last) throws IOException {
+            valid = false;
+            try {
+                cipher.init(Cipher.DECRYPT_MODE, decipherer.key(),
+                    Segments.parameters(decipherer.transformation(), nonce, index, scratch));
+                Segments.aad(aad, index, last);
+                cipher.updateAAD(aad);
+                final int result = cipher.doFinal(ciphertext, 0, length, plaintext, 0);
+                index++;
+                valid = true;
+                return result;
+            } catch (final AEADBadTagException exception) {
+                throw new IOException(String.format("Segment %d of encrypted stream failed authentication.", index),
+                    exception);
+            } catch (final GeneralSecurityException exception) {
+                throw new RuntimeException(exception);
+            }
+        }
+
+        boolean last() {
+            return 0 != (Segments.readInt(ciphertext, 0) & Segments.FINAL_FLAG);
+        }
+
+        int segmentLength() throws IOException {
+            final int result = Segments.readInt(ciphertext, 0) & ~Segments.FINAL_FLAG;
+            if ((Segments.TAG_LENGTH > result) || ((segmentSize + Segments.TAG_LENGTH) < result)) {
+                throw new IOException(String.format("Invalid length of segment %d: %d.", index, result));
+            }
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,74 @@
+package pl.ais.commons.domain.security.crypto;
+
+/**
+ * Provides set of utility methods for variable-length encoding of non-negative integers (7 bits per byte, least
+ * significant group first, high bit set on all bytes but the last one).
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+final class Varints {
+
+    private Varints() {
+        super();
+    }
+
+    /**
+     * Reads the integer from given array.
+     *
+     * @param source the array
+     * @param offset offset of the integer within the array
+     * @return the integer
+     * @throws IllegalArgumentException if the array doesn't hold canonically encoded integer at given offset
+     */
+    static int read(final byte[] source, final int offset) {
+        int result = 0;
+        int position = offset;
+        int shift = 0;
+        byte current;
+        do {
+            if ((source.length <= position) || (28 < shift)) {
+                throw new IllegalArgumentException("Malformed variable-length integer.");
+            }
+            current = source[position++];
+            result |= (current & 0x7F) << shift;
+            shift += 7;
+        } while (0 != (current & 0x80));
+        if ((0 > result) || ((position - offset) != size(result))) {
+            throw new IllegalArgumentException("Malformed variable-length integer.");
+        }
+        return result;
+    }
+
+    /**
+     * @param value the integer
+     * @return the number of bytes needed to encode given integer
+     */
+    static int size(final int value) {
+        int result = 1;
+        for (int remaining = value >>> 7; 0 != remaining; remaining >>>= 7) {
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * Writes the integer into given array.
+     *
+     * @param target the array
+     * @param offset offset at which the integer should be written
+     * @param value  the integer
+     * @return offset following the written integer
+     */
+    static int write(final byte[] target, final int offset, final int value) {
+        int position = offset;
+        int remaining = value;
+        while (0 != (remaining & ~0x7F)) {
+            target[position++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        target[position++] = (byte) remaining;
+        return position;
+    }
+
+}
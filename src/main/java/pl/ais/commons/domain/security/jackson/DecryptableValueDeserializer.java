@@ -0,0 +1,98 @@
+package pl.ais.commons.domain.security.jackson;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import pl.ais.commons.domain.security.DecryptableValue;
+import pl.ais.commons.domain.security.DecryptableValueFactory;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Deserializes {@link DecryptableValue} from the binary value holding its encrypted value.
+ *
+ * <p>
+ * Encrypted value is read using {@link JsonParser#getBinaryValue()}, which decodes it directly from the input
+ * buffer, and passed to the {@link DecryptableValueFactory} registered for the type of unencrypted value (resolved
+ * from the declared type of deserialized property).
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings({"PMD.BeanMembersShouldSerialize", "rawtypes", "serial"})
+final class DecryptableValueDeserializer extends StdDeserializer<DecryptableValue>
+    implements ContextualDeserializer {
+
+    private final DecryptableValueFactory<?, ?> factory;
+
+    private final Map<Class<?>, DecryptableValueFactory<?, ?>> factories;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param valueClass the class of deserialized values
+     * @param factories  factories registered for the types of unencrypted value ({@link Object} key identifies
+     *                   the default factory)
+     */
+    DecryptableValueDeserializer(final Class<? extends DecryptableValue> valueClass,
+                                 final Map<Class<?>, DecryptableValueFactory<?, ?>> factories) {
+        this(valueClass, factories, null);
+    }
+
+    private DecryptableValueDeserializer(final Class<?> valueClass,
+                                         final Map<Class<?>, DecryptableValueFactory<?, ?>> factories,
+                                         final DecryptableValueFactory<?, ?> factory) {
+        super(valueClass);
+        this.factories = factories;
+        this.factory = factory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JsonDeserializer<?> createContextual(final DeserializationContext context, final BeanProperty property)
+        throws JsonMappingException {
+        final JavaType type = (null == context.getContextualType()) ? context.constructType(handledType())
+            : context.getContextualType();
+        final JavaType[] parameters = type.findTypeParameters(DecryptableValue.class);
+        final Class<?> valueType = ((null == parameters) || (0 == parameters.length)) ? Object.class
+            : parameters[0].getRawClass();
+        DecryptableValueFactory<?, ?> resolved = factories.get(valueType);
+        if (null == resolved) {
+            resolved = factories.get(Object.class);
+        }
+        if (null == resolved) {
+            return context.reportBadDefinition(type, "No decryptable value factory is registered for "
+                + valueType.getName() + " values.");
+        }
+        return new DecryptableValueDeserializer(type.getRawClass(), factories, resolved);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DecryptableValue deserialize(final JsonParser parser, final DeserializationContext context)
+        throws IOException {
+        final JsonToken token = parser.getCurrentToken();
+        if ((JsonToken.VALUE_STRING != token) && (JsonToken.VALUE_EMBEDDED_OBJECT != token)) {
+            return (DecryptableValue) context.handleUnexpectedToken(handledType(), parser);
+        }
+        final DecryptableValue result = factory.decryptableValue(parser.getBinaryValue());
+        if (!handledType().isInstance(result)) {
+            return context.reportBadDefinition(context.constructType(handledType()),
+                "Decryptable value factory creates " + result.getClass().getName() + " instances.");
+        }
+        return result;
+    }
+
+}
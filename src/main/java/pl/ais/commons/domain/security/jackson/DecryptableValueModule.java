@@ -0,0 +1,71 @@
+package pl.ais.commons.domain.security.jackson;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import pl.ais.commons.domain.security.DecryptableValue;
+import pl.ais.commons.domain.security.DecryptableValueFactory;
+import pl.ais.commons.domain.security.DefaultDecryptableValue;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Jackson module (de)serializing {@link DecryptableValue} instances as binary values holding the encrypted value.
+ *
+ * <p>
+ * Encrypted values are written and read as binary values (Base64 encoded for textual formats), without any
+ * intermediate {@link String}. Deserialized values are created by the factory registered for the type of unencrypted
+ * value, or by the default one:
+ * </p>
+ * <pre>
+ * objectMapper.registerModule(new DecryptableValueModule(DefaultDecryptableValue.factory(service))
+ *                                 .withFactory(byte[].class, DefaultDecryptableValue.factory(cipherer)));
+ * </pre>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings({"PMD.BeanMembersShouldSerialize", "serial"})
+public final class DecryptableValueModule extends SimpleModule {
+
+    private final Map<Class<?>, DecryptableValueFactory<?, ?>> factories;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param factory default factory, creating deserialized values regardless of the type of unencrypted value
+     */
+    public DecryptableValueModule(@Nonnull final DecryptableValueFactory<?, ?> factory) {
+        this(Collections.<Class<?>, DecryptableValueFactory<?, ?>>singletonMap(Object.class,
+             Objects.requireNonNull(factory, "Factory is required.")));
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private DecryptableValueModule(final Map<Class<?>, DecryptableValueFactory<?, ?>> factories) {
+        super(DecryptableValueModule.class.getSimpleName());
+        this.factories = factories;
+        addSerializer(DecryptableValue.class, new DecryptableValueSerializer());
+        addDeserializer(DecryptableValue.class, new DecryptableValueDeserializer(DecryptableValue.class, factories));
+        addDeserializer((Class) DefaultDecryptableValue.class,
+            new DecryptableValueDeserializer(DefaultDecryptableValue.class, factories));
+    }
+
+    /**
+     * Creates module configured like this one, but using given factory for given type of unencrypted value.
+     *
+     * @param valueType the type of unencrypted value
+     * @param factory   factory creating deserialized values of given type
+     * @return newly created module using given factory for given type of unencrypted value
+     */
+    public <T> DecryptableValueModule withFactory(@Nonnull final Class<T> valueType,
+                                                  @Nonnull final DecryptableValueFactory<T, ?> factory) {
+        Objects.requireNonNull(valueType, "Value type is required.");
+        Objects.requireNonNull(factory, "Factory is required.");
+        final Map<Class<?>, DecryptableValueFactory<?, ?>> copy = new HashMap<>(factories);
+        copy.put(valueType, factory);
+        return new DecryptableValueModule(Collections.unmodifiableMap(copy));
+    }
+
+}
@@ -0,0 +1,40 @@
+package pl.ais.commons.domain.security.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import pl.ais.commons.domain.security.DecryptableValue;
+
+import java.io.IOException;
+
+/**
+ * Serializes {@link DecryptableValue} as the binary value holding its encrypted value.
+ *
+ * <p>
+ * Encrypted value is passed directly to the {@link JsonGenerator#writeBinary(byte[])}, which encodes it into
+ * the output buffer (as Base64 for textual formats), so no intermediate {@link String} is created.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings({"rawtypes", "serial"})
+final class DecryptableValueSerializer extends StdSerializer<DecryptableValue> {
+
+    /**
+     * Constructs new instance.
+     */
+    DecryptableValueSerializer() {
+        super(DecryptableValue.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void serialize(final DecryptableValue value, final JsonGenerator generator,
+                          final SerializerProvider provider) throws IOException {
+        generator.writeBinary(value.getEncryptedValue());
+    }
+
+}
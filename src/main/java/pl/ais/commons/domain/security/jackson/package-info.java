@@ -0,0 +1,4 @@
+/**
+ * Provides Jackson serialization support for decryptable values.
+ */
+package pl.ais.commons.domain.security.jackson;
@@ -0,0 +1,286 @@
+package pl.ais.commons.domain.security.metrics;
+
+import javax.annotation.Nonnull;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of cryptographic service, recorded by {@link InstrumentedEncryptor} and {@link InstrumentedDecryptor}.
+ *
+ * <p>
+ * Recording is lock-free, and the metrics can be published as the MBean named after the service, see
+ * {@link #register(String)}.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class CryptographicMetrics implements CryptographicMetricsMXBean {
+
+    private static final String DOMAIN = "pl.ais.commons.domain.security";
+
+    private final LongAdder decryptedBytes = new LongAdder();
+
+    private final LongAdder decryptionFailures = new LongAdder();
+
+    private final LatencyHistogram decryptionLatency = new LatencyHistogram();
+
+    private final LongAdder encryptedBytes = new LongAdder();
+
+    private final LongAdder encryptionFailures = new LongAdder();
+
+    private final LatencyHistogram encryptionLatency = new LatencyHistogram();
+
+    private volatile ObjectName objectName;
+
+    /**
+     * Creates the object name under which the metrics of given service are registered.
+     *
+     * @param serviceName the name of the service
+     * @return the object name
+     */
+    @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+    public static ObjectName objectName(@Nonnull final String serviceName) {
+        Objects.requireNonNull(serviceName, "Service name is required.");
+        try {
+            return new ObjectName(DOMAIN + ":type=CryptographicMetrics,name=" + ObjectName.quote(serviceName));
+        } catch (final JMException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDecryptedBytes() {
+        return decryptedBytes.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDecryptionCount() {
+        return decryptionLatency.getCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDecryptionFailureCount() {
+        return decryptionFailures.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDecryptionLatencyMean() {
+        return decryptionLatency.getMean();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDecryptionLatencyP50() {
+        return decryptionLatency.getPercentile(50);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDecryptionLatencyP99() {
+        return decryptionLatency.getPercentile(99);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDecryptionLatencyP999() {
+        return decryptionLatency.getPercentile(99.9);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEncryptedBytes() {
+        return encryptedBytes.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEncryptionCount() {
+        return encryptionLatency.getCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEncryptionFailureCount() {
+        return encryptionFailures.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getEncryptionLatencyMean() {
+        return encryptionLatency.getMean();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEncryptionLatencyP50() {
+        return encryptionLatency.getPercentile(50);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEncryptionLatencyP99() {
+        return encryptionLatency.getPercentile(99);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEncryptionLatencyP999() {
+        return encryptionLatency.getPercentile(99.9);
+    }
+
+    /**
+     * Records decryption.
+     *
+     * @param nanos the latency (in nanoseconds)
+     * @param bytes the number of bytes decrypted
+     */
+    public void recordDecryption(final long nanos, final long bytes) {
+        decryptionLatency.record(nanos);
+        decryptedBytes.add(bytes);
+    }
+
+    /**
+     * Records failed decryption.
+     *
+     * @param nanos the latency (in nanoseconds)
+     */
+    public void recordDecryptionFailure(final long nanos) {
+        decryptionLatency.record(nanos);
+        decryptionFailures.increment();
+    }
+
+    /**
+     * Records encryption.
+     *
+     * @param nanos the latency (in nanoseconds)
+     * @param bytes the number of bytes encrypted
+     */
+    public void recordEncryption(final long nanos, final long bytes) {
+        encryptionLatency.record(nanos);
+        encryptedBytes.add(bytes);
+    }
+
+    /**
+     * Records failed encryption.
+     *
+     * @param nanos the latency (in nanoseconds)
+     */
+    public void recordEncryptionFailure(final long nanos) {
+        encryptionLatency.record(nanos);
+        encryptionFailures.increment();
+    }
+
+    /**
+     * Registers these metrics in the platform MBean server, as the MBean named after given service.
+     *
+     * <p>
+     * MBean previously registered under the same name is replaced.
+     * </p>
+     *
+     * @param serviceName the name of the service
+     * @return these metrics
+     */
+    @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+    public CryptographicMetrics register(@Nonnull final String serviceName) {
+        final ObjectName name = objectName(serviceName);
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            try {
+                server.registerMBean(this, name);
+            } catch (final InstanceAlreadyExistsException exception) {
+                server.unregisterMBean(name);
+                server.registerMBean(this, name);
+            }
+        } catch (final JMException exception) {
+            throw new RuntimeException(exception);
+        }
+        objectName = name;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        decryptedBytes.reset();
+        decryptionFailures.reset();
+        decryptionLatency.reset();
+        encryptedBytes.reset();
+        encryptionFailures.reset();
+        encryptionLatency.reset();
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Cryptographic metrics (")
+                                  .append(getEncryptionCount())
+                                  .append(" encryptions, ")
+                                  .append(getDecryptionCount())
+                                  .append(" decryptions)")
+                                  .toString();
+    }
+
+    /**
+     * Unregisters these metrics from the platform MBean server, if they were registered.
+     */
+    @SuppressWarnings("PMD.AvoidThrowingRawExceptionTypes")
+    public void unregister() {
+        final ObjectName name = objectName;
+        if (null != name) {
+            try {
+                ManagementFactory.getPlatformMBeanServer()
+                                 .unregisterMBean(name);
+            } catch (final InstanceNotFoundException exception) {
+                // Already unregistered, nothing to do.
+            } catch (final JMException exception) {
+                throw new RuntimeException(exception);
+            }
+            objectName = null;
+        }
+    }
+
+}
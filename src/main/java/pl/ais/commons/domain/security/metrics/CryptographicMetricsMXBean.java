@@ -0,0 +1,90 @@
+package pl.ais.commons.domain.security.metrics;
+
+/**
+ * Defines the management interface of {@link CryptographicMetrics}.
+ *
+ * <p>
+ * All the latencies are expressed in nanoseconds.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+public interface CryptographicMetricsMXBean {
+
+    /**
+     * @return the number of bytes decrypted
+     */
+    long getDecryptedBytes();
+
+    /**
+     * @return the number of decryptions (including the failed ones)
+     */
+    long getDecryptionCount();
+
+    /**
+     * @return the number of failed decryptions
+     */
+    long getDecryptionFailureCount();
+
+    /**
+     * @return the mean latency of decryption
+     */
+    double getDecryptionLatencyMean();
+
+    /**
+     * @return the median latency of decryption
+     */
+    long getDecryptionLatencyP50();
+
+    /**
+     * @return the 99th percentile of decryption latency
+     */
+    long getDecryptionLatencyP99();
+
+    /**
+     * @return the 99.9th percentile of decryption latency
+     */
+    long getDecryptionLatencyP999();
+
+    /**
+     * @return the number of bytes encrypted
+     */
+    long getEncryptedBytes();
+
+    /**
+     * @return the number of encryptions (including the failed ones)
+     */
+    long getEncryptionCount();
+
+    /**
+     * @return the number of failed encryptions
+     */
+    long getEncryptionFailureCount();
+
+    /**
+     * @return the mean latency of encryption
+     */
+    double getEncryptionLatencyMean();
+
+    /**
+     * @return the median latency of encryption
+     */
+    long getEncryptionLatencyP50();
+
+    /**
+     * @return the 99th percentile of encryption latency
+     */
+    long getEncryptionLatencyP99();
+
+    /**
+     * @return the 99.9th percentile of encryption latency
+     */
+    long getEncryptionLatencyP999();
+
+    /**
+     * Removes all recorded metrics.
+     */
+    void reset();
+
+}
@@ -0,0 +1,52 @@
+package pl.ais.commons.domain.security.metrics;
+
+import pl.ais.commons.domain.security.CryptographicServiceSupport;
+import pl.ais.commons.domain.security.Decryptor;
+import pl.ais.commons.domain.security.Encryptor;
+
+import javax.annotation.Nonnull;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cryptographic service recording the metrics of predefined encryptor / decryptor pair (which may be other
+ * cryptographic service, like {@link pl.ais.commons.domain.security.PassThroughCryptographicService}).
+ *
+ * <pre>
+ * new InstrumentedCryptographicService&lt;&gt;(service, service, new CryptographicMetrics().register("users"),
+ *     String::length);
+ * </pre>
+ *
+ * @param <T> defines the type of unencrypted value
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public class InstrumentedCryptographicService<T> extends CryptographicServiceSupport<T> {
+
+    private final CryptographicMetrics metrics;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param decryptor the decryptor to be instrumented
+     * @param encryptor the encryptor to be instrumented
+     * @param metrics   the metrics to be recorded
+     * @param sizer     function determining the size (in bytes) of unencrypted value
+     */
+    public InstrumentedCryptographicService(@Nonnull final Decryptor<T> decryptor,
+                                            @Nonnull final Encryptor<T> encryptor,
+                                            @Nonnull final CryptographicMetrics metrics,
+                                            @Nonnull final ToLongFunction<? super T> sizer) {
+        super(new InstrumentedDecryptor<>(decryptor, metrics, sizer),
+            new InstrumentedEncryptor<>(encryptor, metrics, sizer));
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the metrics recorded by this instance
+     */
+    public CryptographicMetrics getMetrics() {
+        return metrics;
+    }
+
+}
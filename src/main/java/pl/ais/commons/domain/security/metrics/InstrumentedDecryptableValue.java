@@ -0,0 +1,81 @@
+package pl.ais.commons.domain.security.metrics;
+
+import pl.ais.commons.domain.security.DecryptableValue;
+
+import javax.annotation.Nonnull;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link DecryptableValue} decorator recording the decryption metrics, returned by {@link InstrumentedEncryptor}, so
+ * the values decrypted on their own (not by the instrumented decryptor) are recorded too.
+ *
+ * @param <T> defines the type of unencrypted value
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+final class InstrumentedDecryptableValue<T> implements DecryptableValue<T> {
+
+    private final DecryptableValue<T> delegate;
+
+    private final CryptographicMetrics metrics;
+
+    private final ToLongFunction<? super T> sizer;
+
+    InstrumentedDecryptableValue(final DecryptableValue<T> delegate, final CryptographicMetrics metrics,
+                                 final ToLongFunction<? super T> sizer) {
+        super();
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.sizer = sizer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public T decrypt() {
+        return InstrumentedDecryptor.measure(delegate::decrypt, metrics, sizer);
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(final Object object) {
+        boolean result = (this == object);
+        if (!result && (object instanceof InstrumentedDecryptableValue)) {
+            result = delegate.equals(((InstrumentedDecryptableValue<?>) object).delegate);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public byte[] getEncryptedValue() {
+        return delegate.getEncryptedValue();
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Instrumented ")
+                                  .append(delegate)
+                                  .toString();
+    }
+
+}
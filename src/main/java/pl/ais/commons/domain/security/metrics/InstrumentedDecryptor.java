@@ -0,0 +1,109 @@
+package pl.ais.commons.domain.security.metrics;
+
+import pl.ais.commons.domain.security.DecryptableValue;
+import pl.ais.commons.domain.security.Decryptor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link Decryptor} decorator recording the decryption metrics.
+ *
+ * @param <T> defines the type of unencrypted value
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class InstrumentedDecryptor<T> implements Decryptor<T> {
+
+    private final Decryptor<T> delegate;
+
+    private final CryptographicMetrics metrics;
+
+    private final ToLongFunction<? super T> sizer;
+
+    /**
+     * Constructs new instance, not recording the number of bytes decrypted.
+     *
+     * @param delegate the decryptor to be instrumented
+     * @param metrics  the metrics to be recorded
+     */
+    public InstrumentedDecryptor(@Nonnull final Decryptor<T> delegate, @Nonnull final CryptographicMetrics metrics) {
+        this(delegate, metrics, value -> 0);
+    }
+
+    /**
+     * Constructs new instance.
+     *
+     * @param delegate the decryptor to be instrumented
+     * @param metrics  the metrics to be recorded
+     * @param sizer    function determining the size (in bytes) of unencrypted value
+     */
+    public InstrumentedDecryptor(@Nonnull final Decryptor<T> delegate, @Nonnull final CryptographicMetrics metrics,
+                                 @Nonnull final ToLongFunction<? super T> sizer) {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(delegate, "Decryptor is required.");
+        Objects.requireNonNull(metrics, "Metrics are required.");
+        Objects.requireNonNull(sizer, "Sizer is required.");
+
+        // ... and initialize this instance fields.
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.sizer = sizer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public T decrypt(@Nullable final DecryptableValue<T> value) {
+        return measure(() -> delegate.decrypt(value), metrics, sizer);
+    }
+
+    /**
+     * @return the metrics recorded by this instance
+     */
+    public CryptographicMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Performs given decryption, and records its metrics.
+     *
+     * @param <T>        defines the type of unencrypted value
+     * @param decryption the decryption
+     * @param metrics    the metrics to be recorded
+     * @param sizer      function determining the size (in bytes) of unencrypted value
+     * @return decrypted value
+     */
+    static <T> T measure(final Supplier<? extends T> decryption, final CryptographicMetrics metrics,
+                         final ToLongFunction<? super T> sizer) {
+        final long start = System.nanoTime();
+        final T result;
+        try {
+            result = decryption.get();
+        } catch (final RuntimeException | Error exception) {
+            metrics.recordDecryptionFailure(System.nanoTime() - start);
+            throw exception;
+        }
+        metrics.recordDecryption(System.nanoTime() - start, (null == result) ? 0 : sizer.applyAsLong(result));
+        return result;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Instrumented ")
+                                  .append(delegate)
+                                  .toString();
+    }
+
+}
@@ -0,0 +1,99 @@
+package pl.ais.commons.domain.security.metrics;
+
+import pl.ais.commons.domain.security.DecryptableValue;
+import pl.ais.commons.domain.security.Encryptor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link Encryptor} decorator recording the encryption metrics.
+ *
+ * <p>
+ * Encrypted values are decorated too, so their decryption ({@link DecryptableValue#decrypt()}) is recorded using
+ * the same metrics.
+ * </p>
+ *
+ * @param <T> defines the type of unencrypted value
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("PMD.BeanMembersShouldSerialize")
+public final class InstrumentedEncryptor<T> implements Encryptor<T> {
+
+    private final Encryptor<T> delegate;
+
+    private final CryptographicMetrics metrics;
+
+    private final ToLongFunction<? super T> sizer;
+
+    /**
+     * Constructs new instance, not recording the number of bytes encrypted.
+     *
+     * @param delegate the encryptor to be instrumented
+     * @param metrics  the metrics to be recorded
+     */
+    public InstrumentedEncryptor(@Nonnull final Encryptor<T> delegate, @Nonnull final CryptographicMetrics metrics) {
+        this(delegate, metrics, value -> 0);
+    }
+
+    /**
+     * Constructs new instance.
+     *
+     * @param delegate the encryptor to be instrumented
+     * @param metrics  the metrics to be recorded
+     * @param sizer    function determining the size (in bytes) of unencrypted value
+     */
+    public InstrumentedEncryptor(@Nonnull final Encryptor<T> delegate, @Nonnull final CryptographicMetrics metrics,
+                                 @Nonnull final ToLongFunction<? super T> sizer) {
+        super();
+
+        // Validate constructor requirements, ...
+        Objects.requireNonNull(delegate, "Encryptor is required.");
+        Objects.requireNonNull(metrics, "Metrics are required.");
+        Objects.requireNonNull(sizer, "Sizer is required.");
+
+        // ... and initialize this instance fields.
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.sizer = sizer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public DecryptableValue<T> encrypt(@Nullable final T value) {
+        final long start = System.nanoTime();
+        final DecryptableValue<T> result;
+        try {
+            result = delegate.encrypt(value);
+        } catch (final RuntimeException | Error exception) {
+            metrics.recordEncryptionFailure(System.nanoTime() - start);
+            throw exception;
+        }
+        metrics.recordEncryption(System.nanoTime() - start, (null == value) ? 0 : sizer.applyAsLong(value));
+        return (null == result) ? null : new InstrumentedDecryptableValue<>(result, metrics, sizer);
+    }
+
+    /**
+     * @return the metrics recorded by this instance
+     */
+    public CryptographicMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder().append("Instrumented ")
+                                  .append(delegate)
+                                  .toString();
+    }
+
+}
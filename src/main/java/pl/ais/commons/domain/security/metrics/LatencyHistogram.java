@@ -0,0 +1,105 @@
+package pl.ais.commons.domain.security.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies, using power-of-two buckets.
+ *
+ * <p>
+ * Bucket {@code n} counts the latencies between {@code 2^(n-1)} (inclusive) and {@code 2^n} (exclusive) nanoseconds,
+ * so the percentiles are reported with the precision of factor 2, which is sufficient to spot the regressions, while
+ * recording costs single {@link LongAdder} increment.
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKET_COUNT = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * Constructs new instance.
+     */
+    public LatencyHistogram() {
+        super();
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            buckets[index] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return the number of recorded latencies
+     */
+    public long getCount() {
+        long result = 0;
+        for (final LongAdder bucket : buckets) {
+            result += bucket.sum();
+        }
+        return result;
+    }
+
+    /**
+     * @return the mean of recorded latencies (in nanoseconds), or {@code 0} if there are no recorded latencies
+     */
+    public double getMean() {
+        final long count = getCount();
+        return (0 == count) ? 0 : ((double) total.sum() / count);
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding given percentile of recorded latencies.
+     *
+     * @param percentile the percentile (between 0 and 100)
+     * @return the upper bound (in nanoseconds) of the latencies within given percentile, or {@code 0} if there are no
+     * recorded latencies
+     */
+    public long getPercentile(final double percentile) {
+        if ((0 > percentile) || (100 < percentile)) {
+            throw new IllegalArgumentException("Percentile should be between 0 and 100.");
+        }
+        final long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            counts[index] = buckets[index].sum();
+            count += counts[index];
+        }
+        final long threshold = (long) Math.ceil((count * percentile) / 100);
+        long result = 0;
+        long accumulated = 0;
+        for (int index = 0; (index < BUCKET_COUNT) && (0 < count); index++) {
+            accumulated += counts[index];
+            if ((0 < counts[index]) && (accumulated >= threshold)) {
+                result = (BUCKET_COUNT - 1 == index) ? Long.MAX_VALUE : (1L << index);
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Records given latency.
+     *
+     * @param nanos the latency (in nanoseconds)
+     */
+    public void record(final long nanos) {
+        final long latency = Math.max(0, nanos);
+        buckets[Math.min(BUCKET_COUNT - 1, Long.SIZE - Long.numberOfLeadingZeros(latency))].increment();
+        total.add(latency);
+    }
+
+    /**
+     * Removes all recorded latencies.
+     */
+    public void reset() {
+        for (final LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        total.reset();
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Provides instrumented cryptographic service decorators, publishing their metrics over JMX.
+ */
+package pl.ais.commons.domain.security.metrics;
@@ -1,12 +1,26 @@
 package pl.ais.commons.domain.specification.simple;
 
+import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 /**
  * {@link Predicate} implementation satisfied when candidate matches predefined regular expression.
  *
+ * <p>
+ * Compiled patterns are held by the cache shared by all specifications of the JVM (class loader, to be precise),
+ * so creating the specification for the regular expression {@link #precompile(String) precompiled} before, or used
+ * by other specification, doesn't compile it again. The cache holds up to 256 distinct regular expressions, evicting
+ * the least recently used one when full, so the specifications created for the arbitrary (user-provided, for
+ * example) regular expressions don't retain the memory, and the ones created or precompiled recently are always
+ * cached.
+ * </p>
+ *
  * @author Warlock, AIS.PL
  * @since 1.0.1
  */
@@ -14,6 +28,10 @@ import java.util.regex.Pattern;
 @SuppressWarnings("PMD.BeanMembersShouldSerialize")
 public final class RegexSpecification implements Predicate<CharSequence> {
 
+    private static final int MAX_CACHED_PATTERNS = 256;
+
+    private static final Map<String, Pattern> PATTERNS = new LinkedHashMap<>(16, 0.75f, true);
+
     private final Pattern pattern;
 
     /**
@@ -23,7 +41,42 @@ public final class RegexSpecification implements Predicate<CharSequence> {
      */
     public RegexSpecification(final String regex) {
         super();
-        this.pattern = Pattern.compile(regex);
+        this.pattern = precompile(regex);
+    }
+
+    /**
+     * Compiles given regular expression, and caches compiled pattern for the specifications created afterwards
+     * (until it is evicted as the least recently used one).
+     *
+     * @param regex regular expression
+     * @return compiled pattern
+     * @since 1.2.5
+     */
+    @Nonnull
+    public static Pattern precompile(@Nonnull final String regex) {
+        Objects.requireNonNull(regex, "Regular expression is required.");
+        Pattern result;
+        synchronized (PATTERNS) {
+            result = PATTERNS.get(regex);
+        }
+        if (null == result) {
+
+            // Compile the pattern outside of the lock, cache it, and evict the least recently used one, if needed.
+            final Pattern compiled = Pattern.compile(regex);
+            synchronized (PATTERNS) {
+                result = PATTERNS.putIfAbsent(regex, compiled);
+                if (null == result) {
+                    result = compiled;
+                    if (MAX_CACHED_PATTERNS < PATTERNS.size()) {
+                        final Iterator<String> eldest = PATTERNS.keySet()
+                                                                .iterator();
+                        eldest.next();
+                        eldest.remove();
+                    }
+                }
+            }
+        }
+        return result;
     }
 
     @Override
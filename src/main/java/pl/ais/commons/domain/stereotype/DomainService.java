@@ -8,21 +8,45 @@ import java.lang.annotation.Target;
 
 import org.springframework.context.annotation.Scope;
 import org.springframework.context.annotation.ScopedProxyMode;
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.stereotype.Indexed;
 import org.springframework.stereotype.Service;
 
 /**
  * Indicates that an annotated class is a Domain Service.
  *
+ * <p>
+ * Domain Services are proxied using JDK interface-based proxies by default. Stateless services, which do not need
+ * the proxy at all, may be registered without it using {@code @DomainService(proxyMode = ScopedProxyMode.NO)}, which
+ * saves both the proxy creation and the reflective dispatch of each call.
+ * </p>
+ * <p>
+ * The annotation is {@link Indexed}, so annotated classes are recorded in the component index
+ * ({@code META-INF/spring.components}) generated by {@code spring-context-indexer} annotation processor, if the
+ * processor is enabled for the application build, and found without scanning the classpath.
+ * </p>
+ *
  * @author Warlock, AIS.PL
  * @since 1.0.2
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.TYPE})
+@Indexed
 @Service
 @Scope(proxyMode = ScopedProxyMode.INTERFACES)
 public @interface DomainService {
 
+    /**
+     * Specifies whether the Domain Service should be proxied, and if so, whether the proxy should be interface-based
+     * or subclass-based.
+     *
+     * @return the proxy mode, {@link ScopedProxyMode#INTERFACES} by default
+     * @since 1.2.5
+     */
+    @AliasFor(annotation = Scope.class)
+    ScopedProxyMode proxyMode() default ScopedProxyMode.INTERFACES;
+
     /**
      * The value may indicate a suggestion for a logical component name,
      * to be turned into a Spring bean in case of an autodetected component.
@@ -8,9 +8,17 @@ import java.lang.annotation.Target;
 
 import javax.annotation.concurrent.Immutable;
 
+import org.springframework.stereotype.Indexed;
+
 /**
  * Indicates that an annotated class is a Value Object.
  *
+ * <p>
+ * The annotation is {@link Indexed}, so annotated classes are recorded in the component index
+ * ({@code META-INF/spring.components}) generated by {@code spring-context-indexer} annotation processor, if the
+ * processor is enabled for the application build.
+ * </p>
+ *
  * @see <a href="http://martinfowler.com/eaaCatalog/valueObject.html">Value Object (Patterns of Enterprise Application Architecture)</a>
  * @see <a href="http://en.wikipedia.org/wiki/Value_object">Value Object (Wikipedia)</a>
  *
@@ -19,6 +27,7 @@ import javax.annotation.concurrent.Immutable;
  */
 @Documented
 @Immutable
+@Indexed
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.TYPE)
 public @interface ValueObject {
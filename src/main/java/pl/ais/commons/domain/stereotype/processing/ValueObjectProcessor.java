@@ -0,0 +1,121 @@
+package pl.ais.commons.domain.stereotype.processing;
+
+import pl.ais.commons.domain.stereotype.ValueObject;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Annotation processor failing the build when the class annotated with {@link ValueObject} has mutable state.
+ *
+ * <p>
+ * Each instance field of the value object should be {@code final}, except the {@code transient} fields, which may
+ * hold the derived state only (like the lazily computed hash code). Moreover, the field should not hold an array,
+ * or well-known mutable JDK type (collection, map, date, calendar or string builder). Any other field is reported
+ * as an error, so the value objects may be safely used as the keys of maps and caches. Note that the check is
+ * shallow: it doesn't verify the state of other types held by the fields.
+ * </p>
+ * <p>
+ * The field known to be safe (array copied defensively and never exposed, or non-final field required by JPA
+ * {@code @Embeddable} class, for example) may be excluded from the check by annotating it, or the whole class, with
+ * {@code @SuppressWarnings("value-object-mutability")}.
+ * </p>
+ * <p>
+ * The processor is registered as the service, so it is run by the compiler whenever this library is available on
+ * the classpath (compilers since JDK 22 require {@code -proc:full} option for that).
+ * </p>
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SupportedAnnotationTypes("pl.ais.commons.domain.stereotype.ValueObject")
+public final class ValueObjectProcessor extends AbstractProcessor {
+
+    /**
+     * {@link SuppressWarnings} token excluding annotated field, or all fields of annotated class, from the check.
+     */
+    public static final String SUPPRESSION = "value-object-mutability";
+
+    private static final List<String> MUTABLE_TYPES = Arrays.asList("java.lang.StringBuffer",
+        "java.lang.StringBuilder", "java.util.Calendar", "java.util.Collection", "java.util.Date", "java.util.Map");
+
+    private static boolean isSuppressed(final Element element) {
+        final SuppressWarnings suppression = element.getAnnotation(SuppressWarnings.class);
+        return (null != suppression) && Arrays.asList(suppression.value())
+                                              .contains(SUPPRESSION);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    private boolean isMutableType(final TypeMirror type) {
+        boolean result = (TypeKind.ARRAY == type.getKind());
+        if (TypeKind.DECLARED == type.getKind()) {
+            final Types types = processingEnv.getTypeUtils();
+            for (final String name : MUTABLE_TYPES) {
+                final TypeElement mutableType = processingEnv.getElementUtils()
+                                                             .getTypeElement(name);
+                if ((null != mutableType)
+                    && types.isAssignable(types.erasure(type), types.erasure(mutableType.asType()))) {
+                    result = true;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final Element element : roundEnv.getElementsAnnotatedWith(ValueObject.class)) {
+            if (ElementKind.CLASS == element.getKind()) {
+                if (!isSuppressed(element)) {
+                    verifyFields(element);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void verifyFields(final Element valueObject) {
+        for (final Element field : ElementFilter.fieldsIn(valueObject.getEnclosedElements())) {
+            final Set<Modifier> modifiers = field.getModifiers();
+            if (!modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.TRANSIENT)
+                && !isSuppressed(field)) {
+                if (!modifiers.contains(Modifier.FINAL)) {
+                    processingEnv.getMessager()
+                                 .printMessage(Diagnostic.Kind.ERROR, "Field " + field.getSimpleName()
+                                     + " of value object " + valueObject + " should be final.", field);
+                } else if (isMutableType(field.asType())) {
+                    processingEnv.getMessager()
+                                 .printMessage(Diagnostic.Kind.ERROR, "Field " + field.getSimpleName()
+                                     + " of value object " + valueObject + " holds mutable " + field.asType() + ".",
+                                     field);
+                }
+            }
+        }
+    }
+
+}
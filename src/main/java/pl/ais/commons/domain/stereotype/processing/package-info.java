@@ -0,0 +1,4 @@
+/**
+ * Provides compile-time verification of the domain stereotypes.
+ */
+package pl.ais.commons.domain.stereotype.processing;
@@ -0,0 +1,76 @@
+package pl.ais.commons.domain.lifecycle;
+
+import org.junit.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import pl.ais.commons.domain.security.PassThroughCryptographicService;
+import pl.ais.commons.domain.security.crypto.CipherPool;
+import pl.ais.commons.domain.security.crypto.Cipherer;
+import pl.ais.commons.domain.specification.simple.RegexSpecification;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies {@link WarmUpLifecycle} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("static-method")
+public class WarmUpLifecycleExpectations {
+
+    private static final Key KEY = new SecretKeySpec("AdenosineTriphos".getBytes(), "AES");
+
+    /**
+     * Verifies if registered paths are warmed up when the application context is refreshed.
+     */
+    @Test
+    public void shouldWarmUpRegisteredPathsOnContextRefresh() {
+
+        // Given warm-up component registering cipherer, pattern, email address and custom path, ...
+        final CipherPool pool = new CipherPool(4, 4);
+        final AtomicInteger counter = new AtomicInteger();
+        final WarmUpLifecycle lifecycle = new WarmUpLifecycle();
+        lifecycle.setIterations(10);
+        lifecycle.setPrefillCount(2);
+        lifecycle.addCipherer(new Cipherer("AES/ECB/PKCS5Padding", KEY, pool), new byte[64])
+                 .addEncryptor(new PassThroughCryptographicService(), "sample")
+                 .addPattern("[0-9]{2}-[0-9]{3}", "00-950")
+                 .addEmail("john.doe@example.com")
+                 .addPath(counter::incrementAndGet);
+
+        // ... when the application context declaring it is refreshed, ...
+        try (GenericApplicationContext context = new GenericApplicationContext()) {
+            context.registerBean(WarmUpLifecycle.class, () -> lifecycle);
+            context.refresh();
+
+            // ... the component should be running, each path should be run given number of times, ...
+            assertTrue("Warm-up component should be running.", lifecycle.isRunning());
+            assertEquals("Custom path should be run for each iteration.", 10, counter.get());
+
+            // ... the pool should be pre-filled for encryption and decryption (so there are no subsequent misses), ...
+            assertEquals("Pool should hold ciphers for encryption and decryption.", 2, pool.size());
+            assertEquals("Pool should create pre-filled ciphers only.", 4, pool.getMissCount());
+
+            // ... and the pattern should be pre-compiled.
+            assertSame("Pattern should be pre-compiled.", RegexSpecification.precompile("[0-9]{2}-[0-9]{3}"),
+                RegexSpecification.precompile("[0-9]{2}-[0-9]{3}"));
+        }
+        assertFalse("Warm-up component should be stopped with the context.", lifecycle.isRunning());
+    }
+
+    /**
+     * Verifies if invalid email address sample is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidEmailSample() {
+        new WarmUpLifecycle().addEmail("john.doe");
+    }
+
+}
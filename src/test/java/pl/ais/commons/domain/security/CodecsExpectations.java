@@ -0,0 +1,96 @@
+package pl.ais.commons.domain.security;
+
+import org.junit.Test;
+import pl.ais.commons.domain.security.crypto.EnvelopeAlgorithm;
+import pl.ais.commons.domain.security.crypto.KeyRing;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.util.SerializationUtils.deserialize;
+import static org.springframework.util.SerializationUtils.serialize;
+
+/**
+ * Verifies {@link Codecs} and {@link CodecCryptographicService} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+public class CodecsExpectations {
+
+    private static <T> void assertRoundTrip(final Codec<T> codec, final List<T> values) {
+        for (final T value : values) {
+            assertEquals("Decoded value should be equal to encoded one.", value, codec.decode(codec.encode(value)));
+        }
+    }
+
+    /**
+     * Verifies if built-in codecs decode the values they encoded, including the boundary ones.
+     */
+    @Test
+    public void shouldDecodeEncodedValues() {
+        assertRoundTrip(Codecs.integers(), Arrays.asList(0, -1, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertRoundTrip(Codecs.longs(), Arrays.asList(0L, -1L, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertRoundTrip(Codecs.varLongs(), Arrays.asList(0L, -1L, 63L, -64L, 64L, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertRoundTrip(Codecs.uuids(), Arrays.asList(UUID.randomUUID(), new UUID(0, 0)));
+        assertRoundTrip(Codecs.localDates(), Arrays.asList(LocalDate.of(2020, 2, 29), LocalDate.MIN, LocalDate.MAX));
+        assertRoundTrip(Codecs.instants(), Arrays.asList(Instant.now(), Instant.MIN, Instant.MAX));
+        assertRoundTrip(Codecs.bigDecimals(), Arrays.asList(new BigDecimal("1234.5600"), BigDecimal.ZERO,
+            new BigDecimal("-1E+30"), new BigDecimal("0.000000000000000000001")));
+        assertRoundTrip(Codecs.strings(StandardCharsets.UTF_8), Arrays.asList("", "Adenosine", "Zażółć"));
+    }
+
+    /**
+     * Verifies if variable-length codec encodes small numbers into single byte.
+     */
+    @Test
+    public void shouldEncodeSmallNumbersCompactly() {
+        assertEquals("Small number should take single byte.", 1, Codecs.varLongs().encode(-64L).length);
+        assertEquals("Larger number should take two bytes.", 2, Codecs.varLongs().encode(64L).length);
+        assertEquals("The largest number should take ten bytes.", 10, Codecs.varLongs().encode(Long.MIN_VALUE).length);
+    }
+
+    /**
+     * Verifies if typed values are encrypted by the service, and decrypted by serializable decryptable values.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldEncryptTypedValues() {
+
+        // Given typed service using the key ring, ...
+        final KeyRing keyRing = new KeyRing(EnvelopeAlgorithm.AES_GCM, 1, new SecretKeySpec(new byte[16], "AES"));
+        final CodecCryptographicService<LocalDate> service =
+            new CodecCryptographicService<>(Codecs.localDates(), keyRing);
+        final LocalDate date = LocalDate.of(1929, 10, 24);
+
+        // ... when we encrypt the value, ...
+        final DecryptableValue<LocalDate> encrypted = service.encrypt(date);
+
+        // ... it should be decryptable by the service.
+        assertEquals("Decrypted value should be equal to unencrypted.", date, service.decrypt(encrypted));
+        assertEquals("Decrypted value should be equal to unencrypted.", date, encrypted.decrypt());
+    }
+
+    /**
+     * Verifies if the values created by the factory using the codec are serializable, if the decryptor is.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldDecodeDeserializedValues() {
+        final UUID uuid = UUID.randomUUID();
+        final Decryptor<byte[]> decryptor = (Decryptor<byte[]> & Serializable) DecryptableValue::getEncryptedValue;
+        final DecryptableValue<UUID> value = DefaultDecryptableValue.factory(decryptor, Codecs.uuids())
+                                                                    .decryptableValue(Codecs.uuids().encode(uuid));
+        final DecryptableValue<UUID> deserialized = (DecryptableValue<UUID>) deserialize(serialize(value));
+        assertEquals("Deserialized value should be decoded.", uuid, deserialized.decrypt());
+    }
+
+}
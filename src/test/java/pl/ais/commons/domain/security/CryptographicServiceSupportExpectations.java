@@ -0,0 +1,97 @@
+package pl.ais.commons.domain.security;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Verifies {@link CryptographicServiceSupport} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("static-method")
+public class CryptographicServiceSupportExpectations {
+
+    /**
+     * Verifies if batch processed in parallel preserves the order of values, and handles {@code null}s the same way
+     * as single-value operations.
+     */
+    @Test
+    public void parallelBatchShouldPreserveOrderAndNulls() {
+
+        // Given service splitting batches larger than 4 values across the fork-join pool, ...
+        final PassThroughCryptographicService service = new PassThroughCryptographicService();
+        service.setBatchExecution(BatchExecution.forkJoin(ForkJoinPool.commonPool(), 4));
+        final List<String> unencrypted = new ArrayList<>();
+        for (int index = 0; index < 100; index++) {
+            unencrypted.add((0 == (index % 10)) ? null : "Value " + index);
+        }
+
+        // ... when we encrypt and decrypt batch of values, ...
+        final List<DecryptableValue<String>> encrypted = service.encryptAll(unencrypted);
+        final List<String> decrypted = service.decryptAll(encrypted);
+
+        // ... decrypted values should be equal to unencrypted ones, and modifiable (as the sequential ones).
+        assertNull("Null value should be encrypted into null.", encrypted.get(0));
+        assertEquals("Decrypted values should be equal to unencrypted.", unencrypted, decrypted);
+        assertTrue("Decrypted values should be modifiable.", decrypted.add(null));
+    }
+
+    /**
+     * Verifies if asynchronous operations use predefined executor, and propagate the failures.
+     */
+    @Test
+    public void asynchronousOperationsShouldUsePredefinedExecutor() {
+
+        // Given service using bounded executor, ...
+        final PassThroughCryptographicService service = new PassThroughCryptographicService();
+        final ExecutorService executor = CryptographicExecutors.bounded(2, 16);
+        service.setExecutor(executor);
+        try {
+
+            // ... when we encrypt and decrypt value asynchronously, ...
+            final CompletableFuture<String> decrypted = service.encryptAsync("Adenosine")
+                                                               .thenCompose(service::decryptAsync);
+
+            // ... decrypted value should be equal to unencrypted, ...
+            assertEquals("Decrypted value should be equal to unencrypted.", "Adenosine", decrypted.join());
+
+            // ... and the failure of decryption should complete the future exceptionally.
+            final DecryptableValue<String> broken = new DecryptableValue<String>() {
+
+                @Override
+                public String decrypt() {
+                    return service.decrypt(this);
+                }
+
+                @Override
+                public byte[] getEncryptedValue() {
+                    throw new IllegalStateException("Broken value.");
+                }
+
+            };
+            try {
+                service.decryptAsync(broken)
+                       .join();
+                fail("Failure should be propagated.");
+            } catch (final CompletionException exception) {
+                assertTrue("Original exception should be the cause.",
+                    exception.getCause() instanceof IllegalStateException);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
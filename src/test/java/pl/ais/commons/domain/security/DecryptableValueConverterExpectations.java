@@ -0,0 +1,71 @@
+package pl.ais.commons.domain.security;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Verifies {@link DecryptableValueConverter} and {@link Base64DecryptableValueConverter} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+public class DecryptableValueConverterExpectations {
+
+    private final PassThroughCryptographicService service = new PassThroughCryptographicService();
+
+    private final AtomicInteger decryptions = new AtomicInteger();
+
+    private final Decryptor<String> counting = value -> {
+        decryptions.incrementAndGet();
+        return service.decrypt(value);
+    };
+
+    /**
+     * Verifies if converted column values are decrypted lazily, on the first decryption only.
+     */
+    @Test
+    public void shouldDecryptLoadedValuesLazily() {
+
+        // Given converter creating lazily decrypted values, ...
+        final DecryptableValueConverter<String> converter = new DecryptableValueConverter<String>(
+            DefaultDecryptableValue.factory(counting)) {
+        };
+        final byte[] column = converter.convertToDatabaseColumn(service.encrypt("Adenosine"));
+
+        // ... when we convert many column values into attributes, ...
+        DecryptableValue<String> attribute = null;
+        for (int index = 0; index < 1000; index++) {
+            attribute = converter.convertToEntityAttribute(column);
+        }
+
+        // ... no value should be decrypted, ...
+        assertEquals("Loading should not decrypt the values.", 0, decryptions.get());
+        assertArrayEquals("Encrypted value should be preserved.", column, attribute.getEncryptedValue());
+
+        // ... and the value should be decrypted once, when requested.
+        assertEquals("Decrypted value should be equal to unencrypted.", "Adenosine", attribute.decrypt());
+        assertEquals("Decrypted value should be equal to unencrypted.", "Adenosine", attribute.decrypt());
+        assertEquals("Value should be decrypted once.", 1, decryptions.get());
+    }
+
+    /**
+     * Verifies if Base64 converter converts the values back and forth, handling {@code null}s.
+     */
+    @Test
+    public void shouldConvertBase64ColumnValues() {
+        final Base64DecryptableValueConverter<String> converter = new Base64DecryptableValueConverter<String>(
+            DefaultDecryptableValue.factory(counting)) {
+        };
+        final String column = converter.convertToDatabaseColumn(service.encrypt("Adenosine"));
+        assertEquals("Decrypted value should be equal to unencrypted.", "Adenosine",
+            converter.convertToEntityAttribute(column).decrypt());
+        assertNull("Null attribute should be converted into null.", converter.convertToDatabaseColumn(null));
+        assertNull("Null column value should be converted into null.", converter.convertToEntityAttribute(null));
+    }
+
+}
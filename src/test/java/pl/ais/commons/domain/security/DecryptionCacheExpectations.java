@@ -0,0 +1,157 @@
+package pl.ais.commons.domain.security;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Verifies {@link DecryptionCache} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+public class DecryptionCacheExpectations {
+
+    private final PassThroughCryptographicService service = new PassThroughCryptographicService();
+
+    private final AtomicInteger decryptions = new AtomicInteger();
+
+    private final Decryptor<String> counting = value -> {
+        decryptions.incrementAndGet();
+        return service.decrypt(value);
+    };
+
+    /**
+     * Verifies if the same encrypted value, enclosed by distinct instances, is decrypted only once.
+     */
+    @Test
+    public void shouldDecryptSameEncryptedValueOnce() {
+
+        // Given cache in front of the decryptor, ...
+        final DecryptionCache<String> cache = DecryptionCache.of(counting, 100);
+
+        // ... when we decrypt distinct instances enclosing the same encrypted value, ...
+        final String first = cache.decrypt(service.encrypt("Adenosine"));
+        final String second = cache.decrypt(service.encrypt("Adenosine"));
+
+        // ... the value should be decrypted once, and served by the cache afterwards.
+        assertEquals("Cached value should be equal to decrypted one.", first, second);
+        assertEquals("Value should be decrypted once.", 1, decryptions.get());
+        assertEquals("Cache should report one hit.", 1, cache.getHitCount());
+        assertEquals("Cache should report hit rate.", 0.5, cache.getHitRate(), 0.0);
+    }
+
+    /**
+     * Verifies if the cache is bounded, and wipes evicted values.
+     */
+    @Test
+    public void shouldEvictAndWipeValuesExceedingTheBound() {
+
+        // Given cache bounded to 16 values, wiping evicted ones, ...
+        final List<String> wiped = new ArrayList<>();
+        final DecryptionCache<String> cache = DecryptionCache.of(counting, 16)
+                                                             .withWiper(wiped::add, UnaryOperator.identity());
+
+        // ... when we decrypt much more distinct values, ...
+        for (int index = 0; index < 1000; index++) {
+            cache.decrypt(service.encrypt("Value " + index));
+        }
+
+        // ... cache should hold 16 values at most, and wipe the evicted ones.
+        assertEquals("Cache should be filled up to its bound.", 16, cache.size());
+        assertEquals("Evicted values should be wiped.", cache.getEvictionCount(), wiped.size());
+        assertEquals("All values should be either cached or evicted.", 1000, cache.size() + wiped.size());
+    }
+
+    /**
+     * Verifies if expired values are decrypted again.
+     *
+     * @throws InterruptedException if the current thread has been interrupted
+     */
+    @Test
+    public void shouldDecryptExpiredValueAgain() throws InterruptedException {
+        final DecryptionCache<String> cache = DecryptionCache.of(counting, 100)
+                                                             .withTimeToLive(Duration.ofMillis(1));
+        cache.decrypt(service.encrypt("Adenosine"));
+        Thread.sleep(5);
+        cache.decrypt(service.encrypt("Adenosine"));
+        assertEquals("Expired value should be decrypted again.", 2, decryptions.get());
+    }
+
+    /**
+     * Verifies if expired values are wiped, even if they are never requested again.
+     *
+     * @throws InterruptedException if the current thread has been interrupted
+     */
+    @Test
+    public void shouldWipeExpiredValuesWithoutRequestingThem() throws InterruptedException {
+
+        // Given cache holding several values, which expired in the meantime, ...
+        final List<String> wiped = new ArrayList<>();
+        final DecryptionCache<String> cache = DecryptionCache.of(counting, 100)
+                                                             .withTimeToLive(Duration.ofMillis(20))
+                                                             .withWiper(wiped::add, UnaryOperator.identity());
+        for (int index = 0; index < 10; index++) {
+            cache.decrypt(service.encrypt("Stale " + index));
+        }
+        Thread.sleep(50);
+
+        // when other value is decrypted, ...
+        cache.decrypt(service.encrypt("Fresh"));
+
+        // then all the expired values should be wiped.
+        assertEquals("All expired values should be wiped.", 10, wiped.size());
+        assertEquals("Cache should hold only the fresh value.", 1, cache.size());
+    }
+
+    /**
+     * Verifies if the bound applies to the cache as a whole, not to each of its segments.
+     */
+    @Test
+    public void shouldRespectTheBoundOfWholeCache() {
+        final DecryptionCache<String> cache = DecryptionCache.of(counting, 1);
+        for (int index = 0; index < 100; index++) {
+            cache.decrypt(service.encrypt("Value " + index));
+        }
+        assertEquals("Cache should hold single value.", 1, cache.size());
+        assertEquals("Cache should weigh as much as single value.", 1, cache.getWeight());
+    }
+
+    /**
+     * Verifies if cached byte arrays are handed out as copies, and wiped when evicted.
+     */
+    @Test
+    public void shouldCopyAndWipeCachedByteArrays() {
+
+        // Given byte array cache holding single value, ...
+        final List<byte[]> decrypted = new ArrayList<>();
+        final Decryptor<byte[]> decryptor = value -> {
+            final byte[] result = value.getEncryptedValue();
+            decrypted.add(result);
+            return result;
+        };
+        final DecryptableValueFactory<byte[], DefaultDecryptableValue<byte[]>> factory =
+            DefaultDecryptableValue.factory(decryptor);
+        final DecryptionCache<byte[]> cache = DecryptionCache.of(decryptor, 1);
+
+        // ... when the caller wipes decrypted value, ...
+        final byte[] first = cache.decrypt(factory.decryptableValue(new byte[]{1, 2, 3}));
+        first[0] = 0;
+
+        // ... the cached value should stay intact, ...
+        assertArrayEquals("Cached value should not be affected by the caller.", new byte[]{1, 2, 3},
+            cache.decrypt(factory.decryptableValue(new byte[]{1, 2, 3})));
+
+        // ... and should be wiped when evicted.
+        cache.decrypt(factory.decryptableValue(new byte[]{4, 5, 6}));
+        assertArrayEquals("Evicted value should be wiped.", new byte[3], decrypted.get(0));
+    }
+
+}
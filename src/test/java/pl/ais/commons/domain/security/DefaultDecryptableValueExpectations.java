@@ -2,6 +2,19 @@ package pl.ais.commons.domain.security;
 
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.springframework.util.SerializationUtils.deserialize;
 import static org.springframework.util.SerializationUtils.serialize;
@@ -14,6 +27,21 @@ import static org.springframework.util.SerializationUtils.serialize;
  */
 public class DefaultDecryptableValueExpectations {
 
+    /**
+     * Value "Adenosine" encrypted by UTF-8 pass-through service, serialized by the version preceding 1.2.5.
+     */
+    private static final String LEGACY_STREAM = "rO0ABXNyADZwbC5haXMuY29tbW9ucy5kb21haW4uc2VjdXJpdHkuRGVmYXVsdERlY3J5cHRhYmxlVmFsdWW+420VKPJbBwIAA0wA"
+        + "CWRlY3J5cHRvcnQAKkxwbC9haXMvY29tbW9ucy9kb21haW4vc2VjdXJpdHkvRGVjcnlwdG9yO1sADmVuY3J5cHRlZFZhbHVldAAC"
+        + "W0JMAARsb2NrdAAqTGphdmEvdXRpbC9jb25jdXJyZW50L2xvY2tzL1JlZW50cmFudExvY2s7eHBzcgBUcGwuYWlzLmNvbW1vbnMu"
+        + "ZG9tYWluLnNlY3VyaXR5LlBhc3NUaHJvdWdoQ3J5cHRvZ3JhcGhpY1NlcnZpY2UkU2VyaWFsaXphYmxlRGVjcnlwdG9yFhQYgfPm"
+        + "8j0CAAFMAAtjaGFyc2V0TmFtZXQAEkxqYXZhL2xhbmcvU3RyaW5nO3hwdAAFVVRGLTh1cgACW0Ks8xf4BghU4AIAAHhwAAAACUFk"
+        + "ZW5vc2luZXNyAChqYXZhLnV0aWwuY29uY3VycmVudC5sb2Nrcy5SZWVudHJhbnRMb2NrZlWoLCzIausCAAFMAARzeW5jdAAvTGph"
+        + "dmEvdXRpbC9jb25jdXJyZW50L2xvY2tzL1JlZW50cmFudExvY2skU3luYzt4cHNyADRqYXZhLnV0aWwuY29uY3VycmVudC5sb2Nr"
+        + "cy5SZWVudHJhbnRMb2NrJE5vbmZhaXJTeW5jZYgy51N7vwsCAAB4cgAtamF2YS51dGlsLmNvbmN1cnJlbnQubG9ja3MuUmVlbnRy"
+        + "YW50TG9jayRTeW5juB6ilKpEWnwCAAB4cgA1amF2YS51dGlsLmNvbmN1cnJlbnQubG9ja3MuQWJzdHJhY3RRdWV1ZWRTeW5jaHJv"
+        + "bml6ZXJmVahDdT9S4wIAAUkABXN0YXRleHIANmphdmEudXRpbC5jb25jdXJyZW50LmxvY2tzLkFic3RyYWN0T3duYWJsZVN5bmNo"
+        + "cm9uaXplcjPfr7mtbW+pAgAAeHAAAAAA";
+
     /**
      * Verifies if {@link DefaultDecryptableValue} is serializable, if applicable decryptor is serializable too.
      */
@@ -28,4 +56,129 @@ public class DefaultDecryptableValueExpectations {
         assertTrue("Deserialized instance differs from initial one.", (encrypted.hashCode() == deserialized.hashCode())
             && encrypted.equals(deserialized));
     }
+
+    /**
+     * Verifies if de-serialized {@link DefaultDecryptableValue} can be decrypted.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldDecryptDeserializedValue() {
+        final String unencrypted = "Adenosine diphosphate";
+        final PassThroughCryptographicService service = new PassThroughCryptographicService();
+        final DefaultDecryptableValue<String> encrypted = DefaultDecryptableValue.factory(service.getDecryptor())
+            .decryptableValue(service.encrypt(unencrypted).getEncryptedValue());
+        final DefaultDecryptableValue<String> deserialized = (DefaultDecryptableValue<String>) deserialize(serialize(encrypted));
+        assertEquals("Deserialized instance should be decryptable.", unencrypted, deserialized.decrypt());
+    }
+
+    /**
+     * Verifies if streams written by the versions preceding 1.2.5 remain readable.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldReadStreamsWrittenByFormerVersions() {
+        final byte[] stream = Base64.getDecoder().decode(LEGACY_STREAM);
+        final DecryptableValue<String> deserialized = (DecryptableValue<String>) deserialize(stream);
+        assertEquals("Deserialized instance should be decryptable.", "Adenosine", deserialized.decrypt());
+        assertTrue("Compact form should be smaller.", serialize(deserialized).length < (stream.length / 2));
+    }
+
+    /**
+     * Verifies if values serialized in compact form are restored, and the decryptor is written once per stream.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldRestoreValuesSerializedInCompactForm() {
+
+        // Given serializable values encrypted by distinct services using the same charset, ...
+        final List<DecryptableValue<String>> values = new ArrayList<>();
+        for (int index = 0; index < 100; index++) {
+            values.add(new PassThroughCryptographicService(StandardCharsets.UTF_8).encrypt("Value " + index));
+        }
+
+        // ... when we serialize and deserialize them, ...
+        final byte[] stream = serialize(new ArrayList<>(values));
+        final List<DecryptableValue<String>> deserialized = (List<DecryptableValue<String>>) deserialize(stream);
+
+        // ... deserialized values should be equal to initial ones, ...
+        assertEquals("Deserialized values should be equal to initial ones.", values, deserialized);
+        assertEquals("Deserialized values should be decryptable.", "Value 99", deserialized.get(99).decrypt());
+
+        // ... and each of them should take little more than its encrypted bytes.
+        assertTrue("Values should be serialized in compact form.", stream.length < (100 * 40));
+    }
+
+    /**
+     * Verifies if the stream holding other object in place of the decryptor is rejected as invalid.
+     *
+     * @throws IOException            if the stream cannot be read
+     * @throws ClassNotFoundException if the class of serialized object cannot be found
+     */
+    @Test(expected = InvalidObjectException.class)
+    public void shouldRejectStreamHoldingNoDecryptor() throws IOException, ClassNotFoundException {
+
+        // Given stream holding the value, in which the decryptor has been replaced with other object, ...
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(stream) {
+            {
+                enableReplaceObject(true);
+            }
+
+            @Override
+            protected Object replaceObject(final Object object) {
+                return (object instanceof Decryptor) ? "Not a decryptor" : object;
+            }
+        }) {
+            output.writeObject(DefaultDecryptableValue.factory(new ConstantDecryptor())
+                                                      .decryptableValue(new byte[]{1, 2, 3}));
+        }
+
+        // ... when we deserialize it, it should be rejected as invalid.
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(stream.toByteArray()))) {
+            input.readObject();
+        }
+    }
+
+    /**
+     * Verifies if the stream referring to unsupported charset is rejected as invalid.
+     *
+     * @throws IOException            if the stream cannot be read
+     * @throws ClassNotFoundException if the class of serialized object cannot be found
+     */
+    @Test(expected = InvalidObjectException.class)
+    public void shouldRejectStreamReferringToUnsupportedCharset() throws IOException, ClassNotFoundException {
+
+        // Given stream holding the value, in which the charset name has been replaced with unsupported one, ...
+        final byte[] stream = serialize(new PassThroughCryptographicService(StandardCharsets.UTF_8).encrypt("Value"));
+        final byte[] charsetName = "UTF-8".getBytes(StandardCharsets.US_ASCII);
+        for (int index = 0; index <= (stream.length - charsetName.length); index++) {
+            boolean found = true;
+            for (int offset = 0; found && (offset < charsetName.length); offset++) {
+                found = stream[index + offset] == charsetName[offset];
+            }
+            if (found) {
+                stream[index] = 'X';
+            }
+        }
+
+        // ... when we deserialize it, it should be rejected as invalid.
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(stream))) {
+            input.readObject();
+        }
+    }
+
+    /**
+     * Serializable decryptor, decrypting all the values to the same one.
+     */
+    private static final class ConstantDecryptor implements Decryptor<String>, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String decrypt(final DecryptableValue<String> value) {
+            return "Value";
+        }
+
+    }
+
 }
@@ -0,0 +1,83 @@
+package pl.ais.commons.domain.security;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies {@link OffHeapDecryptableValue} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+public class OffHeapDecryptableValueExpectations {
+
+    private final SlabAllocator allocator = new SlabAllocator(4096);
+
+    private final Decryptor<byte[]> decryptor = DecryptableValue::getEncryptedValue;
+
+    /**
+     * Verifies if decrypted value is held off-heap, and wiped and released on close.
+     */
+    @Test
+    public void shouldWipeAndReleaseDecryptedValueOnClose() {
+
+        // Given off-heap decryptable value, ...
+        final byte[] unencrypted = "Adenosine".getBytes(StandardCharsets.UTF_8);
+        final OffHeapDecryptableValue value = OffHeapDecryptableValue.factory(decryptor, allocator)
+                                                                     .decryptableValue(unencrypted);
+
+        // ... when we decrypt it, ...
+        final ByteBuffer plaintext = value.plaintext();
+
+        // ... decrypted value should be available as read-only, off-heap view, ...
+        assertTrue("Decrypted value should be held off-heap.", plaintext.isDirect() && plaintext.isReadOnly());
+        assertArrayEquals("Decrypted value should be equal to unencrypted.", unencrypted, value.decrypt());
+        assertEquals("Decrypted value should be decoded.", "Adenosine", value.decryptToString(StandardCharsets.UTF_8));
+        assertEquals("Chunk should be allocated.", 16, allocator.getAllocatedBytes());
+
+        // ... and closing the value should wipe and release decrypted value.
+        value.close();
+        assertEquals("Decrypted value should be wiped.", 0, plaintext.get(0));
+        assertEquals("Chunk should be released.", 0, allocator.getAllocatedBytes());
+        try {
+            value.plaintext();
+            throw new AssertionError("Closed value should not be decryptable.");
+        } catch (final IllegalStateException exception) {
+            assertTrue("Value should be closed.", value.isClosed());
+        }
+    }
+
+    /**
+     * Verifies if released chunks are reused, and the chunks of unreachable values are released.
+     *
+     * @throws InterruptedException if the current thread has been interrupted
+     */
+    @Test
+    public void shouldReuseReleasedChunks() throws InterruptedException {
+        for (int index = 0; index < 10_000; index++) {
+            try (OffHeapDecryptableValue value = new OffHeapDecryptableValue(decryptor, new byte[100], allocator)) {
+                value.plaintext();
+            }
+        }
+        assertEquals("Released chunks should be reused.", 1, allocator.getSlabCount());
+
+        for (int index = 0; index < 100; index++) {
+            new OffHeapDecryptableValue(decryptor, new byte[100], allocator).plaintext();
+        }
+        for (int attempt = 0; (attempt < 50) && (0 < allocator.getAllocatedBytes()); attempt++) {
+            System.gc();
+            Thread.sleep(10);
+            allocator.allocate(this, 0)
+                     .close();
+        }
+        assertEquals("Chunks of unreachable values should be released.", 0, allocator.getAllocatedBytes());
+        assertEquals("Chunks of unreachable values should be cleaned.", 100, allocator.getCleanedCount());
+    }
+
+}
@@ -0,0 +1,65 @@
+package pl.ais.commons.domain.security.crypto;
+
+import org.junit.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Verifies {@link BlindIndex} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+public class BlindIndexExpectations {
+
+    private final BlindIndex index = new BlindIndex(new SecretKeySpec(new byte[32], "HmacSHA256"));
+
+    /**
+     * Verifies if the same value always produces the same token, while distinct values and keys produce distinct ones.
+     */
+    @Test
+    public void shouldGenerateStableKeyedTokens() {
+
+        // Given encrypted values of the same email, ...
+        final Cipherer cipherer = Cipherer.enveloped(EnvelopeAlgorithm.AES_GCM, new SecretKeySpec(new byte[16], "AES"));
+        final byte[] email = "john.doe@example.com".getBytes(StandardCharsets.UTF_8);
+        final byte[] first = cipherer.encrypt(email).getEncryptedValue();
+        final byte[] second = cipherer.encrypt(email).getEncryptedValue();
+
+        // ... when we generate the tokens of the email, ...
+        final String token = index.encodedToken("john.doe@example.com");
+
+        // ... tokens should be equal, although the encrypted values differ, ...
+        assertNotEquals("Encrypted values should differ.", new String(first, StandardCharsets.ISO_8859_1),
+            new String(second, StandardCharsets.ISO_8859_1));
+        assertEquals("Tokens of the same value should be equal.", token, index.encodedToken(email));
+
+        // ... and tokens of other value, or generated using other key, should differ.
+        assertNotEquals("Tokens of distinct values should differ.", token, index.encodedToken("jane.doe@example.com"));
+        final byte[] otherKey = new byte[32];
+        otherKey[0] = 1;
+        assertNotEquals("Tokens generated using distinct keys should differ.", token,
+            new BlindIndex(new SecretKeySpec(otherKey, "HmacSHA256")).encodedToken(email));
+        assertNull("Null value should have null token.", index.token(null));
+    }
+
+    /**
+     * Verifies if truncated tokens are the prefixes of full-length ones.
+     */
+    @Test
+    public void shouldTruncateTokens() {
+        final BlindIndex truncated = index.withLength(8);
+        final byte[] token = truncated.token("Adenosine", StandardCharsets.UTF_8);
+        assertEquals("Token should be truncated.", 8, token.length);
+        final byte[] prefix = new byte[8];
+        System.arraycopy(index.token("Adenosine", StandardCharsets.UTF_8), 0, prefix, 0, 8);
+        assertArrayEquals("Truncated token should be the prefix of full-length one.", prefix, token);
+    }
+
+}
@@ -0,0 +1,153 @@
+package pl.ais.commons.domain.security.crypto;
+
+import org.junit.Test;
+import pl.ais.commons.domain.security.DecryptableValue;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Verifies {@link CipherPool} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("static-method")
+public class CipherPoolExpectations {
+
+    private static final Key KEY = new SecretKeySpec("AdenosineTriphos".getBytes(), "AES");
+
+    /**
+     * Verifies if released cipher is reused by subsequent acquisitions.
+     *
+     * @throws GeneralSecurityException if the cipher cannot be created
+     */
+    @Test
+    public void shouldReuseReleasedCipher() throws GeneralSecurityException {
+
+        // Given pool, from which cipher has been acquired and released, ...
+        final CipherPool pool = new CipherPool(2, 4);
+        final CipherPool.Spec spec = new CipherPool.Spec("AES/CBC/PKCS5Padding", Cipher.ENCRYPT_MODE, KEY,
+            new IvParameterSpec(new byte[16]));
+        final Cipher cipher = pool.acquire(spec);
+        pool.release(spec, cipher);
+
+        // ... when we acquire the cipher again, ...
+        final Cipher reused = pool.acquire(spec);
+
+        // ... we should get the same instance, and the statistics should reflect it.
+        assertEquals("Released cipher should be reused.", cipher, reused);
+        assertEquals("Pool should report one hit.", 1, pool.getHitCount());
+        assertEquals("Pool should report one miss.", 1, pool.getMissCount());
+    }
+
+    /**
+     * Verifies if ciphers encrypting using fixed nonce are not reused.
+     *
+     * @throws GeneralSecurityException if the cipher cannot be created
+     */
+    @Test
+    public void shouldNotReuseNonceBasedEncryptionCipher() throws GeneralSecurityException {
+        final CipherPool pool = new CipherPool(2, 4);
+        final CipherPool.Spec spec = new CipherPool.Spec("AES/GCM/NoPadding", Cipher.ENCRYPT_MODE, KEY,
+            new GCMParameterSpec(128, new byte[12]));
+        pool.release(spec, pool.acquire(spec));
+        pool.acquire(spec);
+        assertEquals("Pool should report no hits.", 0, pool.getHitCount());
+    }
+
+    /**
+     * Verifies if ciphers initialized with given key are evicted on request.
+     *
+     * @throws GeneralSecurityException if the cipher cannot be created
+     */
+    @Test
+    public void shouldEvictCiphersUsingGivenKey() throws GeneralSecurityException {
+        final CipherPool pool = new CipherPool(2, 4);
+        final CipherPool.Spec spec = new CipherPool.Spec("AES/ECB/PKCS5Padding", Cipher.DECRYPT_MODE, KEY, null);
+        pool.release(spec, pool.acquire(spec));
+        pool.evict(KEY);
+        assertEquals("Pool should be empty after eviction.", 0, pool.size());
+        assertEquals("Pool should report one eviction.", 1, pool.getEvictionCount());
+    }
+
+    /**
+     * Verifies if pooled ciphers produce the same results as fresh ones.
+     */
+    @Test
+    public void pooledCiphererShouldProduceConsistentResults() {
+        final byte[] unencrypted = "Adenosine monophosphate".getBytes();
+        final Cipherer cipherer = new Cipherer("AES/CBC/PKCS5Padding", KEY, new IvParameterSpec(new byte[16]),
+            new CipherPool(1, 1));
+        final byte[] first = cipherer.encrypt(unencrypted).getEncryptedValue();
+        final byte[] second = cipherer.encrypt(unencrypted).getEncryptedValue();
+        assertArrayEquals("Pooled cipher should produce the same ciphertext.", first, second);
+        assertArrayEquals("Decrypted value should be equal to unencrypted.", unencrypted,
+            cipherer.encrypt(unencrypted).decrypt());
+    }
+
+    /**
+     * Verifies if pre-filled pool satisfies subsequent acquisitions using idle ciphers.
+     *
+     * @throws GeneralSecurityException if the cipher cannot be created
+     */
+    @Test
+    public void shouldSatisfyAcquisitionsFromPrefilledPool() throws GeneralSecurityException {
+
+        // Given pool pre-filled with more ciphers than it may keep, ...
+        final CipherPool pool = new CipherPool(2, 4);
+        final CipherPool.Spec spec = new CipherPool.Spec("AES/ECB/PKCS5Padding", Cipher.DECRYPT_MODE, KEY, null);
+        pool.prefill(spec, 3);
+
+        // ... when we acquire two ciphers, ...
+        pool.acquire(spec);
+        pool.acquire(spec);
+
+        // ... both should be taken from the pool, and only the limited number of ciphers should be created.
+        assertEquals("Pool should report two hits.", 2, pool.getHitCount());
+        assertEquals("Pool should create as many ciphers as it may keep.", 2, pool.getMissCount());
+    }
+
+    /**
+     * Verifies if pooled cipherer using nonce-based transformation without algorithm parameters encrypts repeatedly.
+     */
+    @Test
+    public void shouldEncryptRepeatedlyUsingNonceBasedTransformationWithoutParams() {
+        final byte[] unencrypted = "Adenosine monophosphate".getBytes();
+        final Cipherer cipherer = new Cipherer("AES/GCM/NoPadding", KEY, new CipherPool(1, 1));
+        for (int attempt = 0; attempt < 2; attempt++) {
+            assertEquals("Value should be encrypted on each attempt.", unencrypted.length + 16,
+                cipherer.encrypt(unencrypted).getEncryptedValue().length);
+        }
+    }
+
+    /**
+     * Verifies if pooled ChaCha20 decipherer using fixed algorithm parameters decrypts repeatedly.
+     */
+    @Test
+    public void shouldDecryptRepeatedlyUsingChaChaWithFixedParams() {
+
+        // Given value encrypted using ChaCha20, and decipherer using the same key and nonce, ...
+        final Key key = new SecretKeySpec("AdenosineTriphosphateAdenosineTr".getBytes(), "ChaCha20");
+        final IvParameterSpec params = new IvParameterSpec(new byte[12]);
+        final CipherPool pool = new CipherPool(1, 1);
+        final byte[] unencrypted = "Adenosine monophosphate".getBytes();
+        final DecryptableValue<byte[]> encrypted = new Cipherer("ChaCha20-Poly1305", key, params, pool).encrypt(
+            unencrypted);
+        final Decipherer decipherer = new Decipherer("ChaCha20-Poly1305", key, params, pool);
+
+        // ... when we decrypt the value twice, it should be decrypted both times.
+        for (int attempt = 0; attempt < 2; attempt++) {
+            assertArrayEquals("Value should be decrypted on each attempt.", unencrypted,
+                decipherer.decrypt(encrypted));
+        }
+    }
+
+}
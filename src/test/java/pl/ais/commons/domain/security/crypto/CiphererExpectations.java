@@ -1,9 +1,13 @@
 package pl.ais.commons.domain.security.crypto;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertTrue;
 
+import java.nio.ByteBuffer;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Arrays;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.IvParameterSpec;
@@ -48,4 +52,60 @@ public class CiphererExpectations {
         // ... decrypted value should be equal to unencrypted.
         assertEquals("Decrypted value should be equal to unencrypted.", unencrypted, decrypted);
     }
+
+    /**
+     * Verifies if value encrypted from direct buffer into direct buffer can be decrypted back into direct buffer.
+     */
+    @SuppressWarnings("static-method")
+    @Test
+    public void shouldBeAbleToDecryptDirectBuffers() {
+
+        // Given value encrypted by the cipherer from direct buffer into direct buffer, ...
+        final byte[] unencrypted = "Adenosine monophosphate".getBytes();
+        final Cipherer cipherer = new Cipherer("AES/CBC/PKCS5Padding", getSecretKey(), new IvParameterSpec(
+            randomCIV(16)));
+        final ByteBuffer input = ByteBuffer.allocateDirect(unencrypted.length);
+        input.put(unencrypted).flip();
+        final ByteBuffer output = ByteBuffer.allocateDirect(cipherer.getOutputSize(unencrypted.length));
+        final BufferDecipherableValue encrypted = cipherer.encrypt(input, output);
+
+        // ... when we decrypt the value into direct buffer, ...
+        final ByteBuffer decrypted = ByteBuffer.allocateDirect(encrypted.size());
+        final int length = encrypted.decrypt(decrypted);
+
+        // ... decrypted bytes should be equal to unencrypted.
+        final byte[] result = new byte[length];
+        ((ByteBuffer) decrypted.flip()).get(result);
+        assertEquals("Decrypted value should be equal to unencrypted.", new String(unencrypted), new String(result));
+        assertEquals("Decrypted value should be equal to unencrypted.", new String(unencrypted),
+            new String(encrypted.decrypt()));
+    }
+
+    /**
+     * Verifies if decipherable value hands out the copies of decrypted value, and equals to the value enclosing
+     * the same bytes.
+     */
+    @SuppressWarnings("static-method")
+    @Test
+    public void shouldHandOutCopiesOfDecryptedValue() {
+
+        // Given value encrypted by the cipherer, ...
+        final IvParameterSpec params = new IvParameterSpec(randomCIV(16));
+        final Cipherer cipherer = new Cipherer("AES/CBC/PKCS5Padding", getSecretKey(), params);
+        final DecipherableValue encrypted = cipherer.encrypt("Adenosine triphosphate".getBytes());
+
+        // ... when we decrypt the value, wipe the result, and decrypt the value again, ...
+        final byte[] first = encrypted.decrypt();
+        Arrays.fill(first, (byte) 0);
+        final byte[] second = encrypted.decrypt();
+
+        // ... wiping should not affect the value, and the value should equal to its copy.
+        assertNotSame("Each decryption should return distinct copy.", first, second);
+        assertTrue("Decrypted value should be equal to unencrypted.",
+            Arrays.equals("Adenosine triphosphate".getBytes(), second));
+        assertEquals("Values enclosing the same bytes should be equal.", encrypted,
+            new DecipherableValue(new Decipherer("AES/CBC/PKCS5Padding", getSecretKey()), params,
+                encrypted.getEncryptedValue()));
+    }
+
 }
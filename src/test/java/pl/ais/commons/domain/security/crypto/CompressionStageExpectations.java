@@ -0,0 +1,89 @@
+package pl.ais.commons.domain.security.crypto;
+
+import org.junit.Test;
+import pl.ais.commons.domain.security.DecryptableValue;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies {@link CompressionStage} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+public class CompressionStageExpectations {
+
+    private final KeyRing keyRing = new KeyRing(EnvelopeAlgorithm.AES_GCM, 1, new SecretKeySpec(new byte[16], "AES"));
+
+    private final CompressionStage stage = new CompressionStage(keyRing).withThreshold(64);
+
+    /**
+     * Verifies if compressible values exceeding the threshold are compressed before the encryption.
+     */
+    @Test
+    public void shouldCompressLargeValues() {
+
+        // Given large, compressible value, ...
+        final StringBuilder builder = new StringBuilder();
+        for (int index = 0; index < 1000; index++) {
+            builder.append("{\"id\":").append(index).append(",\"name\":\"Adenosine\"},");
+        }
+        final byte[] json = builder.toString().getBytes(StandardCharsets.UTF_8);
+
+        // ... when we encrypt it, ...
+        final DecryptableValue<byte[]> encrypted = stage.encrypt(json);
+
+        // ... encrypted value should be much shorter than the value itself, and decryptable by the stage only.
+        assertTrue("Value should be compressed.", encrypted.getEncryptedValue().length < (json.length / 4));
+        assertArrayEquals("Decrypted value should be equal to unencrypted.", json, encrypted.decrypt());
+        assertArrayEquals("Decrypted value should be equal to unencrypted.", json,
+            stage.decrypt(keyRing.encrypt(keyRing.decrypt(encrypted))));
+    }
+
+    /**
+     * Verifies if compressed value declaring the length it cannot expand to is rejected before the allocation.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTamperedLength() {
+
+        // Given payload declaring huge length of few deflated bytes, ...
+        final byte[] payload = new byte[1 + Varints.size(Integer.MAX_VALUE) + 8];
+        payload[0] = 1;
+        Varints.write(payload, 1, Integer.MAX_VALUE);
+
+        // ... when we decrypt it, IllegalArgumentException should be thrown.
+        stage.withMaximumLength(Integer.MAX_VALUE).decrypt(keyRing.encrypt(payload));
+    }
+
+    /**
+     * Verifies if compressed value exceeding the maximum length is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectValueExceedingMaximumLength() {
+        final DecryptableValue<byte[]> encrypted = stage.encrypt(new byte[4096]);
+        stage.withMaximumLength(1024).decrypt(keyRing.encrypt(keyRing.decrypt(encrypted)));
+    }
+
+    /**
+     * Verifies if small and incompressible values are stored as they are, prefixed with the flag only.
+     */
+    @Test
+    public void shouldStoreSmallAndIncompressibleValues() {
+        final byte[] small = "Adenosine".getBytes(StandardCharsets.UTF_8);
+        final byte[] random = new byte[4096];
+        new Random(7).nextBytes(random);
+        for (final byte[] value : new byte[][]{small, random, new byte[0]}) {
+            final DecryptableValue<byte[]> encrypted = stage.encrypt(value);
+            assertEquals("Value should be prefixed with the flag only.", value.length + 1,
+                keyRing.decrypt(encrypted).length);
+            assertArrayEquals("Decrypted value should be equal to unencrypted.", value, stage.decrypt(encrypted));
+        }
+    }
+
+}
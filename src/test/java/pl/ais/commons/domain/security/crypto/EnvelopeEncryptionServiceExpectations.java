@@ -0,0 +1,105 @@
+package pl.ais.commons.domain.security.crypto;
+
+import org.junit.Before;
+import org.junit.Test;
+import pl.ais.commons.domain.security.DecryptableValue;
+import pl.ais.commons.domain.security.DefaultDecryptableValue;
+
+import javax.crypto.KeyGenerator;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.time.Duration;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Verifies {@link EnvelopeEncryptionService} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+public class EnvelopeEncryptionServiceExpectations {
+
+    private static final char[] PASSWORD = "changeit".toCharArray();
+
+    private static final byte[] PLAINTEXT = "Lorem ipsum dolor sit amet".getBytes(StandardCharsets.UTF_8);
+
+    private MasterKeyProvider masterKeyProvider;
+
+    /**
+     * Creates the master key provider using in-memory key store.
+     *
+     * @throws Exception if the key store cannot be created
+     */
+    @Before
+    public void setUp() throws Exception {
+        final KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        final KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(256);
+        keyStore.setEntry("master", new KeyStore.SecretKeyEntry(generator.generateKey()),
+            new KeyStore.PasswordProtection(PASSWORD));
+        masterKeyProvider = new KeyStoreMasterKeyProvider(keyStore, "master", PASSWORD);
+    }
+
+    /**
+     * Verifies if values encrypted using rotated data keys remain decryptable, also by other instance.
+     */
+    @Test
+    public void shouldDecryptValuesEncryptedUsingRotatedDataKeys() {
+
+        // Given values encrypted using distinct data keys, ...
+        final EnvelopeEncryptionService service = new EnvelopeEncryptionService(masterKeyProvider,
+            EnvelopeAlgorithm.AES_GCM);
+        final DecryptableValue<byte[]> first = service.encrypt(PLAINTEXT);
+        service.rotateDataKey();
+        final DecryptableValue<byte[]> second = service.encrypt(PLAINTEXT);
+
+        // ... when we decrypt them using other instance sharing the master key, ...
+        final EnvelopeEncryptionService other = new EnvelopeEncryptionService(masterKeyProvider,
+            EnvelopeAlgorithm.AES_GCM);
+
+        // ... we should get the original values.
+        assertArrayEquals("Value should decrypt itself.", PLAINTEXT, first.decrypt());
+        assertArrayEquals("Value encrypted using previous data key should be decrypted.", PLAINTEXT,
+            other.decrypt(first));
+        assertArrayEquals("Value encrypted using current data key should be decrypted.", PLAINTEXT,
+            other.decrypt(second));
+    }
+
+    /**
+     * Verifies if encrypted value declaring wrapped data key longer than the value itself is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTruncatedValue() {
+
+        // Given encrypted value declaring the longest wrapped data key, followed by few bytes only, ...
+        final EnvelopeEncryptionService service = new EnvelopeEncryptionService(masterKeyProvider,
+            EnvelopeAlgorithm.AES_GCM);
+        final byte[] encrypted = new byte[Varints.size(Integer.MAX_VALUE) + 16];
+        Varints.write(encrypted, 0, Integer.MAX_VALUE);
+
+        // ... when we decrypt it, IllegalArgumentException should be thrown.
+        service.decrypt(DefaultDecryptableValue.factory(service).decryptableValue(encrypted));
+    }
+
+    /**
+     * Verifies if unwrapped data keys are cached.
+     *
+     * @throws GeneralSecurityException if the key store cannot be used
+     */
+    @Test
+    public void shouldUnwrapDataKeyOnce() throws GeneralSecurityException {
+        final EnvelopeEncryptionService encrypting = new EnvelopeEncryptionService(masterKeyProvider,
+            EnvelopeAlgorithm.AES_GCM);
+        final EnvelopeEncryptionService decrypting = new EnvelopeEncryptionService(masterKeyProvider,
+            EnvelopeAlgorithm.AES_GCM, 16, Duration.ofMinutes(1), CipherPool.shared());
+        for (int index = 0; index < 100; index++) {
+            decrypting.decrypt(encrypting.encrypt(PLAINTEXT));
+        }
+        assertEquals("Data key should be unwrapped once.", 1, decrypting.getUnwrapCount());
+    }
+
+}
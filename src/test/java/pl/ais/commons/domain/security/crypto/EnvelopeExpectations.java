@@ -0,0 +1,113 @@
+package pl.ais.commons.domain.security.crypto;
+
+import org.junit.Test;
+import pl.ais.commons.domain.security.DecryptableValue;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Verifies ciphertext envelope expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("static-method")
+public class EnvelopeExpectations {
+
+    private static final Key KEY = new SecretKeySpec("AdenosineTriphos".getBytes(), "AES");
+
+    private static final byte[] PLAINTEXT = "Lorem ipsum dolor sit amet".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Verifies if the envelopes can be decrypted by the decipherer using the same algorithm and key.
+     */
+    @Test
+    public void shouldDecryptEnvelopes() {
+        for (final EnvelopeAlgorithm algorithm : Arrays.asList(EnvelopeAlgorithm.AES_CBC, EnvelopeAlgorithm.AES_CTR,
+            EnvelopeAlgorithm.AES_GCM)) {
+
+            // Given value encrypted into the envelope, ...
+            final DecryptableValue<byte[]> encrypted = Cipherer.enveloped(algorithm, KEY).encrypt(PLAINTEXT);
+
+            // ... when we decrypt it using separately created decipherer, ...
+            final byte[] decrypted = Decipherer.enveloped(algorithm, KEY).decrypt(encrypted);
+
+            // ... we should get the original value.
+            assertArrayEquals("Decrypted value should match the original one.", PLAINTEXT, decrypted);
+            assertArrayEquals("Value should decrypt itself.", PLAINTEXT, encrypted.decrypt());
+        }
+    }
+
+    /**
+     * Verifies if pooled ChaCha20 cipher can decrypt the same envelope repeatedly.
+     */
+    @Test
+    public void shouldDecryptSameChaChaEnvelopeRepeatedly() {
+        final Key key = new SecretKeySpec("AdenosineTriphosphateAdenosineTr".getBytes(), "ChaCha20");
+        final CipherPool pool = new CipherPool(1, 1);
+        final Decipherer decipherer = Decipherer.enveloped(EnvelopeAlgorithm.CHACHA20_POLY1305, key, pool);
+        final DecipherableValue encrypted = new DecipherableValue(decipherer, null,
+            Cipherer.enveloped(EnvelopeAlgorithm.CHACHA20_POLY1305, key).encrypt(PLAINTEXT).getEncryptedValue());
+        assertArrayEquals("Value should be decrypted.", PLAINTEXT, decipherer.decrypt(encrypted));
+        assertArrayEquals("Value should be decrypted again.", PLAINTEXT, decipherer.decrypt(encrypted));
+    }
+
+    /**
+     * Verifies if the envelopes embed the key identifier.
+     */
+    @Test
+    public void shouldEmbedKeyIdentifier() {
+        final byte[] envelope = Cipherer.enveloped(EnvelopeAlgorithm.AES_GCM, KEY, 300)
+                                        .encrypt(PLAINTEXT)
+                                        .getEncryptedValue();
+        assertEquals("Envelope should hold the algorithm.", EnvelopeAlgorithm.AES_GCM, Envelopes.algorithm(envelope));
+        assertEquals("Envelope should hold the key identifier.", 300, Envelopes.keyId(envelope));
+        assertArrayEquals("Envelope with key identifier should be decryptable.", PLAINTEXT,
+            Decipherer.enveloped(EnvelopeAlgorithm.AES_GCM, KEY).decrypt(new DecipherableValue(
+                Decipherer.enveloped(EnvelopeAlgorithm.AES_GCM, KEY), null, envelope)));
+    }
+
+    /**
+     * Verifies if each encryption uses fresh initialization vector.
+     */
+    @Test
+    public void shouldUseFreshInitializationVector() {
+        final Cipherer cipherer = Cipherer.enveloped(EnvelopeAlgorithm.AES_GCM, KEY);
+        assertFalse("Same value should be encrypted differently each time.", Arrays.equals(
+            cipherer.encrypt(PLAINTEXT).getEncryptedValue(), cipherer.encrypt(PLAINTEXT).getEncryptedValue()));
+    }
+
+    /**
+     * Verifies if tampered authenticated envelope is rejected.
+     */
+    @Test(expected = RuntimeException.class)
+    public void shouldRejectTamperedEnvelope() {
+        final byte[] envelope = Cipherer.enveloped(EnvelopeAlgorithm.AES_GCM, KEY)
+                                        .encrypt(PLAINTEXT)
+                                        .getEncryptedValue();
+        envelope[envelope.length - 1] ^= 1;
+        final Decipherer decipherer = Decipherer.enveloped(EnvelopeAlgorithm.AES_GCM, KEY);
+        decipherer.decrypt(new DecipherableValue(decipherer, null, envelope));
+    }
+
+    /**
+     * Verifies if envelope declaring initialization vector length not matching its algorithm is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectEnvelopeWithUnexpectedInitializationVectorLength() {
+        final byte[] envelope = Cipherer.enveloped(EnvelopeAlgorithm.AES_GCM, KEY)
+                                        .encrypt(PLAINTEXT)
+                                        .getEncryptedValue();
+        envelope[2] = 4;
+        final Decipherer decipherer = Decipherer.enveloped(EnvelopeAlgorithm.AES_GCM, KEY);
+        decipherer.decrypt(new DecipherableValue(decipherer, null, envelope));
+    }
+
+}
@@ -0,0 +1,122 @@
+package pl.ais.commons.domain.security.crypto;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Verifies {@link FileCipherer} and {@link FileDecipherer} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+public class FileCiphererExpectations {
+
+    private static final Key KEY = new SecretKeySpec("AdenosineTriphos".getBytes(), "AES");
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+    /**
+     * Temporary folder holding the files.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Verifies if file encrypted in parallel can be decrypted both in parallel and as a stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void shouldBeAbleToDecryptEncryptedFile() throws IOException {
+
+        // Given file encrypted in parallel, using small segments, ...
+        final byte[] unencrypted = new byte[3 * 1024 * 1024 + 17];
+        new Random(17).nextBytes(unencrypted);
+        final Path source = folder.newFile().toPath();
+        final Path encrypted = folder.newFile().toPath();
+        final Path decrypted = folder.newFile().toPath();
+        Files.write(source, unencrypted);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final long written = new FileCipherer(new Cipherer(TRANSFORMATION, KEY), 4096, pool)
+                .encrypt(source, encrypted);
+
+            // ... when we decrypt the file in parallel, ...
+            new FileDecipherer(new Decipherer(TRANSFORMATION, KEY), pool).decrypt(encrypted, decrypted);
+
+            // ... decrypted file should be equal to unencrypted one, ...
+            assertEquals("Reported length should match encrypted file length.", Files.size(encrypted), written);
+            assertArrayEquals("Decrypted file should be equal to unencrypted.", unencrypted,
+                Files.readAllBytes(decrypted));
+        } finally {
+            pool.shutdown();
+        }
+
+        // ... and the same should apply when decrypting the file as a stream.
+        final ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        try (InputStream input = Files.newInputStream(encrypted)) {
+            new StreamDecipherer(new Decipherer(TRANSFORMATION, KEY)).decrypt(input, streamed);
+        }
+        assertArrayEquals("Decrypted stream should be equal to unencrypted.", unencrypted, streamed.toByteArray());
+    }
+
+    /**
+     * Verifies if tampered file is detected during decryption.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test(expected = IOException.class)
+    public void shouldDetectTamperedFile() throws IOException {
+        final Path source = folder.newFile().toPath();
+        final Path encrypted = folder.newFile().toPath();
+        Files.write(source, new byte[100_000]);
+        new FileCipherer(new Cipherer(TRANSFORMATION, KEY)).encrypt(source, encrypted);
+        final byte[] tampered = Files.readAllBytes(encrypted);
+        tampered[tampered.length / 2] ^= 1;
+        Files.write(encrypted, tampered);
+        new FileDecipherer(new Decipherer(TRANSFORMATION, KEY)).decrypt(encrypted, folder.newFile().toPath());
+    }
+
+    /**
+     * Verifies if pooled ChaCha20 cipher can decrypt the same file repeatedly.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void shouldDecryptSameChaChaFileRepeatedly() throws IOException {
+
+        // Given file encrypted using ChaCha20, and decipherer using single-cipher pool, ...
+        final Key key = new SecretKeySpec("AdenosineTriphosphateAdenosineTr".getBytes(), "ChaCha20");
+        final byte[] unencrypted = new byte[1000];
+        new Random(17).nextBytes(unencrypted);
+        final Path source = folder.newFile().toPath();
+        final Path encrypted = folder.newFile().toPath();
+        Files.write(source, unencrypted);
+        new FileCipherer(new Cipherer("ChaCha20-Poly1305", key)).encrypt(source, encrypted);
+        final FileDecipherer decipherer = new FileDecipherer(new Decipherer("ChaCha20-Poly1305", key,
+            new CipherPool(1, 1)));
+
+        // ... when we decrypt the file twice, it should be decrypted both times.
+        for (int attempt = 0; attempt < 2; attempt++) {
+            final Path decrypted = folder.newFile().toPath();
+            decipherer.decrypt(encrypted, decrypted);
+            assertArrayEquals("Decrypted file should be equal to unencrypted.", unencrypted,
+                Files.readAllBytes(decrypted));
+        }
+    }
+
+}
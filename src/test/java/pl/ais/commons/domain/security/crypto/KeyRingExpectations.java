@@ -0,0 +1,224 @@
+package pl.ais.commons.domain.security.crypto;
+
+import org.junit.Test;
+import pl.ais.commons.domain.security.BatchExecution;
+import pl.ais.commons.domain.security.DecryptableValue;
+import pl.ais.commons.domain.security.DefaultDecryptableValue;
+import pl.ais.commons.domain.security.Decryptor;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies {@link KeyRing} and {@link ReEncryptionJob} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("static-method")
+public class KeyRingExpectations {
+
+    private static final Key FIRST_KEY = new SecretKeySpec("AdenosineTriphos".getBytes(), "AES");
+
+    private static final byte[] PLAINTEXT = "Lorem ipsum dolor sit amet".getBytes(StandardCharsets.UTF_8);
+
+    private static final Key SECOND_KEY = new SecretKeySpec("AdenosineDiphosp".getBytes(), "AES");
+
+    /**
+     * Verifies if values encrypted using previous key remain decryptable after the rotation.
+     */
+    @Test
+    public void shouldDecryptValuesEncryptedBeforeRotation() {
+
+        // Given value encrypted before the rotation of keys, ...
+        final KeyRing keyRing = new KeyRing(EnvelopeAlgorithm.AES_GCM, 1, FIRST_KEY);
+        final DecryptableValue<byte[]> previous = keyRing.encrypt(PLAINTEXT);
+
+        // ... when we rotate the keys, and encrypt other value, ...
+        keyRing.add(2, SECOND_KEY)
+               .rotate(2);
+        final DecryptableValue<byte[]> current = keyRing.encrypt(PLAINTEXT);
+
+        // ... both values should be decryptable, and tagged with applicable key identifiers.
+        assertArrayEquals("Previous value should be decrypted.", PLAINTEXT, keyRing.decrypt(previous));
+        assertArrayEquals("Current value should be decrypted.", PLAINTEXT, keyRing.decrypt(current));
+        assertEquals("Previous value should be tagged with previous key.", 1, keyRing.keyId(previous));
+        assertTrue("Current value should be tagged with current key.", keyRing.isCurrent(current));
+    }
+
+    /**
+     * Verifies if the job re-encrypts only the values encrypted using other than current key, and checkpoints
+     * each batch.
+     *
+     * @throws InterruptedException if the current thread has been interrupted
+     */
+    @Test
+    public void jobShouldReEncryptValuesUsingPreviousKeys() throws InterruptedException {
+
+        // Given stored values, half of which is encrypted using previous key, ...
+        final KeyRing keyRing = new KeyRing(EnvelopeAlgorithm.AES_GCM, 1, FIRST_KEY).add(2, SECOND_KEY);
+        final Map<Integer, DecryptableValue<byte[]>> store = new TreeMap<>();
+        for (int index = 0; index < 100; index++) {
+            if (50 == index) {
+                keyRing.rotate(2);
+            }
+            store.put(index, keyRing.encrypt(PLAINTEXT));
+        }
+
+        // ... when we run the re-encryption job, ...
+        final List<Integer> checkpoints = new ArrayList<>();
+        final long result = new ReEncryptionJob<Integer>(keyRing, batch -> {
+            for (final Map.Entry<Integer, DecryptableValue<byte[]>> entry : batch) {
+                store.put(entry.getKey(), entry.getValue());
+            }
+        }).withBatchSize(10)
+          .withExecution(BatchExecution.forkJoin(ForkJoinPool.commonPool(), 2))
+          .withCheckpoint(checkpoints::add)
+          .run(new TreeMap<>(store).entrySet()
+                                   .stream());
+
+        // ... values encrypted using previous key should be re-encrypted using the current one.
+        assertEquals("Values encrypted using previous key should be re-encrypted.", 50, result);
+        assertEquals("Each batch should be checkpointed.", 10, checkpoints.size());
+        assertEquals("Last checkpoint should point to the last value.", Integer.valueOf(99), checkpoints.get(9));
+        for (final DecryptableValue<byte[]> value : store.values()) {
+            assertTrue("All values should be encrypted using current key.", keyRing.isCurrent(value));
+            assertArrayEquals("All values should remain decryptable.", PLAINTEXT, keyRing.decrypt(value));
+        }
+    }
+
+    /**
+     * Verifies if the job stopped before the run doesn't process any value.
+     *
+     * @throws InterruptedException if the current thread has been interrupted
+     */
+    @Test
+    public void jobShouldNotRunOnceStopped() throws InterruptedException {
+
+        // Given stored value encrypted using previous key, and job stopped before the run, ...
+        final KeyRing keyRing = new KeyRing(EnvelopeAlgorithm.AES_GCM, 1, FIRST_KEY);
+        final Map<Integer, DecryptableValue<byte[]>> store = new TreeMap<>();
+        store.put(1, keyRing.encrypt(PLAINTEXT));
+        keyRing.add(2, SECOND_KEY)
+               .rotate(2);
+        final ReEncryptionJob<Integer> job = new ReEncryptionJob<>(keyRing, batch -> {
+        });
+        job.stop();
+
+        // ... when we run the job, ...
+        final long result = job.run(store.entrySet()
+                                         .stream());
+
+        // ... no value should be examined.
+        assertEquals("No value should be re-encrypted.", 0, result);
+        assertEquals("No value should be examined.", 0, job.getExaminedCount());
+    }
+
+    /**
+     * Verifies if the job skips the values not tagged with the key identifier, unless legacy decryptor is provided.
+     *
+     * @throws InterruptedException if the current thread has been interrupted
+     */
+    @Test
+    public void jobShouldSkipLegacyValuesUnlessLegacyDecryptorIsProvided() throws InterruptedException {
+
+        // Given stored values, half of which is legacy one (not tagged with the key identifier), ...
+        final KeyRing keyRing = new KeyRing(EnvelopeAlgorithm.AES_GCM, 1, FIRST_KEY);
+        final Decryptor<byte[]> legacyDecryptor = DecryptableValue::getEncryptedValue;
+        final Map<Integer, DecryptableValue<byte[]>> store = new TreeMap<>();
+        for (int index = 0; index < 20; index++) {
+            store.put(index, (0 == (index % 2)) ? keyRing.encrypt(PLAINTEXT)
+                : DefaultDecryptableValue.factory(legacyDecryptor)
+                                         .decryptableValue(PLAINTEXT));
+        }
+        keyRing.add(2, SECOND_KEY)
+               .rotate(2);
+        final ReEncryptionJob<Integer> job = new ReEncryptionJob<Integer>(keyRing, batch -> {
+            for (final Map.Entry<Integer, DecryptableValue<byte[]>> entry : batch) {
+                store.put(entry.getKey(), entry.getValue());
+            }
+        }).withBatchSize(5);
+
+        // ... when we run the job without legacy decryptor, ...
+        final long tagged = job.run(new TreeMap<>(store).entrySet()
+                                                        .stream());
+
+        // ... legacy values should be skipped, ...
+        assertEquals("Tagged values should be re-encrypted.", 10, tagged);
+        assertEquals("Legacy values should be skipped.", 10, job.getSkippedCount());
+        assertFalse("Legacy value should remain untagged.", keyRing.isTagged(store.get(1)));
+
+        // ... and when we run the job using legacy decryptor, legacy values should be re-encrypted too.
+        final long legacy = job.withLegacyDecryptor(legacyDecryptor)
+                               .run(new TreeMap<>(store).entrySet()
+                                                        .stream());
+        assertEquals("Legacy values should be re-encrypted.", 10, legacy);
+        for (final DecryptableValue<byte[]> value : store.values()) {
+            assertTrue("All values should be encrypted using current key.", keyRing.isCurrent(value));
+            assertArrayEquals("All values should remain decryptable.", PLAINTEXT, keyRing.decrypt(value));
+        }
+    }
+
+    /**
+     * Verifies if replacing the key evicts the ciphers using the previous one from the pool.
+     */
+    @Test
+    public void shouldEvictCiphersOfReplacedKey() {
+
+        // Given key ring, whose key has been used already, ...
+        final CipherPool pool = new CipherPool(2, 4);
+        final KeyRing keyRing = new KeyRing(EnvelopeAlgorithm.AES_GCM, 1, FIRST_KEY, pool);
+        keyRing.decrypt(keyRing.encrypt(PLAINTEXT));
+
+        // ... when we replace the key, ...
+        keyRing.add(1, SECOND_KEY);
+
+        // ... ciphers using the previous key should be evicted.
+        assertEquals("Ciphers using the previous key should be evicted.", 0, pool.size());
+        assertArrayEquals("Value should be encrypted using the replacement key.", PLAINTEXT,
+            keyRing.decrypt(keyRing.encrypt(PLAINTEXT)));
+    }
+
+    /**
+     * Verifies if the job skips the values which cannot be decrypted, instead of failing.
+     *
+     * @throws InterruptedException if the current thread has been interrupted
+     */
+    @Test
+    public void jobShouldSkipValuesWhichCannotBeDecrypted() throws InterruptedException {
+
+        // Given value encrypted using the key removed from the ring, and legacy value decrypted into null, ...
+        final KeyRing keyRing = new KeyRing(EnvelopeAlgorithm.AES_GCM, 1, FIRST_KEY);
+        final Map<Integer, DecryptableValue<byte[]>> store = new TreeMap<>();
+        store.put(1, keyRing.encrypt(PLAINTEXT));
+        store.put(2, DefaultDecryptableValue.factory((Decryptor<byte[]>) value -> null)
+                                            .decryptableValue(PLAINTEXT));
+        keyRing.add(2, SECOND_KEY)
+               .rotate(2)
+               .remove(1);
+        final List<Map.Entry<Integer, DecryptableValue<byte[]>>> written = new ArrayList<>();
+        final ReEncryptionJob<Integer> job = new ReEncryptionJob<Integer>(keyRing, written::addAll)
+            .withLegacyDecryptor(value -> null);
+
+        // ... when we run the job, ...
+        final long result = job.run(store.entrySet()
+                                         .stream());
+
+        // ... both values should be skipped.
+        assertEquals("No value should be re-encrypted.", 0, result);
+        assertEquals("Both values should be skipped.", 2, job.getSkippedCount());
+        assertTrue("Nothing should be written.", written.isEmpty());
+    }
+
+}
@@ -0,0 +1,62 @@
+package pl.ais.commons.domain.security.crypto;
+
+import org.junit.After;
+import org.junit.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies {@link ProviderSelector} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+public class ProviderSelectorExpectations {
+
+    /**
+     * Unpins the provider selected by the test.
+     */
+    @After
+    public void tearDown() {
+        ProviderSelector.unpin(EnvelopeAlgorithm.AES_GCM);
+    }
+
+    /**
+     * Verifies if the provider passing the known-answer test is selected, pinned and reported.
+     *
+     * @throws GeneralSecurityException if no provider passes the known-answer test, or the cipher cannot be created
+     */
+    @Test
+    public void shouldPinMeasuredProvider() throws GeneralSecurityException {
+
+        // Given quick selector, ...
+        final ProviderSelector selector = new ProviderSelector().withMeasurementTime(Duration.ofMillis(5))
+                                                                .withPayloadSize(1024);
+
+        // ... when we pin the provider for AES in GCM mode, ...
+        final ProviderSelector.Selection selection = selector.pin(EnvelopeAlgorithm.AES_GCM);
+
+        // ... selected provider should be measured and reported, ...
+        assertTrue("Selected provider should be measured.",
+            0 < selection.getThroughput().get(selection.getProvider().getName()));
+        assertSame("Selection should be reported.", selection,
+            ProviderSelector.getPinnedSelections().get("AES/GCM/NoPadding"));
+
+        // ... and ciphers should be created by the pinned provider.
+        final CipherPool.Spec spec = new CipherPool.Spec("AES/GCM/NoPadding", new SecretKeySpec(new byte[16], "AES"));
+        assertSame("Cipher should be created by pinned provider.", selection.getProvider(),
+            spec.newCipher().getProvider());
+        final Cipherer cipherer = Cipherer.enveloped(EnvelopeAlgorithm.AES_GCM, new SecretKeySpec(new byte[16], "AES"));
+        final byte[] unencrypted = "Adenosine".getBytes(StandardCharsets.UTF_8);
+        assertEquals("Decrypted value should be equal to unencrypted.", "Adenosine",
+            new String(cipherer.encrypt(unencrypted).decrypt(), StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,124 @@
+package pl.ais.commons.domain.security.crypto;
+
+import org.junit.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.security.Key;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Verifies {@link StreamCipherer} and {@link StreamDecipherer} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("static-method")
+public class StreamCiphererExpectations {
+
+    private static final Key KEY = new SecretKeySpec("AdenosineTriphos".getBytes(), "AES");
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+    private static byte[] randomBytes(final int size) {
+        final byte[] result = new byte[size];
+        new Random(size).nextBytes(result);
+        return result;
+    }
+
+    /**
+     * Verifies if multi-segment stream encrypted by {@link StreamCipherer} can be decrypted by
+     * {@link StreamDecipherer}.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void shouldBeAbleToDecryptEncryptedStream() throws IOException {
+        for (final int size : new int[]{0, 999, 1000, 10_500}) {
+
+            // Given multi-segment stream encrypted by the stream cipherer, ...
+            final byte[] unencrypted = randomBytes(size);
+            final ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+            final long written = new StreamCipherer(new Cipherer(TRANSFORMATION, KEY), 1000)
+                .encrypt(new ByteArrayInputStream(unencrypted), encrypted);
+
+            // ... when we decrypt the stream, ...
+            final ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+            new StreamDecipherer(new Decipherer(TRANSFORMATION, KEY)).decrypt(
+                Channels.newChannel(new ByteArrayInputStream(encrypted.toByteArray())), Channels.newChannel(decrypted));
+
+            // ... decrypted stream should be equal to unencrypted one.
+            assertEquals("Reported length should match encrypted stream length.", encrypted.size(), written);
+            assertEquals("Encrypted stream length should be predictable.", Segments.ciphertextLength(size, 1000),
+                written);
+            assertArrayEquals("Decrypted stream should be equal to unencrypted.", unencrypted,
+                decrypted.toByteArray());
+        }
+    }
+
+    /**
+     * Verifies if truncated stream is detected during decryption.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test(expected = IOException.class)
+    public void shouldDetectTruncatedStream() throws IOException {
+        final ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+        new StreamCipherer(new Cipherer(TRANSFORMATION, KEY), 1000).encrypt(
+            new ByteArrayInputStream(randomBytes(3000)), encrypted);
+        final byte[] truncated = Arrays.copyOf(encrypted.toByteArray(), Segments.HEADER_LENGTH
+            + (3 * (Segments.PREFIX_LENGTH + 1000 + Segments.TAG_LENGTH)));
+        new StreamDecipherer(new Decipherer(TRANSFORMATION, KEY)).decrypt(new ByteArrayInputStream(truncated),
+            new ByteArrayOutputStream());
+    }
+
+    /**
+     * Verifies if pooled ChaCha20 cipher can decrypt the same single-segment stream repeatedly.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void shouldDecryptSameChaChaStreamRepeatedly() throws IOException {
+
+        // Given single-segment stream encrypted using ChaCha20, and decipherer using single-cipher pool, ...
+        final Key key = new SecretKeySpec("AdenosineTriphosphateAdenosineTr".getBytes(), "ChaCha20");
+        final byte[] unencrypted = randomBytes(100);
+        final ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+        new StreamCipherer(new Cipherer("ChaCha20-Poly1305", key), 1000).encrypt(
+            new ByteArrayInputStream(unencrypted), encrypted);
+        final StreamDecipherer decipherer = new StreamDecipherer(new Decipherer("ChaCha20-Poly1305", key,
+            new CipherPool(1, 1)));
+
+        // ... when we decrypt the stream twice, it should be decrypted both times.
+        for (int attempt = 0; attempt < 2; attempt++) {
+            final ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+            decipherer.decrypt(new ByteArrayInputStream(encrypted.toByteArray()), decrypted);
+            assertArrayEquals("Decrypted stream should be equal to unencrypted.", unencrypted,
+                decrypted.toByteArray());
+        }
+    }
+
+    /**
+     * Verifies if non-blocking channel is rejected, instead of being read in busy loop.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonBlockingChannel() throws IOException {
+        final Pipe pipe = Pipe.open();
+        try (Pipe.SourceChannel source = pipe.source(); Pipe.SinkChannel sink = pipe.sink()) {
+            source.configureBlocking(false);
+            new StreamCipherer(new Cipherer(TRANSFORMATION, KEY)).encrypt(source,
+                Channels.newChannel(new ByteArrayOutputStream()));
+        }
+    }
+
+}
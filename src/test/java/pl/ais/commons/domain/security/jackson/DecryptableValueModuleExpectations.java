@@ -0,0 +1,124 @@
+package pl.ais.commons.domain.security.jackson;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import pl.ais.commons.domain.security.DecryptableValue;
+import pl.ais.commons.domain.security.DecryptableValueFactory;
+import pl.ais.commons.domain.security.DefaultDecryptableValue;
+import pl.ais.commons.domain.security.PassThroughCryptographicService;
+
+import java.io.IOException;
+import java.util.Base64;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies {@link DecryptableValueModule} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+public class DecryptableValueModuleExpectations {
+
+    private final PassThroughCryptographicService service = new PassThroughCryptographicService();
+
+    /**
+     * Verifies if decryptable values are serialized as Base64 encoded encrypted values, and deserialized back again.
+     *
+     * @throws IOException if (de)serialization fails
+     */
+    @Test
+    public void shouldRoundTripDecryptableValues() throws IOException {
+
+        // Given object mapper using the module, ...
+        final ObjectMapper mapper = new ObjectMapper().registerModule(
+            new DecryptableValueModule(DefaultDecryptableValue.factory(service)));
+        final Account account = new Account();
+        account.secret = service.encrypt("Adenosine");
+
+        // ... when we serialize and deserialize the object holding decryptable values, ...
+        final String json = mapper.writeValueAsString(account);
+        final Account deserialized = mapper.readValue(json, Account.class);
+
+        // ... encrypted value should be written as Base64, and decryptable values should be restored.
+        assertTrue("Encrypted value should be written as Base64.", json.contains(
+            Base64.getEncoder().encodeToString(account.secret.getEncryptedValue())));
+        assertEquals("Decrypted value should be equal to unencrypted.", "Adenosine", deserialized.secret.decrypt());
+        assertNull("Null value should remain null.", deserialized.pin);
+    }
+
+    /**
+     * Verifies if the factory registered for the type of unencrypted value takes precedence over the default one.
+     *
+     * @throws IOException if (de)serialization fails
+     */
+    @Test
+    public void shouldUseFactoryRegisteredForValueType() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(
+            new DecryptableValueModule(DefaultDecryptableValue.factory(service)).withFactory(Integer.class,
+                DefaultDecryptableValue.factory(value -> value.getEncryptedValue().length)));
+        final PinHolder holder = mapper.readValue("{\"pin\":\"AAAA\",\"secret\":\"QUJD\"}", PinHolder.class);
+        assertEquals("Registered factory should be used.", Integer.valueOf(3), holder.pin.decrypt());
+        assertEquals("Default factory should be used.", "ABC", holder.secret.decrypt());
+    }
+
+    /**
+     * Verifies if deserialization fails, if deserialized value is not created by the factory.
+     *
+     * @throws IOException if (de)serialization fails
+     */
+    @Test(expected = JsonMappingException.class)
+    public void shouldRejectValuesOfOtherImplementation() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(
+            new DecryptableValueModule((DecryptableValueFactory<String, DecryptableValue<String>>) value ->
+                new DecryptableValue<String>() {
+
+                    @Override
+                    public String decrypt() {
+                        return "Other";
+                    }
+
+                    @Override
+                    public byte[] getEncryptedValue() {
+                        return value.clone();
+                    }
+
+                }));
+        mapper.readValue("{\"value\":\"AAAA\"}", DefaultHolder.class);
+    }
+
+    /**
+     * Object holding decryptable values.
+     */
+    public static class Account {
+
+        public DecryptableValue<String> pin;
+
+        public DecryptableValue<String> secret;
+
+    }
+
+    /**
+     * Object holding decryptable value of given implementation.
+     */
+    public static class DefaultHolder {
+
+        public DefaultDecryptableValue<String> value;
+
+    }
+
+    /**
+     * Object holding decryptable values of distinct types.
+     */
+    public static class PinHolder {
+
+        public DecryptableValue<Integer> pin;
+
+        public DecryptableValue<String> secret;
+
+    }
+
+}
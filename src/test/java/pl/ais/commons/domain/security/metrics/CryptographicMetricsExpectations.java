@@ -0,0 +1,112 @@
+package pl.ais.commons.domain.security.metrics;
+
+import org.junit.Test;
+import pl.ais.commons.domain.security.DecryptableValue;
+import pl.ais.commons.domain.security.PassThroughCryptographicService;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Verifies {@link CryptographicMetrics} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("static-method")
+public class CryptographicMetricsExpectations {
+
+    /**
+     * Verifies if instrumented service records the operations, and publishes them over JMX.
+     *
+     * @throws JMException if the MBean attribute cannot be read
+     */
+    @Test
+    public void shouldRecordOperationsAndPublishThem() throws JMException {
+
+        // Given instrumented service, publishing its metrics, ...
+        final PassThroughCryptographicService delegate = new PassThroughCryptographicService();
+        final CryptographicMetrics metrics = new CryptographicMetrics().register("expectations");
+        final InstrumentedCryptographicService<String> service = new InstrumentedCryptographicService<>(delegate,
+            delegate, metrics, String::length);
+        try {
+
+            // ... when we encrypt and decrypt the values, ...
+            for (int index = 0; index < 10; index++) {
+                service.decrypt(service.encrypt("Adenosine"));
+            }
+
+            // ... the operations should be recorded, and published.
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals("Encryptions should be published.", 10L,
+                server.getAttribute(CryptographicMetrics.objectName("expectations"), "EncryptionCount"));
+            assertEquals("Decrypted bytes should be recorded.", 90, metrics.getDecryptedBytes());
+            assertTrue("Median latency should be recorded.", 0 < metrics.getDecryptionLatencyP50());
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse("Metrics should be unregistered.",
+            ManagementFactory.getPlatformMBeanServer().isRegistered(CryptographicMetrics.objectName("expectations")));
+    }
+
+    /**
+     * Verifies if decryption of the value returned by instrumented service is recorded, even if the value is decrypted
+     * on its own.
+     */
+    @Test
+    public void shouldRecordDecryptionOfEncryptedValue() {
+
+        // Given value encrypted by instrumented service, ...
+        final PassThroughCryptographicService delegate = new PassThroughCryptographicService();
+        final CryptographicMetrics metrics = new CryptographicMetrics();
+        final DecryptableValue<String> value = new InstrumentedCryptographicService<>(delegate, delegate, metrics,
+            String::length).encrypt("Adenosine");
+
+        // ... when we decrypt the value on its own, ...
+        final String decrypted = value.decrypt();
+
+        // ... the decryption should be recorded.
+        assertEquals("Value should be decrypted.", "Adenosine", decrypted);
+        assertEquals("Decryption should be recorded.", 1, metrics.getDecryptionCount());
+        assertEquals("Decrypted bytes should be recorded.", 9, metrics.getDecryptedBytes());
+    }
+
+    /**
+     * Verifies if failed operations are recorded, and the failure is propagated.
+     */
+    @Test
+    public void shouldRecordFailures() {
+        final CryptographicMetrics metrics = new CryptographicMetrics();
+        final InstrumentedEncryptor<String> encryptor = new InstrumentedEncryptor<>(value -> {
+            throw new IllegalStateException("Failed.");
+        }, metrics);
+        try {
+            encryptor.encrypt("Adenosine");
+            fail("Failure should be propagated.");
+        } catch (final IllegalStateException exception) {
+            assertEquals("Failure should be recorded.", 1, metrics.getEncryptionFailureCount());
+        }
+    }
+
+    /**
+     * Verifies if the histogram reports percentiles with the precision of power-of-two buckets.
+     */
+    @Test
+    public void histogramShouldReportPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int index = 0; index < 99; index++) {
+            histogram.record(100);
+        }
+        histogram.record(5000);
+        assertEquals("Median should fall into the bucket of 100ns.", 128, histogram.getPercentile(50));
+        assertEquals("Maximum should fall into the bucket of 5000ns.", 8192, histogram.getPercentile(100));
+        assertEquals("Mean should be exact.", 149.0, histogram.getMean(), 0.0);
+    }
+
+}
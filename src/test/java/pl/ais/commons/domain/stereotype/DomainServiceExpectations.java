@@ -0,0 +1,70 @@
+package pl.ais.commons.domain.stereotype;
+
+import org.junit.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Indexed;
+import pl.ais.commons.domain.security.Encryptor;
+import pl.ais.commons.domain.security.PassThroughCryptographicService;
+
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies {@link DomainService} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("static-method")
+public class DomainServiceExpectations {
+
+    /**
+     * Verifies if Domain Services are proxied, unless the proxy-free registration is requested.
+     */
+    @Test
+    public void shouldProxyDomainServicesUnlessRequestedOtherwise() {
+
+        // Given application context holding proxied and proxy-free Domain Services, ...
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+            ProxiedService.class, PassThroughCryptographicService.class)) {
+
+            // ... service registered by default should be proxied, ...
+            assertTrue("Domain Service should be proxied by default.",
+                AopUtils.isJdkDynamicProxy(context.getBean(Supplier.class)));
+
+            // ... and the stateless service should be registered as it is.
+            assertFalse("Stateless Domain Service should not be proxied.",
+                AopUtils.isAopProxy(context.getBean(Encryptor.class)));
+            context.getBean(PassThroughCryptographicService.class);
+        }
+    }
+
+    /**
+     * Verifies if stereotypes are recorded in the component index.
+     */
+    @Test
+    public void shouldIndexStereotypes() {
+        assertTrue("Domain Services should be indexed.",
+            AnnotatedElementUtils.isAnnotated(DomainService.class, Indexed.class));
+        assertTrue("Value Objects should be indexed.",
+            AnnotatedElementUtils.isAnnotated(ValueObject.class, Indexed.class));
+    }
+
+    /**
+     * Domain Service registered using default proxy mode.
+     */
+    @DomainService
+    static class ProxiedService implements Supplier<String> {
+
+        @Override
+        public String get() {
+            return "proxied";
+        }
+
+    }
+
+}
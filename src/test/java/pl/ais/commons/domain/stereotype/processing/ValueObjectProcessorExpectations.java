@@ -0,0 +1,149 @@
+package pl.ais.commons.domain.stereotype.processing;
+
+import org.junit.Test;
+import org.springframework.stereotype.Indexed;
+import pl.ais.commons.domain.stereotype.ValueObject;
+
+import javax.annotation.concurrent.Immutable;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies {@link ValueObjectProcessor} expectations.
+ *
+ * @author Warlock, AIS.PL
+ * @since 1.2.5
+ */
+@SuppressWarnings("static-method")
+public class ValueObjectProcessorExpectations {
+
+    private static List<Diagnostic<? extends JavaFileObject>> compile(final String source) throws Exception {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final Path output = Files.createTempDirectory("value-objects");
+        final String classPath = Arrays.asList(ValueObject.class, Immutable.class, Indexed.class)
+                                       .stream()
+                                       .map(ValueObjectProcessorExpectations::location)
+                                       .collect(Collectors.joining(File.pathSeparator));
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+            Arrays.asList("-classpath", classPath, "-d", output.toString()), null,
+            Collections.singletonList(new Source(source)));
+        task.setProcessors(Collections.singletonList(new ValueObjectProcessor()));
+        task.call();
+        return diagnostics.getDiagnostics()
+                          .stream()
+                          .filter(diagnostic -> Diagnostic.Kind.ERROR == diagnostic.getKind())
+                          .collect(Collectors.toList());
+    }
+
+    private static String location(final Class<?> type) {
+        try {
+            return new File(type.getProtectionDomain()
+                                .getCodeSource()
+                                .getLocation()
+                                .toURI()).getPath();
+        } catch (final URISyntaxException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Verifies if value object holding final fields, and transient derived state, is accepted.
+     *
+     * @throws Exception if the compilation cannot be performed
+     */
+    @Test
+    public void shouldAcceptImmutableValueObject() throws Exception {
+        final List<Diagnostic<? extends JavaFileObject>> errors = compile(
+            "@pl.ais.commons.domain.stereotype.ValueObject public final class Money { private static int count;"
+                + " private final long amount = 0; private transient int hash; }");
+        assertTrue("Immutable value object should be accepted, but got: " + errors, errors.isEmpty());
+    }
+
+    /**
+     * Verifies if value object holding mutable field fails the build.
+     *
+     * @throws Exception if the compilation cannot be performed
+     */
+    @Test
+    public void shouldRejectValueObjectHoldingMutableField() throws Exception {
+
+        // Given value object holding mutable field, when we compile it, ...
+        final List<Diagnostic<? extends JavaFileObject>> errors = compile(
+            "@pl.ais.commons.domain.stereotype.ValueObject public final class Money { private long amount; }");
+
+        // ... the field should be reported as an error.
+        assertEquals("Mutable field should be reported.", 1, errors.size());
+        assertEquals("Error should describe the field.", "Field amount of value object Money should be final.",
+            errors.get(0).getMessage(null));
+    }
+
+    /**
+     * Verifies if value object holding array, or mutable JDK type, fails the build.
+     *
+     * @throws Exception if the compilation cannot be performed
+     */
+    @Test
+    public void shouldRejectValueObjectHoldingMutableType() throws Exception {
+
+        // Given value object holding final array and list, when we compile it, ...
+        final List<Diagnostic<? extends JavaFileObject>> errors = compile(
+            "@pl.ais.commons.domain.stereotype.ValueObject public final class Money {"
+                + " private final byte[] digits = {}; private final java.util.List<String> notes = null; }");
+
+        // ... both fields should be reported as errors.
+        assertEquals("Mutable types should be reported.", 2, errors.size());
+        assertEquals("Error should describe the field.", "Field digits of value object Money holds mutable byte[].",
+            errors.get(0).getMessage(null));
+    }
+
+    /**
+     * Verifies if mutable fields excluded from the check using {@link SuppressWarnings} are accepted.
+     *
+     * @throws Exception if the compilation cannot be performed
+     */
+    @Test
+    public void shouldAcceptSuppressedMutableFields() throws Exception {
+        final List<Diagnostic<? extends JavaFileObject>> errors = compile(
+            "@pl.ais.commons.domain.stereotype.ValueObject public final class Money {"
+                + " @SuppressWarnings(\"value-object-mutability\") private final byte[] digits = {};"
+                + " @SuppressWarnings(\"value-object-mutability\") private long amount; }");
+        assertTrue("Suppressed fields should be accepted, but got: " + errors, errors.isEmpty());
+    }
+
+    /**
+     * Source of the class compiled in memory.
+     */
+    private static final class Source extends SimpleJavaFileObject {
+
+        private final String content;
+
+        Source(final String content) {
+            super(URI.create("string:///Money.java"), Kind.SOURCE);
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+            return content;
+        }
+
+    }
+
+}